@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.jmh;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.ErrorProneFlags;
+import com.uber.nullaway.NullAway;
+import com.uber.nullaway.ProcessCache;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the fixed cost NullAway adds to every compilation: constructing the checker (parsing
+ * the config and building the handlers), and compiling a tiny module end-to-end, which also loads
+ * any models the module needs. This cost dominates for builds made of many small modules. {@link
+ * #coldCompileModeledModule} measures the whole cost for a module using modeled library and
+ * Android APIs, as in a fresh process.
+ *
+ * <p>The library models of {@code sample-library-model} and the Android SDK JarInfer models are on
+ * the benchmark classpath, so they are found when loading models, as they would be in a real
+ * build.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+public class CheckerInitializationBenchmark {
+
+  /** Flags enabling most optional features, as a large Android / server codebase would. */
+  private static final ImmutableMap<String, String> REALISTIC_FLAGS =
+      ImmutableMap.<String, String>builder()
+          .put("NullAway:AnnotatedPackages", "com.uber,com.ubercab,io.reactivex")
+          .put("NullAway:UnannotatedSubPackages", "com.uber.generated,com.uber.lib.unannotated")
+          .put("NullAway:ExcludedFieldAnnotations", "javax.inject.Inject,org.mockito.Mock")
+          .put("NullAway:KnownInitializers", "com.uber.Foo.init,com.uber.Bar.setup")
+          .put("NullAway:CastToNonNullMethod", "com.uber.nullaway.testdata.Util.castToNonNull")
+          .put("NullAway:AcknowledgeRestrictiveAnnotations", "true")
+          .put("NullAway:CheckOptionalEmptiness", "true")
+          .put("NullAway:CheckContracts", "true")
+          .put("NullAway:HandleTestAssertionLibraries", "true")
+          .put("NullAway:JarInferEnabled", "true")
+          .put("NullAway:JarInferUseReturnAnnotations", "true")
+          .build();
+
+  /**
+   * A small module calling into APIs with library models ({@code sample-library-model} and the
+   * built-in models) and JarInfer models (the Android SDK). The Android SDK is not on the benchmark
+   * classpath, so the module contains source stubs for the Android and library classes it uses;
+   * models are looked up by class and method name, so the stubs get the same models.
+   */
+  private static final ImmutableMap<String, String> MODELED_MODULE_SOURCES =
+      ImmutableMap.of(
+          "android.text.TextUtils",
+          "package android.text;\n"
+              + "public class TextUtils {\n"
+              + "  public static String htmlEncode(String s) { return s; }\n"
+              + "  public static boolean isDigitsOnly(CharSequence str) { return true; }\n"
+              + "}\n",
+          "org.utilities.StringUtils",
+          "package org.utilities;\n"
+              + "public class StringUtils {\n"
+              + "  public static boolean isEmptyOrNull(CharSequence s) {\n"
+              + "    return s == null || s.length() == 0;\n"
+              + "  }\n"
+              + "}\n",
+          "com.uber.app.Greeter",
+          "package com.uber.app;\n"
+              + "import android.text.TextUtils;\n"
+              + "import com.google.common.base.Strings;\n"
+              + "import java.util.Map;\n"
+              + "import java.util.Objects;\n"
+              + "import javax.annotation.Nullable;\n"
+              + "import org.utilities.StringUtils;\n"
+              + "public class Greeter {\n"
+              + "  public static String greet(\n"
+              + "      @Nullable String name, Map<String, String> titles) {\n"
+              + "    if (StringUtils.isEmptyOrNull(name) || Strings.isNullOrEmpty(name)) {\n"
+              + "      return \"hello\";\n"
+              + "    }\n"
+              + "    String encoded = TextUtils.htmlEncode(name);\n"
+              + "    String title = titles.get(name);\n"
+              + "    if (title == null) {\n"
+              + "      return \"hello \" + encoded;\n"
+              + "    }\n"
+              + "    return Objects.requireNonNull(title) + \" \" + encoded;\n"
+              + "  }\n"
+              + "  public static boolean isNumber(CharSequence s) {\n"
+              + "    return TextUtils.isDigitsOnly(s);\n"
+              + "  }\n"
+              + "}\n");
+
+  /** Returns {@link #REALISTIC_FLAGS} as Error Prone flags. */
+  static ErrorProneFlags realisticFlags() {
+    ErrorProneFlags.Builder builder = ErrorProneFlags.builder();
+    REALISTIC_FLAGS.forEach(builder::putFlag);
+    return builder.build();
+  }
+
+  /**
+   * State for measuring construction in a fresh process, i.e., without any structure shared by a
+   * previous compilation (see {@link ProcessCache}).
+   */
+  @State(Scope.Benchmark)
+  public static class ColdState {
+
+    ErrorProneFlags flags;
+
+    @Setup
+    public void setup() {
+      flags = realisticFlags();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearProcessCache() {
+      ProcessCache.invalidateAll();
+    }
+  }
+
+  /** State for measuring construction in a long-lived process, e.g., a Gradle daemon. */
+  @State(Scope.Benchmark)
+  public static class WarmState {
+
+    ErrorProneFlags flags;
+
+    @Setup
+    public void setup() {
+      flags = realisticFlags();
+      new NullAway(flags);
+    }
+  }
+
+  /** State for compiling a single tiny source file. */
+  @State(Scope.Benchmark)
+  public static class TinyModuleState {
+
+    NullawayJavac nullawayJavac;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+      nullawayJavac = NullawayJavac.createSimpleTest();
+    }
+  }
+
+  /**
+   * State for compiling the modeled module in a fresh process: the {@link ProcessCache} is cleared
+   * before each compilation, so library and JarInfer models are loaded again every time.
+   */
+  @State(Scope.Benchmark)
+  public static class ColdModeledModuleState {
+
+    NullawayJavac nullawayJavac;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+      List<String> flags =
+          REALISTIC_FLAGS.entrySet().stream()
+              .filter(flag -> !flag.getKey().equals("NullAway:AnnotatedPackages"))
+              .map(flag -> "-XepOpt:" + flag.getKey() + "=" + flag.getValue())
+              .collect(Collectors.toList());
+      // the module is compiled against our own classpath, for Guava and JSR 305 annotations
+      nullawayJavac =
+          NullawayJavac.createFromSources(
+              MODELED_MODULE_SOURCES,
+              REALISTIC_FLAGS.get("NullAway:AnnotatedPackages"),
+              System.getProperty("java.class.path"),
+              flags);
+      ProcessCache.invalidateAll();
+    }
+  }
+
+  @Benchmark
+  public NullAway coldInitialization(ColdState state) {
+    return new NullAway(state.flags);
+  }
+
+  @Benchmark
+  public NullAway warmInitialization(WarmState state) {
+    return new NullAway(state.flags);
+  }
+
+  @Benchmark
+  public boolean compileTinyModule(TinyModuleState state) {
+    return state.nullawayJavac.compile();
+  }
+
+  @Benchmark
+  public boolean coldCompileModeledModule(ColdModeledModuleState state) {
+    return state.nullawayJavac.compile();
+  }
+}
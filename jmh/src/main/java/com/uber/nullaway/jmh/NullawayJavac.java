@@ -22,6 +22,8 @@
 
 package com.uber.nullaway.jmh;
 
+import static java.util.stream.Collectors.joining;
+
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -33,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nullable;
 import javax.tools.DiagnosticListener;
 import javax.tools.JavaCompiler;
@@ -79,7 +82,10 @@ public class NullawayJavac {
             + "  }\n"
             + "}\n";
     return new NullawayJavac(
-        Collections.singletonList(new JavaSourceFromString("Test", testClass)), "com.uber", null);
+        Collections.singletonList(new JavaSourceFromString("Test", testClass)),
+        "com.uber",
+        null,
+        Collections.emptyList());
   }
 
   /**
@@ -103,7 +109,31 @@ public class NullawayJavac {
       compilationUnits.add(new JavaSourceFromString(classname, content));
     }
 
-    return new NullawayJavac(compilationUnits, annotatedPackages, classpath);
+    return new NullawayJavac(
+        compilationUnits, annotatedPackages, classpath, Collections.emptyList());
+  }
+
+  /**
+   * Creates a NullawayJavac object to compile in-memory sources, with additional NullAway flags.
+   *
+   * @param sources the sources to be compiled, keyed by fully-qualified class name
+   * @param annotatedPackages argument to pass for "-XepOpt:NullAway:AnnotatedPackages" option
+   * @param classpath classpath for the program to be compiled
+   * @param extraErrorProneArgs additional Error Prone arguments, e.g., {@code
+   *     -XepOpt:NullAway:CheckContracts=true}
+   * @throws IOException if a temporary output directory cannot be created
+   */
+  public static NullawayJavac createFromSources(
+      Map<String, String> sources,
+      String annotatedPackages,
+      @Nullable String classpath,
+      List<String> extraErrorProneArgs)
+      throws IOException {
+    List<JavaFileObject> compilationUnits = new ArrayList<>();
+    for (Map.Entry<String, String> source : sources.entrySet()) {
+      compilationUnits.add(new JavaSourceFromString(source.getKey(), source.getValue()));
+    }
+    return new NullawayJavac(compilationUnits, annotatedPackages, classpath, extraErrorProneArgs);
   }
 
   /**
@@ -119,10 +149,14 @@ public class NullawayJavac {
    * @param compilationUnits input sources to be compiled
    * @param annotatedPackages argument to pass for "-XepOpt:NullAway:AnnotatedPackages" option
    * @param classpath classpath for the program to be compiled
+   * @param extraErrorProneArgs additional arguments to pass to Error Prone
    * @throws IOException if a temporary output directory cannot be created
    */
   private NullawayJavac(
-      List<JavaFileObject> compilationUnits, String annotatedPackages, @Nullable String classpath)
+      List<JavaFileObject> compilationUnits,
+      String annotatedPackages,
+      @Nullable String classpath,
+      List<String> extraErrorProneArgs)
       throws IOException {
     this.compilationUnits = compilationUnits;
     this.compiler = ToolProvider.getSystemJavaCompiler();
@@ -147,7 +181,8 @@ public class NullawayJavac {
             outputDir.toAbsolutePath().toString(),
             "-XDcompilePolicy=simple",
             "-Xplugin:ErrorProne -XepDisableAllChecks -Xep:NullAway:ERROR -XepOpt:NullAway:AnnotatedPackages="
-                + annotatedPackages));
+                + annotatedPackages
+                + extraErrorProneArgs.stream().map(arg -> " " + arg).collect(joining())));
   }
 
   /**
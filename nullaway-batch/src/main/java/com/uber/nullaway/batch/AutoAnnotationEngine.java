@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2021 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.batch;
+
+import com.uber.nullaway.fixserialization.FixSerializationConfig;
+import com.uber.nullaway.fixserialization.VirtualAnnotations;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Iterative auto-annotation, in-process: finds a set of {@code @Nullable} annotations that reduces
+ * the number of NullAway errors in a source tree, without editing the sources.
+ *
+ * <p>Usage: the options of {@link NullawayBatchDriver} (other than {@code --format} and {@code
+ * --output}), plus {@code --work-dir <dir>} and optionally {@code --max-rounds <n>}, e.g. {@code
+ * java -cp nullaway-batch.jar com.uber.nullaway.batch.AutoAnnotationEngine --sources src
+ * --annotated-packages com.foo --work-dir out}.
+ *
+ * <p>Each round first compiles the tree with fix serialization on, to collect the candidate
+ * annotations suggested in {@code fixes.tsv}. It then evaluates each candidate with a full batch
+ * run of {@link NullawayBatchDriver} over the whole source root, with the annotations accepted so
+ * far plus the candidate applied as {@link VirtualAnnotations}, and counts the errors. Each such
+ * run parses and attributes the whole tree in javac; the runs only share an incremental cache (see
+ * {@code -XepOpt:NullAway:IncrementalCacheDir}), which lets NullAway skip its own per-method
+ * checks for methods whose inputs did not change and replay their cached errors instead.
+ * Candidates that reduce the number of errors are accepted; if accepting them together turns out
+ * worse than the best one alone, only the best one is kept. The engine stops when a round accepts
+ * nothing.
+ *
+ * <p>Writes {@code accepted.tsv}, the accepted annotations in the format of {@code fixes.tsv} (and
+ * of {@link VirtualAnnotations}), and {@code evaluations.tsv}, the number of errors with each
+ * candidate, to the work directory.
+ */
+public final class AutoAnnotationEngine {
+
+  private static final String USAGE =
+      "usage: AutoAnnotationEngine --sources <dir> --annotated-packages <pkgs> --work-dir <dir>"
+          + " [--classpath <cp>] [--batch-size <n>] [--threads <n>] [--max-rounds <n>]"
+          + " [-XepOpt:<flag>=<value> ...]";
+
+  /** Number of columns of a {@link com.uber.nullaway.fixserialization.location.FixLocation}. */
+  private static final int LOCATION_COLUMNS = 6;
+
+  private static final List<String> LOCATION_HEADER =
+      Arrays.asList("location", "class", "method", "param", "index", "uri");
+
+  private final NullawayBatchDriver.Options options;
+
+  private final Path workDir;
+
+  private final int maxRounds;
+
+  private final Set<String> accepted = new LinkedHashSet<>();
+
+  private final List<String> evaluations = new ArrayList<>();
+
+  AutoAnnotationEngine(NullawayBatchDriver.Options options, Path workDir, int maxRounds) {
+    this.options = options;
+    this.workDir = workDir;
+    this.maxRounds = maxRounds;
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    List<String> driverArgs = new ArrayList<>();
+    Path workDir = null;
+    int maxRounds = Integer.MAX_VALUE;
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--work-dir") && i + 1 < args.length) {
+        workDir = Paths.get(args[++i]);
+      } else if (args[i].equals("--max-rounds") && i + 1 < args.length) {
+        maxRounds = Integer.parseInt(args[++i]);
+      } else {
+        driverArgs.add(args[i]);
+      }
+    }
+    NullawayBatchDriver.Options options;
+    try {
+      if (workDir == null) {
+        throw new IllegalArgumentException("--work-dir is required");
+      }
+      options = NullawayBatchDriver.parseOptions(driverArgs.toArray(new String[0]));
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+    AutoAnnotationEngine engine = new AutoAnnotationEngine(options, workDir, maxRounds);
+    int errors = engine.run();
+    System.out.println(
+        "accepted " + engine.getAccepted().size() + " annotations, " + errors + " errors remain");
+  }
+
+  /**
+   * Runs rounds of suggestion and evaluation until no candidate reduces the number of errors.
+   *
+   * @return the number of errors with the accepted annotations
+   * @throws IOException if the work directory cannot be written
+   * @throws InterruptedException if interrupted while compiling
+   */
+  int run() throws IOException, InterruptedException {
+    Files.createDirectories(workDir);
+    int errors = -1;
+    for (int round = 0; round < maxRounds; round++) {
+      List<String> candidates = new ArrayList<>();
+      errors = suggest(candidates);
+      String best = null;
+      int bestErrors = errors;
+      List<String> improving = new ArrayList<>();
+      for (String candidate : candidates) {
+        int candidateErrors = evaluate(candidate);
+        evaluations.add(
+            round + "\t" + candidate + "\t" + candidateErrors + "\t" + (candidateErrors - errors));
+        if (candidateErrors < errors) {
+          improving.add(candidate);
+          if (candidateErrors < bestErrors) {
+            best = candidate;
+            bestErrors = candidateErrors;
+          }
+        }
+      }
+      if (best == null) {
+        break;
+      }
+      Set<String> previous = new LinkedHashSet<>(accepted);
+      accepted.addAll(improving);
+      if (improving.size() > 1 && countErrors(accepted) > bestErrors) {
+        // the improving candidates interact badly; keep only the best one
+        accepted.clear();
+        accepted.addAll(previous);
+        accepted.add(best);
+      }
+    }
+    VirtualAnnotations.writeToFile(accepted, workDir.resolve("accepted.tsv"));
+    List<String> evaluationLines = new ArrayList<>();
+    evaluationLines.add("round\t" + String.join("\t", LOCATION_HEADER) + "\terrors\tdelta");
+    evaluationLines.addAll(evaluations);
+    Files.write(workDir.resolve("evaluations.tsv"), evaluationLines, StandardCharsets.UTF_8);
+    return errors < 0 ? countErrors(accepted) : errors;
+  }
+
+  Set<String> getAccepted() {
+    return accepted;
+  }
+
+  /**
+   * Compiles with the accepted annotations and fix serialization on.
+   *
+   * @param candidates receives the suggested locations not accepted yet, without duplicates
+   * @return the number of errors
+   */
+  private int suggest(List<String> candidates) throws IOException, InterruptedException {
+    Path outputDir = workDir.resolve("serialization");
+    Files.createDirectories(outputDir);
+    Path configPath = workDir.resolve("serialization.xml");
+    new FixSerializationConfig.Builder()
+        .setSuggest(true, false)
+        .setOutputDirectory(outputDir.toString())
+        .writeAsXML(configPath.toString());
+    // serialization output files are reset by each compilation, so compile in a single batch
+    NullawayBatchDriver.Options suggestOptions =
+        copyOptions(
+            writeVirtualAnnotations(accepted),
+            "-XepOpt:NullAway:SerializeFixMetadata=true",
+            "-XepOpt:NullAway:FixSerializationConfigPath=" + configPath);
+    suggestOptions.batchSize = Integer.MAX_VALUE;
+    suggestOptions.threads = 1;
+    int errors = NullawayBatchDriver.run(suggestOptions).size();
+    Set<String> seen = new LinkedHashSet<>();
+    List<String> lines = Files.readAllLines(outputDir.resolve("fixes.tsv"), StandardCharsets.UTF_8);
+    // skip the header
+    for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+      String[] columns = line.split("\t", -1);
+      if (columns.length < LOCATION_COLUMNS) {
+        continue;
+      }
+      String location = String.join("\t", Arrays.asList(columns).subList(0, LOCATION_COLUMNS));
+      if (!accepted.contains(location) && seen.add(location)) {
+        candidates.add(location);
+      }
+    }
+    return errors;
+  }
+
+  private int evaluate(String candidate) throws IOException, InterruptedException {
+    Set<String> annotations = new LinkedHashSet<>(accepted);
+    annotations.add(candidate);
+    return countErrors(annotations);
+  }
+
+  /** Compiles with the given virtual annotations, replaying unaffected methods from the cache. */
+  private int countErrors(Set<String> annotations) throws IOException, InterruptedException {
+    NullawayBatchDriver.Options evaluationOptions =
+        copyOptions(
+            writeVirtualAnnotations(annotations),
+            "-XepOpt:NullAway:IncrementalCacheDir=" + workDir.resolve("cache"));
+    return NullawayBatchDriver.run(evaluationOptions).size();
+  }
+
+  private Path writeVirtualAnnotations(Set<String> annotations) {
+    // rewritten for every compilation; configs with virtual annotations are never shared, so each
+    // compilation reads it again
+    Path path = workDir.resolve("virtual.tsv");
+    VirtualAnnotations.writeToFile(annotations, path);
+    return path;
+  }
+
+  private NullawayBatchDriver.Options copyOptions(Path virtualAnnotations, String... extraOptions) {
+    NullawayBatchDriver.Options copy = new NullawayBatchDriver.Options();
+    copy.sourceRoot = options.sourceRoot;
+    copy.annotatedPackages = options.annotatedPackages;
+    copy.classpath = options.classpath;
+    copy.batchSize = options.batchSize;
+    copy.threads = options.threads;
+    copy.extraOptions.addAll(options.extraOptions);
+    copy.extraOptions.add("-XepOpt:NullAway:VirtualAnnotationsPath=" + virtualAnnotations);
+    copy.extraOptions.addAll(Arrays.asList(extraOptions));
+    return copy;
+  }
+}
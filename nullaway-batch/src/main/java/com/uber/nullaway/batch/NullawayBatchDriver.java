@@ -0,0 +1,457 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Command-line driver that checks a whole source tree with NullAway, without a build system.
+ *
+ * <p>Usage: {@code NullawayBatchDriver --sources <dir> --annotated-packages <pkgs> [--classpath
+ * <cp>] [--batch-size <n>] [--threads <n>] [--format json|sarif] [--output <file>] [-XepOpt:...]}
+ *
+ * <p>Source files are sorted by path and partitioned into batches, which are compiled by
+ * concurrent javac tasks. Each task has its own javac context and file manager, since neither is
+ * thread-safe, and gets the source root as its {@code -sourcepath} so that references to classes
+ * in other batches resolve. NullAway and Error Prone are loaded once, from the driver's own
+ * classpath, so process-wide state such as the library models loaded via {@code ServiceLoader} is
+ * shared across batches. Each batch is compiled once from disk, with diagnostics collected per
+ * batch. Only errors within the files of a batch are reported for it; the report lists the
+ * NullAway errors of all batches, sorted by location.
+ *
+ * <p>The driver is packaged as an executable jar, so it can be run without a build, e.g. {@code
+ * java -jar nullaway-batch.jar --sources src/main/java --annotated-packages com.foo}.
+ *
+ * <p>The exit code is 0 if there are no NullAway errors, 1 if there are, and 2 on invalid usage or
+ * if a batch has other compilation errors, even along with NullAway errors.
+ */
+public final class NullawayBatchDriver {
+
+  private static final String NULLAWAY_PREFIX = "[NullAway] ";
+
+  private static final String USAGE =
+      "usage: NullawayBatchDriver --sources <dir> --annotated-packages <pkgs> [--classpath <cp>]"
+          + " [--batch-size <n>] [--threads <n>] [--format json|sarif] [--output <file>]"
+          + " [-XepOpt:<flag>=<value> ...]";
+
+  /** Output formats for the report. */
+  enum Format {
+    JSON,
+    SARIF
+  }
+
+  /** A NullAway error found by the driver. */
+  static final class Finding {
+    final String file;
+    final long line;
+    final long column;
+    final String message;
+
+    Finding(String file, long line, long column, String message) {
+      this.file = file;
+      this.line = line;
+      this.column = column;
+      this.message = message;
+    }
+  }
+
+  /** Options of a run of the driver. */
+  static final class Options {
+    @Nullable Path sourceRoot;
+    @Nullable String annotatedPackages;
+    @Nullable String classpath;
+    int batchSize = 200;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Format format = Format.JSON;
+    @Nullable Path output;
+    final List<String> extraOptions = new ArrayList<>();
+  }
+
+  private NullawayBatchDriver() {}
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Options options;
+    try {
+      options = parseOptions(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+    List<Finding> findings;
+    try {
+      findings = run(options);
+    } catch (IllegalStateException e) {
+      System.err.println(e.getMessage());
+      System.exit(2);
+      return;
+    }
+    if (options.output != null) {
+      try (Writer writer = Files.newBufferedWriter(options.output, StandardCharsets.UTF_8)) {
+        writeReport(findings, options.format, writer);
+      }
+    } else {
+      Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+      writeReport(findings, options.format, writer);
+      writer.flush();
+    }
+    System.exit(findings.isEmpty() ? 0 : 1);
+  }
+
+  static Options parseOptions(String[] args) {
+    Options options = new Options();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (arg.startsWith("-XepOpt:")) {
+        // Error Prone options are passed to javac within a single -Xplugin argument, separated by
+        // whitespace
+        if (arg.chars().anyMatch(Character::isWhitespace)) {
+          throw new IllegalArgumentException("whitespace is not supported in " + arg);
+        }
+        options.extraOptions.add(arg);
+        continue;
+      }
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("missing value for " + arg);
+      }
+      String value = args[++i];
+      switch (arg) {
+        case "--sources":
+          options.sourceRoot = Paths.get(value);
+          break;
+        case "--annotated-packages":
+          options.annotatedPackages = value;
+          break;
+        case "--classpath":
+          options.classpath = value;
+          break;
+        case "--batch-size":
+          options.batchSize = parsePositiveInt(arg, value);
+          break;
+        case "--threads":
+          options.threads = parsePositiveInt(arg, value);
+          break;
+        case "--format":
+          try {
+            options.format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+          } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown format " + value, e);
+          }
+          break;
+        case "--output":
+          options.output = Paths.get(value);
+          break;
+        default:
+          throw new IllegalArgumentException("unknown option " + arg);
+      }
+    }
+    if (options.sourceRoot == null || options.annotatedPackages == null) {
+      throw new IllegalArgumentException("--sources and --annotated-packages are required");
+    }
+    return options;
+  }
+
+  private static int parsePositiveInt(String option, String value) {
+    int result;
+    try {
+      result = Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      result = 0;
+    }
+    if (result <= 0) {
+      throw new IllegalArgumentException(option + " must be a positive integer");
+    }
+    return result;
+  }
+
+  /**
+   * Checks all the Java sources under the source root of {@code options}.
+   *
+   * @param options driver options; the source root and annotated packages must be set
+   * @return the NullAway errors found, sorted by file, line and column
+   * @throws IOException if the source tree cannot be listed
+   * @throws InterruptedException if interrupted while waiting for the batches
+   * @throws IllegalStateException if a batch has compilation errors other than NullAway errors
+   */
+  static List<Finding> run(Options options) throws IOException, InterruptedException {
+    Path sourceRoot = requireNonNull(options.sourceRoot, "--sources").toAbsolutePath();
+    List<Path> sources;
+    try (Stream<Path> files = Files.walk(sourceRoot)) {
+      sources =
+          files
+              .filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+    List<List<Path>> batches = new ArrayList<>();
+    for (int i = 0; i < sources.size(); i += options.batchSize) {
+      batches.add(sources.subList(i, Math.min(i + options.batchSize, sources.size())));
+    }
+    Path outputDir = Files.createTempDirectory("nullaway-batch-classes");
+    try {
+      return compileBatches(batches, javacOptions(options, sourceRoot, outputDir), options.threads);
+    } finally {
+      deleteRecursively(outputDir);
+    }
+  }
+
+  private static List<Finding> compileBatches(
+      List<List<Path>> batches, List<String> javacOptions, int threads)
+      throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<Finding>>> results = new ArrayList<>();
+      for (List<Path> batch : batches) {
+        results.add(executor.submit(() -> compileBatch(batch, javacOptions)));
+      }
+      List<Finding> findings = new ArrayList<>();
+      for (Future<List<Finding>> result : results) {
+        try {
+          findings.addAll(result.get());
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          throw new IllegalStateException(cause);
+        }
+      }
+      findings.sort(
+          Comparator.<Finding, String>comparing(f -> f.file)
+              .thenComparingLong(f -> f.line)
+              .thenComparingLong(f -> f.column));
+      return findings;
+    } finally {
+      executor.shutdownNow();
+      // wait for running batches, so they do not write to the output directory once it is deleted
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  private static void deleteRecursively(Path dir) throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private static List<String> javacOptions(Options options, Path sourceRoot, Path outputDir) {
+    List<String> result = new ArrayList<>();
+    if (options.classpath != null) {
+      result.addAll(Arrays.asList("-classpath", options.classpath));
+    }
+    StringBuilder errorProneArgs =
+        new StringBuilder(
+            "-Xplugin:ErrorProne -XepDisableAllChecks -Xep:NullAway:ERROR"
+                + " -XepOpt:NullAway:AnnotatedPackages=");
+    errorProneArgs.append(requireNonNull(options.annotatedPackages, "--annotated-packages"));
+    for (String extra : options.extraOptions) {
+      errorProneArgs.append(' ').append(extra);
+    }
+    result.addAll(
+        Arrays.asList(
+            "-sourcepath",
+            sourceRoot.toString(),
+            // classes from other batches are attributed from source, but not written out
+            "-implicit:none",
+            "-proc:none",
+            "-processorpath",
+            System.getProperty("java.class.path"),
+            "-d",
+            outputDir.toString(),
+            "-XDcompilePolicy=simple",
+            errorProneArgs.toString()));
+    return result;
+  }
+
+  private static List<Finding> compileBatch(List<Path> batch, List<String> javacOptions)
+      throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+      List<File> files = batch.stream().map(Path::toFile).collect(Collectors.toList());
+      Iterable<? extends JavaFileObject> compilationUnits =
+          fileManager.getJavaFileObjectsFromFiles(files);
+      Set<String> batchUris =
+          batch.stream().map(p -> p.toUri().normalize().toString()).collect(Collectors.toSet());
+      boolean success =
+          compiler
+              .getTask(null, fileManager, diagnostics, javacOptions, null, compilationUnits)
+              .call();
+      List<Finding> findings = new ArrayList<>();
+      List<String> otherErrors = new ArrayList<>();
+      for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+        if (!diagnostic.getKind().equals(Diagnostic.Kind.ERROR)) {
+          continue;
+        }
+        String message = diagnostic.getMessage(Locale.ROOT);
+        JavaFileObject source = diagnostic.getSource();
+        if (source == null || !message.startsWith(NULLAWAY_PREFIX)) {
+          otherErrors.add(message);
+          continue;
+        }
+        String uri = source.toUri().normalize().toString();
+        if (batchUris.contains(uri)) {
+          findings.add(
+              new Finding(
+                  Paths.get(source.toUri()).toString(),
+                  diagnostic.getLineNumber(),
+                  diagnostic.getColumnNumber(),
+                  message.substring(NULLAWAY_PREFIX.length())));
+        }
+      }
+      if (!success && !otherErrors.isEmpty()) {
+        throw new IllegalStateException(
+            "batch starting at "
+                + batch.get(0)
+                + " failed to compile:\n"
+                + String.join("\n", otherErrors));
+      }
+      return findings;
+    }
+  }
+
+  /**
+   * Writes the report for {@code findings}.
+   *
+   * @param findings the findings, in report order
+   * @param format the report format
+   * @param writer where to write the report
+   * @throws IOException if writing fails
+   */
+  static void writeReport(List<Finding> findings, Format format, Writer writer)
+      throws IOException {
+    StringBuilder out = new StringBuilder();
+    if (format.equals(Format.SARIF)) {
+      out.append("{\"version\":\"2.1.0\",")
+          .append("\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\",")
+          .append("\"runs\":[{\"tool\":{\"driver\":{\"name\":\"NullAway\",")
+          .append("\"informationUri\":\"https://github.com/uber/NullAway\"}},")
+          .append("\"results\":[");
+      for (int i = 0; i < findings.size(); i++) {
+        Finding finding = findings.get(i);
+        if (i > 0) {
+          out.append(',');
+        }
+        out.append("{\"ruleId\":\"NullAway\",\"level\":\"error\",\"message\":{\"text\":");
+        appendJsonString(out, finding.message);
+        out.append("},\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{\"uri\":");
+        appendJsonString(out, Paths.get(finding.file).toUri().toString());
+        out.append("},\"region\":{\"startLine\":")
+            .append(finding.line)
+            .append(",\"startColumn\":")
+            .append(finding.column)
+            .append("}}}]}");
+      }
+      out.append("]}]}");
+    } else {
+      out.append('[');
+      for (int i = 0; i < findings.size(); i++) {
+        Finding finding = findings.get(i);
+        if (i > 0) {
+          out.append(',');
+        }
+        out.append("{\"file\":");
+        appendJsonString(out, finding.file);
+        out.append(",\"line\":")
+            .append(finding.line)
+            .append(",\"column\":")
+            .append(finding.column)
+            .append(",\"message\":");
+        appendJsonString(out, finding.message);
+        out.append('}');
+      }
+      out.append(']');
+    }
+    out.append('\n');
+    writer.write(out.toString());
+  }
+
+  private static void appendJsonString(StringBuilder out, String s) {
+    out.append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"':
+          out.append("\\\"");
+          break;
+        case '\\':
+          out.append("\\\\");
+          break;
+        case '\n':
+          out.append("\\n");
+          break;
+        case '\r':
+          out.append("\\r");
+          break;
+        case '\t':
+          out.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            out.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+          } else {
+            out.append(c);
+          }
+      }
+    }
+    out.append('"');
+  }
+
+  private static <T> T requireNonNull(@Nullable T value, String option) {
+    if (value == null) {
+      throw new IllegalArgumentException(option + " is required");
+    }
+    return value;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AutoAnnotationEngineTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void acceptsAnnotationsThatRemoveErrors() throws IOException, InterruptedException {
+    Path root = temporaryFolder.newFolder("src").toPath();
+    Path pkg = Files.createDirectories(root.resolve("com/uber"));
+    Files.write(
+        pkg.resolve("Test.java"),
+        ("package com.uber;\n"
+                + "public class Test {\n"
+                + "  static void log(Object o) {\n"
+                + "    System.out.println(o);\n"
+                + "  }\n"
+                + "  static Object make(Object o) {\n"
+                + "    return o.toString();\n"
+                + "  }\n"
+                + "  static void run() {\n"
+                + "    log(null);\n"
+                + "    make(null);\n"
+                + "  }\n"
+                + "}\n")
+            .getBytes(StandardCharsets.UTF_8));
+    NullawayBatchDriver.Options options =
+        NullawayBatchDriver.parseOptions(
+            new String[] {
+              "--sources", root.toString(),
+              "--annotated-packages", "com.uber",
+              "--classpath", System.getProperty("java.class.path")
+            });
+    Path workDir = temporaryFolder.newFolder("work").toPath();
+    AutoAnnotationEngine engine = new AutoAnnotationEngine(options, workDir, 5);
+    // making the parameter of log @Nullable removes an error; doing so for make moves it
+    assertEquals(1, engine.run());
+    assertEquals(1, engine.getAccepted().size());
+    String accepted = engine.getAccepted().iterator().next();
+    assertTrue(accepted.startsWith("PARAMETER\tcom.uber.Test\tlog(java.lang.Object)\to\t0\t"));
+    assertTrue(Files.exists(workDir.resolve("accepted.tsv")));
+    assertTrue(Files.exists(workDir.resolve("evaluations.tsv")));
+  }
+}
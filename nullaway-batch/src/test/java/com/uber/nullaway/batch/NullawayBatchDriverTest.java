@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NullawayBatchDriverTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void findingsAcrossBatches() throws IOException, InterruptedException {
+    Path root = temporaryFolder.newFolder("src").toPath();
+    Path pkg = Files.createDirectories(root.resolve("com/uber"));
+    Files.write(
+        pkg.resolve("Lib.java"),
+        ("package com.uber;\n"
+                + "import javax.annotation.Nullable;\n"
+                + "public class Lib {\n"
+                + "  @Nullable public static Object get() { return null; }\n"
+                + "}\n")
+            .getBytes(StandardCharsets.UTF_8));
+    Files.write(
+        pkg.resolve("User.java"),
+        ("package com.uber;\n"
+                + "public class User {\n"
+                + "  public static String use() {\n"
+                + "    return Lib.get().toString();\n"
+                + "  }\n"
+                + "}\n")
+            .getBytes(StandardCharsets.UTF_8));
+    NullawayBatchDriver.Options options =
+        NullawayBatchDriver.parseOptions(
+            new String[] {
+              "--sources", root.toString(),
+              "--annotated-packages", "com.uber",
+              "--classpath", System.getProperty("java.class.path"),
+              "--batch-size", "1",
+              "--threads", "2"
+            });
+    // one file per batch, so User.java only sees Lib.java via the source path
+    List<NullawayBatchDriver.Finding> findings = NullawayBatchDriver.run(options);
+    assertEquals(1, findings.size());
+    NullawayBatchDriver.Finding finding = findings.get(0);
+    assertTrue(finding.file.endsWith("User.java"));
+    assertEquals(4, finding.line);
+    assertTrue(finding.message.startsWith("dereferenced expression Lib.get() is @Nullable"));
+
+    StringWriter sarif = new StringWriter();
+    NullawayBatchDriver.writeReport(findings, NullawayBatchDriver.Format.SARIF, sarif);
+    assertTrue(sarif.toString().contains("\"ruleId\":\"NullAway\""));
+    assertTrue(sarif.toString().contains("\"startLine\":4"));
+  }
+
+  @Test
+  public void compileErrorsAreReported() throws IOException, InterruptedException {
+    Path root = temporaryFolder.newFolder("src").toPath();
+    Path pkg = Files.createDirectories(root.resolve("com/uber"));
+    Files.write(
+        pkg.resolve("Broken.java"),
+        ("package com.uber;\n"
+                + "public class Broken {\n"
+                + "  static Missing missing() { return null; }\n"
+                + "}\n")
+            .getBytes(StandardCharsets.UTF_8));
+    NullawayBatchDriver.Options options =
+        NullawayBatchDriver.parseOptions(
+            new String[] {
+              "--sources", root.toString(),
+              "--annotated-packages", "com.uber",
+              "--classpath", System.getProperty("java.class.path")
+            });
+    try {
+      NullawayBatchDriver.run(options);
+      fail("expected the compile error to be reported");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("Missing"));
+    }
+  }
+
+  @Test
+  public void errorProneOptionsWithWhitespaceAreRejected() {
+    try {
+      NullawayBatchDriver.parseOptions(
+          new String[] {
+            "--sources", "src",
+            "--annotated-packages", "com.uber",
+            "-XepOpt:NullAway:ExcludedClassAnnotations=a b"
+          });
+      fail("expected the option to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("whitespace"));
+    }
+  }
+}
@@ -30,6 +30,7 @@ import com.google.common.collect.Iterables;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.tools.javac.code.Symbol;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
+import com.uber.nullaway.fixserialization.VirtualAnnotations;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -88,6 +89,17 @@ public abstract class AbstractConfig implements Config {
 
   protected boolean acknowledgeAndroidRecent;
 
+  /** --- Dataflow precision / performance limits, 0 if unbounded --- */
+  protected int maxAccessPathLength;
+
+  protected int maxStoreEntries;
+
+  @Nullable protected String incrementalCacheDir;
+
+  protected VirtualAnnotations virtualAnnotations = VirtualAnnotations.EMPTY;
+
+  protected boolean printProfilingOutput;
+
   protected Set<MethodClassAndName> knownInitializers;
 
   protected Set<String> excludedClassAnnotations;
@@ -346,4 +358,30 @@ public abstract class AbstractConfig implements Config {
   public boolean acknowledgeAndroidRecent() {
     return acknowledgeAndroidRecent;
   }
+
+  @Override
+  public int getMaxAccessPathLength() {
+    return maxAccessPathLength;
+  }
+
+  @Override
+  public int getMaxStoreEntries() {
+    return maxStoreEntries;
+  }
+
+  @Override
+  @Nullable
+  public String getIncrementalCacheDir() {
+    return incrementalCacheDir;
+  }
+
+  @Override
+  public VirtualAnnotations getVirtualAnnotations() {
+    return virtualAnnotations;
+  }
+
+  @Override
+  public boolean printProfilingOutput() {
+    return printProfilingOutput;
+  }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway;
+
+import com.sun.tools.javac.code.Attribute;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.util.Context;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Classifies annotation types as {@code @Nullable}-like and / or {@code @NonNull}-like, per {@link
+ * Nullness#isNullableAnnotation(String, Config)} and {@link Nullness#isNonNullAnnotation(String,
+ * Config)}.
+ *
+ * <p>The classification of an annotation type only depends on its qualified name and on the
+ * configuration, so we compute it once per annotation type symbol, and afterwards a query is a
+ * single identity-map lookup that does not render the type name to a string. Symbols are specific
+ * to a javac context, hence so is the memo; it is reset if the configuration changes.
+ */
+final class AnnotationNullnessKinds {
+
+  static final int NULLABLE = 1;
+
+  static final int NONNULL = 2;
+
+  private static final Context.Key<AnnotationNullnessKinds> ANNOTATION_NULLNESS_KINDS_KEY =
+      new Context.Key<>();
+
+  private final Map<Symbol, Integer> kinds = new IdentityHashMap<>();
+
+  @Nullable private Config config;
+
+  private AnnotationNullnessKinds() {}
+
+  /**
+   * Get the AnnotationNullnessKinds for the given javac context. We ensure there is one instance
+   * per context (as opposed to using static fields) to avoid memory leaks.
+   */
+  static AnnotationNullnessKinds instance(Context context) {
+    AnnotationNullnessKinds instance = context.get(ANNOTATION_NULLNESS_KINDS_KEY);
+    if (instance == null) {
+      instance = new AnnotationNullnessKinds();
+      context.put(ANNOTATION_NULLNESS_KINDS_KEY, instance);
+    }
+    return instance;
+  }
+
+  /**
+   * @param annotation an annotation mirror from javac
+   * @param config NullAway config
+   * @return a bit set of {@link #NULLABLE} and {@link #NONNULL}, for the type of {@code annotation}
+   */
+  int kindsOf(Attribute.Compound annotation, Config config) {
+    Symbol annotationType = annotation.type.tsym;
+    if (config != this.config) {
+      kinds.clear();
+      this.config = config;
+    }
+    Integer result = kinds.get(annotationType);
+    if (result == null) {
+      // small boxed integers are cached, so this does not allocate
+      result = computeKinds(annotation, config);
+      kinds.put(annotationType, result);
+    }
+    return result;
+  }
+
+  /**
+   * Same as {@link #kindsOf(Attribute.Compound, Config)}, without memoization, for queries made
+   * without a javac context at hand.
+   */
+  static int computeKinds(Attribute.Compound annotation, Config config) {
+    String annotName = annotation.type.tsym.getQualifiedName().toString();
+    int k = 0;
+    if (Nullness.isNullableAnnotation(annotName, config)) {
+      k |= NULLABLE;
+    }
+    if (Nullness.isNonNullAnnotation(annotName, config)) {
+      k |= NONNULL;
+    }
+    return k;
+  }
+}
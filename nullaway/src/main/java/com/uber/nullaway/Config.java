@@ -25,6 +25,7 @@ package com.uber.nullaway;
 import com.google.common.collect.ImmutableSet;
 import com.sun.tools.javac.code.Symbol;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
+import com.uber.nullaway.fixserialization.VirtualAnnotations;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -297,4 +298,51 @@ public interface Config {
    *     similarly for {@code @RecentlyNonNull}
    */
   boolean acknowledgeAndroidRecent();
+
+  /**
+   * Gets the maximum number of elements (fields and method calls) of access paths tracked by the
+   * dataflow analysis. Facts about longer paths are not recorded, so reads of such paths fall back
+   * to the declared nullness of the field or method return, as if no null check had been done.
+   *
+   * @return the maximum access path length, or 0 if unbounded
+   */
+  int getMaxAccessPathLength();
+
+  /**
+   * Gets the maximum number of access paths with a nullness fact in a single dataflow store. Once
+   * a store is full, new facts about field and method call access paths are not recorded, so reads
+   * of those paths fall back to the declared nullness of the field or method return. Facts about
+   * local variables and parameters are always recorded.
+   *
+   * @return the maximum number of entries per store, or 0 if unbounded
+   */
+  int getMaxStoreEntries();
+
+  /**
+   * Gets the directory where incremental mode keeps the results of previous compilations. In this
+   * mode, methods that did not change (per a fingerprint of their source and of the declarations
+   * they reference) are not checked again; the errors previously reported within them are
+   * replayed instead. The directory is specific to the configuration, the NullAway build, and the
+   * library models, stream models and JarInfer models found on the processor path.
+   *
+   * @return the cache directory for this configuration, or {@code null} if incremental mode is off
+   */
+  @Nullable
+  String getIncrementalCacheDir();
+
+  /**
+   * Gets the {@code @Nullable} annotations to treat as present in the source code, without being
+   * written there. Used to evaluate candidate annotations in-process.
+   *
+   * @return the virtual annotations, empty unless configured
+   */
+  VirtualAnnotations getVirtualAnnotations();
+
+  /**
+   * Checks if NullAway should print profiling counters (e.g., the peak number of entries retained
+   * by some of its data structures) at the end of each compilation. See {@link Profiling}.
+   *
+   * @return true if profiling output is enabled
+   */
+  boolean printProfilingOutput();
 }
@@ -28,6 +28,7 @@ import static com.uber.nullaway.ErrorProneCLIFlagsConfig.FL_ANNOTATED_PACKAGES;
 import com.google.common.collect.ImmutableSet;
 import com.sun.tools.javac.code.Symbol;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
+import com.uber.nullaway.fixserialization.VirtualAnnotations;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -215,4 +216,30 @@ public class DummyOptionsConfig implements Config {
   public boolean acknowledgeAndroidRecent() {
     throw new IllegalStateException(ERROR_MESSAGE);
   }
+
+  @Override
+  public int getMaxAccessPathLength() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
+
+  @Override
+  public int getMaxStoreEntries() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
+
+  @Override
+  @Nullable
+  public String getIncrementalCacheDir() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
+
+  @Override
+  public VirtualAnnotations getVirtualAnnotations() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
+
+  @Override
+  public boolean printProfilingOutput() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
 }
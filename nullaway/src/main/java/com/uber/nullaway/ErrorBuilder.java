@@ -53,6 +53,7 @@ import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.DiagnosticSource;
 import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
 import com.uber.nullaway.fixserialization.SerializationService;
+import com.uber.nullaway.incremental.IncrementalAnalysis;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -72,12 +73,27 @@ public class ErrorBuilder {
   /** Additional identifiers for this check, to be checked for in @SuppressWarnings annotations. */
   private final Set<String> allNames;
 
+  /**
+   * True while NullAway re-runs checks under a hypothesis (see {@link
+   * NullAway#countErrorsInMethodAssumingNullable}); the errors found are then only counted, so they
+   * are neither serialized nor cached.
+   */
+  private boolean evaluatingHypothesis;
+
   ErrorBuilder(Config config, String suppressionName, Set<String> allNames) {
     this.config = config;
     this.suppressionName = suppressionName;
     this.allNames = allNames;
   }
 
+  boolean isEvaluatingHypothesis() {
+    return evaluatingHypothesis;
+  }
+
+  void setEvaluatingHypothesis(boolean evaluatingHypothesis) {
+    this.evaluatingHypothesis = evaluatingHypothesis;
+  }
+
   /**
    * create an error description for a nullability warning
    *
@@ -135,7 +151,7 @@ public class ErrorBuilder {
       builder = addSuggestedSuppression(errorMessage, suggestTree, builder);
     }
 
-    if (config.serializationIsActive()) {
+    if (config.serializationIsActive() && !evaluatingHypothesis) {
       if (nonNullTarget != null) {
         SerializationService.serializeFixSuggestion(config, state, nonNullTarget, errorMessage);
       }
@@ -143,7 +159,12 @@ public class ErrorBuilder {
     }
 
     // #letbuildersbuild
-    return builder.build();
+    Description description = builder.build();
+    if (config.getIncrementalCacheDir() != null && !evaluatingHypothesis) {
+      IncrementalAnalysis.instance(state.context, config)
+          .onError(description, errorMessage.message, state);
+    }
+    return description;
   }
 
   private static boolean canHaveSuppressWarningsAnnotation(Tree tree) {
@@ -22,13 +22,22 @@
 
 package com.uber.nullaway;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.errorprone.ErrorProneFlags;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
+import com.uber.nullaway.fixserialization.VirtualAnnotations;
+import com.uber.nullaway.incremental.CodeFingerprints;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * provides nullability configuration based on additional flags passed to ErrorProne via
@@ -75,6 +84,16 @@ final class ErrorProneCLIFlagsConfig extends AbstractConfig {
   static final String FL_JI_REGEX_MODEL_PATH = EP_FL_NAMESPACE + ":JarInferRegexStripModelJar";
   static final String FL_JI_REGEX_CODE_PATH = EP_FL_NAMESPACE + ":JarInferRegexStripCodeJar";
   static final String FL_ERROR_URL = EP_FL_NAMESPACE + ":ErrorURL";
+  /** --- Dataflow limits --- */
+  static final String FL_MAX_ACCESS_PATH_LENGTH = EP_FL_NAMESPACE + ":MaxAccessPathLength";
+
+  static final String FL_MAX_STORE_ENTRIES = EP_FL_NAMESPACE + ":MaxStoreEntries";
+  /** --- Incremental mode --- */
+  static final String FL_INCREMENTAL_CACHE_DIR = EP_FL_NAMESPACE + ":IncrementalCacheDir";
+  /** --- Virtual annotations, for evaluating candidate annotations in-process --- */
+  static final String FL_VIRTUAL_ANNOTATIONS_PATH = EP_FL_NAMESPACE + ":VirtualAnnotationsPath";
+  /** --- Profiling --- */
+  static final String FL_PROFILING_OUTPUT = EP_FL_NAMESPACE + ":ProfilingOutput";
   /** --- Serialization configs --- */
   static final String FL_FIX_SERIALIZATION = EP_FL_NAMESPACE + ":SerializeFixMetadata";
 
@@ -137,6 +156,30 @@ final class ErrorProneCLIFlagsConfig extends AbstractConfig {
 
   private static final String DEFAULT_URL = "http://t.uber.com/nullaway";
 
+  /**
+   * Get the config for {@code flags}, shared with all other compilations in this process that use
+   * equal flags (see {@link ProcessCache}).
+   *
+   * <p>Configs with fix serialization enabled are never shared, since building one reads the
+   * serialization config file, which may change between compilations, and resets the
+   * serialization output files. Neither are configs with virtual annotations, whose file is
+   * typically rewritten between compilations with the same flags.
+   *
+   * @param flags Error Prone flags of the current compilation
+   * @return the NullAway config for {@code flags}
+   */
+  static Config forFlags(ErrorProneFlags flags) {
+    if (flags.getBoolean(FL_FIX_SERIALIZATION).orElse(false)
+        || flags.get(FL_VIRTUAL_ANNOTATIONS_PATH).isPresent()) {
+      return new ErrorProneCLIFlagsConfig(flags);
+    }
+    return ProcessCache.get(
+        ErrorProneCLIFlagsConfig.class.getClassLoader(),
+        ImmutableList.of(ErrorProneCLIFlagsConfig.class, flags.getFlagsMap()),
+        Config.class,
+        () -> new ErrorProneCLIFlagsConfig(flags));
+  }
+
   ErrorProneCLIFlagsConfig(ErrorProneFlags flags) {
     if (!flags.get(FL_ANNOTATED_PACKAGES).isPresent()) {
       throw new IllegalStateException(
@@ -198,6 +241,9 @@ final class ErrorProneCLIFlagsConfig extends AbstractConfig {
     jarInferRegexStripModelJarName = flags.get(FL_JI_REGEX_MODEL_PATH).orElse(BASENAME_REGEX);
     jarInferRegexStripCodeJarName = flags.get(FL_JI_REGEX_CODE_PATH).orElse(BASENAME_REGEX);
     errorURL = flags.get(FL_ERROR_URL).orElse(DEFAULT_URL);
+    maxAccessPathLength = getFlagNonNegativeInt(flags, FL_MAX_ACCESS_PATH_LENGTH);
+    maxStoreEntries = getFlagNonNegativeInt(flags, FL_MAX_STORE_ENTRIES);
+    printProfilingOutput = flags.getBoolean(FL_PROFILING_OUTPUT).orElse(false);
     if (acknowledgeAndroidRecent && !isAcknowledgeRestrictive) {
       throw new IllegalStateException(
           "-XepOpt:"
@@ -235,6 +281,71 @@ final class ErrorProneCLIFlagsConfig extends AbstractConfig {
               + FL_SUGGEST_SUPPRESSIONS
               + ")");
     }
+    Optional<String> virtualAnnotationsPath = flags.get(FL_VIRTUAL_ANNOTATIONS_PATH);
+    if (virtualAnnotationsPath.isPresent()) {
+      virtualAnnotations = VirtualAnnotations.fromFile(virtualAnnotationsPath.get());
+    }
+    Optional<String> incrementalCacheRoot = flags.get(FL_INCREMENTAL_CACHE_DIR);
+    if (incrementalCacheRoot.isPresent()) {
+      // replayed errors carry no fixes, and no serialized fix metadata
+      if (serializationActivationFlag || isSuggestSuppressions) {
+        throw new IllegalStateException(
+            "-XepOpt:"
+                + FL_INCREMENTAL_CACHE_DIR
+                + " cannot be combined with -XepOpt:"
+                + FL_FIX_SERIALIZATION
+                + " or -XepOpt:"
+                + FL_SUGGEST_SUPPRESSIONS);
+      }
+      incrementalCacheDir =
+          Paths.get(incrementalCacheRoot.get(), getConfigurationKey(flags)).toString();
+    }
+  }
+
+  /**
+   * Results cached in incremental mode are only valid for the configuration, the NullAway build
+   * and the models that produced them, so each combination gets its own cache subdirectory.
+   */
+  private static String getConfigurationKey(ErrorProneFlags flags) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher
+        .putString(CodeFingerprints.implementation(), StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(CodeFingerprints.models(), StandardCharsets.UTF_8)
+        .putByte((byte) 0);
+    for (Map.Entry<String, String> flag : new TreeMap<>(flags.getFlagsMap()).entrySet()) {
+      // virtual annotations are covered by method fingerprints, so that evaluating different
+      // candidate annotations can share a cache
+      if (flag.getKey().equals(FL_INCREMENTAL_CACHE_DIR)
+          || flag.getKey().equals(FL_VIRTUAL_ANNOTATIONS_PATH)) {
+        continue;
+      }
+      hasher
+          .putString(flag.getKey(), StandardCharsets.UTF_8)
+          .putByte((byte) 0)
+          .putString(flag.getValue(), StandardCharsets.UTF_8)
+          .putByte((byte) 0);
+    }
+    return hasher.hash().toString();
+  }
+
+  /** Reads a flag holding a non-negative int, where 0 (the default) means unbounded. */
+  private static int getFlagNonNegativeInt(ErrorProneFlags flags, String flagName) {
+    Optional<String> flagValue = flags.get(flagName);
+    if (!flagValue.isPresent()) {
+      return 0;
+    }
+    int value;
+    try {
+      value = Integer.parseInt(flagValue.get().trim());
+    } catch (NumberFormatException e) {
+      value = -1;
+    }
+    if (value < 0) {
+      throw new IllegalStateException(
+          "Invalid -XepOpt:" + flagName + " value. Must be a non-negative integer.");
+    }
+    return value;
   }
 
   private static ImmutableSet<String> getFlagStringSet(ErrorProneFlags flags, String flagName) {
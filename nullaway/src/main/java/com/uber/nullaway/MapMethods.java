@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway;
+
+import com.google.errorprone.VisitorState;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Name;
+import com.sun.tools.javac.util.Names;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-compilation classification of methods of {@code java.util.Map} (or a subtype) that our
+ * dataflow analysis reasons about.
+ *
+ * <p>Equivalent to the corresponding calls of {@link
+ * NullabilityUtil#isMapMethod(Symbol.MethodSymbol, VisitorState, String, int)}, but method names
+ * are compared against interned javac {@link Name}s, and the result, including the subtype check
+ * against {@code java.util.Map}, is computed once per {@link Symbol.MethodSymbol}.
+ */
+public final class MapMethods {
+
+  /** The map methods we distinguish. */
+  public enum Kind {
+    /** {@code get(key)} */
+    GET,
+    /** {@code put(key, value)} or {@code putIfAbsent(key, value)} */
+    PUT,
+    /** {@code containsKey(key)} */
+    CONTAINS_KEY,
+    /** {@code keySet()} */
+    KEY_SET,
+    /** any other method */
+    NONE
+  }
+
+  private static final Context.Key<MapMethods> MAP_METHODS_KEY = new Context.Key<>();
+
+  private final Name get;
+
+  private final Name put;
+
+  private final Name putIfAbsent;
+
+  private final Name containsKey;
+
+  private final Name keySet;
+
+  private final Map<Symbol.MethodSymbol, Kind> kinds = new HashMap<>();
+
+  private MapMethods(Context context) {
+    Names names = Names.instance(context);
+    get = names.fromString("get");
+    put = names.fromString("put");
+    putIfAbsent = names.fromString("putIfAbsent");
+    containsKey = names.fromString("containsKey");
+    keySet = names.fromString("keySet");
+  }
+
+  /**
+   * Get the MapMethods for the given javac context. We ensure there is one instance per context (as
+   * opposed to using static fields) to avoid memory leaks.
+   */
+  public static MapMethods instance(Context context) {
+    MapMethods instance = context.get(MAP_METHODS_KEY);
+    if (instance == null) {
+      instance = new MapMethods(context);
+      context.put(MAP_METHODS_KEY, instance);
+    }
+    return instance;
+  }
+
+  /**
+   * @param symbol a method
+   * @param state the visitor state
+   * @return the kind of map method {@code symbol} is
+   */
+  public Kind kindOf(Symbol.MethodSymbol symbol, VisitorState state) {
+    Kind kind = kinds.get(symbol);
+    if (kind == null) {
+      kind = computeKind(symbol, state);
+      kinds.put(symbol, kind);
+    }
+    return kind;
+  }
+
+  private Kind computeKind(Symbol.MethodSymbol symbol, VisitorState state) {
+    Name name = symbol.name;
+    int numParams = symbol.getParameters().size();
+    Kind candidate;
+    if (name == get && numParams == 1) {
+      candidate = Kind.GET;
+    } else if ((name == put || name == putIfAbsent) && numParams == 2) {
+      candidate = Kind.PUT;
+    } else if (name == containsKey && numParams == 1) {
+      candidate = Kind.CONTAINS_KEY;
+    } else if (name == keySet && numParams == 0) {
+      candidate = Kind.KEY_SET;
+    } else {
+      return Kind.NONE;
+    }
+    // the name and arity match; only now check the owner is a Map
+    return NullabilityUtil.isMapMethod(symbol, state, name.toString(), numParams)
+        ? candidate
+        : Kind.NONE;
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway;
+
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.ArrayAccessTree;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompoundAssignmentTree;
+import com.sun.source.tree.ConditionalExpressionTree;
+import com.sun.source.tree.EnhancedForLoopTree;
+import com.sun.source.tree.ForLoopTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.IfTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.ReturnTree;
+import com.sun.source.tree.SwitchTree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.tree.WhileLoopTree;
+import com.sun.source.util.TreePathScanner;
+import java.util.List;
+
+/**
+ * Runs the matchers of {@link NullAway} on the trees of a method, the way Error Prone's scanner
+ * does, collecting the errors they find instead of reporting them. Used to evaluate hypotheses in
+ * the multi-candidate method parameter protection test, see {@link
+ * NullAway#countErrorsInMethodAssumingNullable}.
+ *
+ * <p>Lambdas, method references, and local / anonymous classes are not entered.
+ */
+final class MethodRechecker extends TreePathScanner<Void, Void> {
+
+  private final NullAway checker;
+
+  /** state whose description listener adds to {@link #errors} */
+  private final VisitorState collectingState;
+
+  private final List<Description> errors;
+
+  MethodRechecker(NullAway checker, VisitorState collectingState, List<Description> errors) {
+    this.checker = checker;
+    this.collectingState = collectingState;
+    this.errors = errors;
+  }
+
+  private VisitorState state() {
+    return collectingState.withPath(getCurrentPath());
+  }
+
+  private void collect(Description description) {
+    if (description != Description.NO_MATCH) {
+      errors.add(description);
+    }
+  }
+
+  @Override
+  public Void visitClass(ClassTree tree, Void unused) {
+    return null;
+  }
+
+  @Override
+  public Void visitLambdaExpression(LambdaExpressionTree tree, Void unused) {
+    return null;
+  }
+
+  @Override
+  public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
+    return null;
+  }
+
+  @Override
+  public Void visitMethodInvocation(MethodInvocationTree tree, Void unused) {
+    collect(checker.matchMethodInvocation(tree, state()));
+    return super.visitMethodInvocation(tree, unused);
+  }
+
+  @Override
+  public Void visitNewClass(NewClassTree tree, Void unused) {
+    collect(checker.matchNewClass(tree, state()));
+    return super.visitNewClass(tree, unused);
+  }
+
+  @Override
+  public Void visitAssignment(AssignmentTree tree, Void unused) {
+    collect(checker.matchAssignment(tree, state()));
+    return super.visitAssignment(tree, unused);
+  }
+
+  @Override
+  public Void visitCompoundAssignment(CompoundAssignmentTree tree, Void unused) {
+    collect(checker.matchCompoundAssignment(tree, state()));
+    return super.visitCompoundAssignment(tree, unused);
+  }
+
+  @Override
+  public Void visitMemberSelect(MemberSelectTree tree, Void unused) {
+    collect(checker.matchMemberSelect(tree, state()));
+    return super.visitMemberSelect(tree, unused);
+  }
+
+  @Override
+  public Void visitArrayAccess(ArrayAccessTree tree, Void unused) {
+    collect(checker.matchArrayAccess(tree, state()));
+    return super.visitArrayAccess(tree, unused);
+  }
+
+  @Override
+  public Void visitIdentifier(IdentifierTree tree, Void unused) {
+    collect(checker.matchIdentifier(tree, state()));
+    return super.visitIdentifier(tree, unused);
+  }
+
+  @Override
+  public Void visitReturn(ReturnTree tree, Void unused) {
+    collect(checker.matchReturn(tree, state()));
+    return super.visitReturn(tree, unused);
+  }
+
+  @Override
+  public Void visitVariable(VariableTree tree, Void unused) {
+    collect(checker.matchVariable(tree, state()));
+    return super.visitVariable(tree, unused);
+  }
+
+  @Override
+  public Void visitBinary(BinaryTree tree, Void unused) {
+    collect(checker.matchBinary(tree, state()));
+    return super.visitBinary(tree, unused);
+  }
+
+  @Override
+  public Void visitUnary(UnaryTree tree, Void unused) {
+    collect(checker.matchUnary(tree, state()));
+    return super.visitUnary(tree, unused);
+  }
+
+  @Override
+  public Void visitConditionalExpression(ConditionalExpressionTree tree, Void unused) {
+    collect(checker.matchConditionalExpression(tree, state()));
+    return super.visitConditionalExpression(tree, unused);
+  }
+
+  @Override
+  public Void visitIf(IfTree tree, Void unused) {
+    collect(checker.matchIf(tree, state()));
+    return super.visitIf(tree, unused);
+  }
+
+  @Override
+  public Void visitWhileLoop(WhileLoopTree tree, Void unused) {
+    collect(checker.matchWhileLoop(tree, state()));
+    return super.visitWhileLoop(tree, unused);
+  }
+
+  @Override
+  public Void visitForLoop(ForLoopTree tree, Void unused) {
+    collect(checker.matchForLoop(tree, state()));
+    return super.visitForLoop(tree, unused);
+  }
+
+  @Override
+  public Void visitEnhancedForLoop(EnhancedForLoopTree tree, Void unused) {
+    collect(checker.matchEnhancedForLoop(tree, state()));
+    return super.visitEnhancedForLoop(tree, unused);
+  }
+
+  @Override
+  public Void visitSwitch(SwitchTree tree, Void unused) {
+    collect(checker.matchSwitch(tree, state()));
+    return super.visitSwitch(tree, unused);
+  }
+}
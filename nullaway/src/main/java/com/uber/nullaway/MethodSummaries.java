@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.util.Context;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-compilation cache of {@link MethodSummary}s, so that questions about a method's annotations
+ * and overridden method are answered once per {@link Symbol.MethodSymbol}, no matter how many
+ * overriding checks, invocation checks, handlers and dataflow runs ask them.
+ */
+public final class MethodSummaries {
+
+  private static final Context.Key<MethodSummaries> METHOD_SUMMARIES_KEY = new Context.Key<>();
+
+  private final Map<Symbol.MethodSymbol, MethodSummary> summaries = new HashMap<>();
+
+  private final Context context;
+
+  private MethodSummaries(Context context) {
+    this.context = context;
+  }
+
+  /**
+   * Get the MethodSummaries for the given javac context. We ensure there is one instance per
+   * context (as opposed to using static fields) to avoid memory leaks.
+   */
+  public static MethodSummaries instance(Context context) {
+    MethodSummaries instance = context.get(METHOD_SUMMARIES_KEY);
+    if (instance == null) {
+      instance = new MethodSummaries(context);
+      context.put(METHOD_SUMMARIES_KEY, instance);
+    }
+    return instance;
+  }
+
+  /**
+   * @param methodSymbol a method
+   * @return the summary of {@code methodSymbol}
+   */
+  public MethodSummary get(Symbol.MethodSymbol methodSymbol) {
+    MethodSummary summary = summaries.get(methodSymbol);
+    if (summary == null) {
+      summary = new MethodSummary(methodSymbol, context);
+      summaries.put(methodSymbol, summary);
+    }
+    return summary;
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway;
+
+import com.google.common.collect.ImmutableSet;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.util.Context;
+import com.uber.nullaway.handlers.contract.MethodContract;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Facts about a method that NullAway queries repeatedly: nullness annotations on its parameters
+ * and return, its {@code @Contract}, its {@code @EnsuresNonNull} / {@code @RequiresNonNull} fields,
+ * and the closest method it overrides. Each fact is computed on first request and then kept for
+ * the rest of the compilation; get instances from {@link MethodSummaries}.
+ *
+ * <p>Methods taking a {@link Config} must always be passed the config of the running NullAway
+ * instance, of which there is one per compilation.
+ */
+public final class MethodSummary {
+
+  private static final String ENSURES_NON_NULL = "EnsuresNonNull";
+
+  private static final String REQUIRES_NON_NULL = "RequiresNonNull";
+
+  private final Symbol.MethodSymbol methodSymbol;
+
+  /** javac context of the compilation, in which annotation lookups are memoized */
+  private final Context context;
+
+  /** params with a {@code @Nullable} annotation; null until computed */
+  @Nullable private BitSet nullableParams;
+
+  /** params with a {@code @NonNull} annotation; null until computed */
+  @Nullable private BitSet nonNullParams;
+
+  @Nullable private Boolean nullableReturn;
+
+  @Nullable private Boolean nonNullReturn;
+
+  @Nullable private Optional<MethodContract> contract;
+
+  @Nullable private Optional<ImmutableSet<String>> ensuresNonNullFields;
+
+  @Nullable private Optional<ImmutableSet<String>> requiresNonNullFields;
+
+  @Nullable private Optional<Symbol.MethodSymbol> closestOverriddenMethod;
+
+  MethodSummary(Symbol.MethodSymbol methodSymbol, Context context) {
+    this.methodSymbol = methodSymbol;
+    this.context = context;
+  }
+
+  /**
+   * @param paramInd index of a parameter
+   * @param config the NullAway config
+   * @return true if the parameter has a {@code @Nullable} declaration or type-use annotation, see
+   *     {@link Nullness#paramHasNullableAnnotation}
+   */
+  public boolean isParamNullable(int paramInd, Config config) {
+    if (nullableParams == null) {
+      nullableParams = paramsWithAnnotation(Nullness::paramHasNullableAnnotation, config);
+    }
+    return nullableParams.get(paramInd);
+  }
+
+  /**
+   * @param paramInd index of a parameter
+   * @param config the NullAway config
+   * @return true if the parameter has a {@code @NonNull} declaration or type-use annotation, see
+   *     {@link Nullness#paramHasNonNullAnnotation}
+   */
+  public boolean isParamNonNull(int paramInd, Config config) {
+    if (nonNullParams == null) {
+      nonNullParams = paramsWithAnnotation(Nullness::paramHasNonNullAnnotation, config);
+    }
+    return nonNullParams.get(paramInd);
+  }
+
+  private BitSet paramsWithAnnotation(ParamAnnotationCheck check, Config config) {
+    BitSet result = new BitSet();
+    for (int i = 0; i < methodSymbol.getParameters().size(); i++) {
+      if (check.hasAnnotation(methodSymbol, i, config, context)) {
+        result.set(i);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param config the NullAway config
+   * @return true if the method has a {@code @Nullable} declaration or return type-use annotation
+   */
+  public boolean hasNullableReturn(Config config) {
+    if (nullableReturn == null) {
+      nullableReturn = Nullness.hasNullableAnnotation(methodSymbol, config, context);
+    }
+    return nullableReturn;
+  }
+
+  /**
+   * @param config the NullAway config
+   * @return true if the method has a {@code @NonNull} declaration or return type-use annotation
+   */
+  public boolean hasNonNullReturn(Config config) {
+    if (nonNullReturn == null) {
+      nonNullReturn = Nullness.hasNonNullAnnotation(methodSymbol, config, context);
+    }
+    return nonNullReturn;
+  }
+
+  /**
+   * @param config the NullAway config
+   * @return the parsed contract of the method, if it has a contract annotation
+   */
+  public Optional<MethodContract> getContract(Config config) {
+    if (contract == null) {
+      contract = MethodContract.fromAnnotation(methodSymbol, config);
+    }
+    return contract;
+  }
+
+  /**
+   * @return the {@code value} of the method's {@code @EnsuresNonNull} annotation, or {@code null}
+   *     if it has none
+   */
+  @Nullable
+  public ImmutableSet<String> getEnsuresNonNullFields() {
+    if (ensuresNonNullFields == null) {
+      ensuresNonNullFields = getFieldContract(ENSURES_NON_NULL);
+    }
+    return ensuresNonNullFields.orElse(null);
+  }
+
+  /**
+   * @return the {@code value} of the method's {@code @RequiresNonNull} annotation, or {@code null}
+   *     if it has none
+   */
+  @Nullable
+  public ImmutableSet<String> getRequiresNonNullFields() {
+    if (requiresNonNullFields == null) {
+      requiresNonNullFields = getFieldContract(REQUIRES_NON_NULL);
+    }
+    return requiresNonNullFields.orElse(null);
+  }
+
+  private Optional<ImmutableSet<String>> getFieldContract(String annotName) {
+    Set<String> fields = NullabilityUtil.getAnnotationValueArray(methodSymbol, annotName, false);
+    return Optional.ofNullable(fields).map(ImmutableSet::copyOf);
+  }
+
+  /**
+   * @param types the types data structure from javac
+   * @return closest overridden ancestor method, or <code>null</code> if the method does not
+   *     override anything, see {@link NullabilityUtil#getClosestOverriddenMethod}
+   */
+  @Nullable
+  public Symbol.MethodSymbol getClosestOverriddenMethod(Types types) {
+    if (closestOverriddenMethod == null) {
+      closestOverriddenMethod =
+          Optional.ofNullable(NullabilityUtil.getClosestOverriddenMethod(methodSymbol, types));
+    }
+    return closestOverriddenMethod.orElse(null);
+  }
+
+  /** One of the parameter annotation checks of {@link Nullness}. */
+  private interface ParamAnnotationCheck {
+    boolean hasAnnotation(
+        Symbol.MethodSymbol methodSymbol, int paramInd, Config config, Context context);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sun.tools.javac.code.Symbol;
+import java.util.Set;
+import javax.lang.model.element.Element;
+
+/**
+ * Assigns a dense number to each <code>@NonNull</code> instance field of a class, so that sets of
+ * such fields can be represented as <code>long[]</code> bitsets. Field initialization checking
+ * repeatedly unions and diffs these sets per constructor and per initializer, which with bitsets
+ * becomes a handful of word-wise operations.
+ *
+ * <p>Elements that are not indexed (e.g., fields of other classes, or fields that are nullable or
+ * initialized at declaration) are ignored when added to a bitset, and are never contained in one.
+ */
+final class NonnullFieldIndex {
+
+  private static final int WORD_BITS_LOG = 6;
+
+  /** Indexed fields, in declaration order. */
+  private final ImmutableList<Symbol> fields;
+
+  private final ImmutableMap<Element, Integer> fieldToIndex;
+
+  private NonnullFieldIndex(ImmutableList<Symbol> fields) {
+    this.fields = fields;
+    ImmutableMap.Builder<Element, Integer> builder = ImmutableMap.builder();
+    for (int i = 0; i < fields.size(); i++) {
+      builder.put(fields.get(i), i);
+    }
+    this.fieldToIndex = builder.build();
+  }
+
+  static NonnullFieldIndex create(Set<Symbol> fields) {
+    return new NonnullFieldIndex(ImmutableList.copyOf(fields));
+  }
+
+  /**
+   * @return a fresh empty bitset, sized for the fields of this index
+   */
+  long[] emptySet() {
+    return new long[(fields.size() + Long.SIZE - 1) >>> WORD_BITS_LOG];
+  }
+
+  /**
+   * Adds the indexed elements of {@code elements} to {@code set}.
+   *
+   * @param set bitset created by {@link #emptySet()}
+   * @param elements elements to add; those not in this index are skipped
+   */
+  void addAll(long[] set, Iterable<? extends Element> elements) {
+    for (Element element : elements) {
+      Integer index = fieldToIndex.get(element);
+      if (index != null) {
+        set[index >>> WORD_BITS_LOG] |= 1L << index;
+      }
+    }
+  }
+
+  /**
+   * @param set bitset created by {@link #emptySet()}
+   * @param element any element
+   * @return true if {@code element} is indexed and its bit is set in {@code set}
+   */
+  boolean contains(long[] set, Element element) {
+    Integer index = fieldToIndex.get(element);
+    return index != null && (set[index >>> WORD_BITS_LOG] & (1L << index)) != 0;
+  }
+
+  /**
+   * @param set bitset created by {@link #emptySet()}
+   * @return the indexed fields whose bits are <em>not</em> set in {@code set}, in declaration order
+   */
+  ImmutableList<Symbol> missingFrom(long[] set) {
+    ImmutableList.Builder<Symbol> builder = ImmutableList.builder();
+    for (int word = 0; word < set.length; word++) {
+      long missing = ~set[word];
+      while (missing != 0) {
+        int index = (word << WORD_BITS_LOG) + Long.numberOfTrailingZeros(missing);
+        if (index >= fields.size()) {
+          break;
+        }
+        builder.add(fields.get(index));
+        missing &= missing - 1;
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Adds all fields of {@code other} to {@code set}. Both bitsets must come from the same index.
+   */
+  static void union(long[] set, long[] other) {
+    for (int i = 0; i < set.length; i++) {
+      set[i] |= other[i];
+    }
+  }
+}
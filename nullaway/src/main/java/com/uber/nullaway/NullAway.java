@@ -86,13 +86,19 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.tree.EndPosTable;
 import com.sun.tools.javac.tree.JCTree;
 import com.uber.nullaway.ErrorMessage.MessageTypes;
+import com.uber.nullaway.dataflow.AccessPathLimits;
 import com.uber.nullaway.dataflow.AccessPathNullnessAnalysis;
 import com.uber.nullaway.dataflow.EnclosingEnvironmentNullness;
+import com.uber.nullaway.dataflow.MethodAnalysisHandle;
 import com.uber.nullaway.handlers.Handler;
 import com.uber.nullaway.handlers.Handlers;
+import com.uber.nullaway.incremental.CachedDiagnostic;
+import com.uber.nullaway.incremental.IncrementalAnalysis;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -100,6 +106,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -210,10 +217,20 @@ public class NullAway extends BugChecker
    */
   @Nullable private ClassAnnotationInfo classAnnotationInfo;
 
+  /** Non-null iff incremental mode is on; see {@link Config#getIncrementalCacheDir()}. */
+  @Nullable private IncrementalAnalysis incrementalAnalysis;
+
   private final Config config;
 
   private final ErrorBuilder errorBuilder;
 
+  /**
+   * The parameter assumed to be {@code @Nullable} while re-running checks for the multi-candidate
+   * method parameter protection test, see {@link #countErrorsInMethodAssumingNullable}; {@code
+   * null} otherwise.
+   */
+  @Nullable private VarSymbol nullableParamHypothesis;
+
   /**
    * The handler passed to our analysis (usually a {@code CompositeHandler} including handlers for
    * various APIs.
@@ -242,6 +259,22 @@ public class NullAway extends BugChecker
   private final Map<Symbol.ClassSymbol, Multimap<Tree, Element>> initTree2PrevFieldInit =
       new LinkedHashMap<>();
 
+  /**
+   * maps each safe init method to the bitset of @NonNull fields it guarantees to initialize,
+   * numbered by {@link FieldInitEntities#nonnullInstanceFieldIndex()} of its class.
+   *
+   * <p>cached for performance. nulled out in {@link #matchClass(ClassTree, VisitorState)}
+   */
+  private final Map<Element, long[]> safeInitMethod2InitFields = new LinkedHashMap<>();
+
+  /**
+   * dataflow results retained for constructors, initializers and safe init methods, so that the
+   * run used for field initialization checking is reused when their bodies are visited. Released in
+   * {@link #matchMethod(MethodTree, VisitorState)} once the visitor has moved past the method, and
+   * nulled out in {@link #matchClass(ClassTree, VisitorState)}
+   */
+  private final Map<Tree, MethodAnalysisHandle> retainedDataflowResults = new LinkedHashMap<>();
+
   /**
    * dynamically computer/overriden nullness facts for certain expressions, such as specific method
    * calls where we can infer a more precise set of facts than those given by the method's
@@ -272,7 +305,7 @@ public class NullAway extends BugChecker
   }
 
   public NullAway(ErrorProneFlags flags) {
-    config = new ErrorProneCLIFlagsConfig(flags);
+    config = ErrorProneCLIFlagsConfig.forFlags(flags);
     handler = Handlers.buildDefault(config);
     nonAnnotatedMethod = this::isMethodUnannotated;
     errorBuilder = new ErrorBuilder(config, canonicalName(), allNames());
@@ -293,6 +326,10 @@ public class NullAway extends BugChecker
   }
 
   private boolean withinAnnotatedCode(VisitorState state) {
+    // in incremental mode, errors within unchanged methods are replayed rather than recomputed
+    if (incrementalAnalysis != null && incrementalAnalysis.isSkipped(state.getPath().getLeaf())) {
+      return false;
+    }
     switch (nullMarkingForTopLevelClass) {
       case FULLY_MARKED:
         return true;
@@ -418,14 +455,14 @@ public class NullAway extends BugChecker
    */
   private void updateEnvironmentMapping(Tree tree, VisitorState state) {
     AccessPathNullnessAnalysis analysis = getNullnessAnalysis(state);
-    // two notes:
+    // three notes:
     // 1. we are free to take local variable information from the program point before
     // the lambda / class declaration as only effectively final variables can be accessed
     // from the nested scope, so the program point doesn't matter
     // 2. we keep info on all locals rather than just effectively final ones for simplicity
-    EnclosingEnvironmentNullness.instance(state.context)
-        .addEnvironmentMapping(
-            tree, analysis.getNullnessInfoBeforeNewContext(state.getPath(), state, handler));
+    // 3. the store is filtered lazily, and shared between nested contexts with equal enclosing
+    // stores; see EnclosingEnvironmentNullness
+    analysis.saveNullnessInfoBeforeNewContext(state.getPath(), state, handler);
   }
 
   private Symbol.MethodSymbol getSymbolOfSuperConstructor(
@@ -461,7 +498,7 @@ public class NullAway extends BugChecker
       return Description.NO_MATCH;
     }
 
-    if (Nullness.hasNullableAnnotation(assigned, config)) {
+    if (Nullness.hasNullableAnnotation(assigned, config, state.context)) {
       // field already annotated
       return Description.NO_MATCH;
     }
@@ -546,6 +583,7 @@ public class NullAway extends BugChecker
 
   @Override
   public Description matchMethod(MethodTree tree, VisitorState state) {
+    releaseRetainedDataflowResultsBefore(tree, state);
     if (!withinAnnotatedCode(state)) {
       return Description.NO_MATCH;
     }
@@ -554,12 +592,33 @@ public class NullAway extends BugChecker
     // overridden method (if overridden method is in an annotated
     // package)
     Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(tree);
+    if (incrementalAnalysis != null) {
+      List<CachedDiagnostic> cachedDiagnostics =
+          incrementalAnalysis.onMatchMethod(
+              state.getPath(),
+              methodSymbol.isConstructor() || isInitializerMethod(state, methodSymbol),
+              state);
+      if (cachedDiagnostics != null) {
+        for (CachedDiagnostic diagnostic : cachedDiagnostics) {
+          state.reportMatch(
+              buildDescription(diagnostic.positionIn((JCTree) tree))
+                  .setMessage(diagnostic.getMessage())
+                  .build());
+        }
+        return Description.NO_MATCH;
+      }
+    }
     handler.onMatchMethod(this, tree, state, methodSymbol);
+    return checkOverridingOfMethod(methodSymbol, state);
+  }
+
+  private Description checkOverridingOfMethod(
+      Symbol.MethodSymbol methodSymbol, VisitorState state) {
     boolean isOverriding = ASTHelpers.hasAnnotation(methodSymbol, Override.class, state);
     boolean exhaustiveOverride = config.exhaustiveOverride();
     if (isOverriding || !exhaustiveOverride) {
       Symbol.MethodSymbol closestOverriddenMethod =
-          NullabilityUtil.getClosestOverriddenMethod(methodSymbol, state.getTypes());
+          getSummary(methodSymbol, state).getClosestOverriddenMethod(state.getTypes());
       if (closestOverriddenMethod != null) {
         return checkOverriding(closestOverriddenMethod, methodSymbol, null, state);
       }
@@ -567,6 +626,60 @@ public class NullAway extends BugChecker
     return Description.NO_MATCH;
   }
 
+  /**
+   * Re-runs the checks of NullAway on the method at the path of {@code state}, assuming that
+   * {@code nullableParam} is {@code @Nullable}, for the multi-candidate method parameter
+   * protection test. Errors are counted rather than reported, and are neither serialized nor
+   * cached. Lambdas and local / anonymous classes in the method are skipped, since their dataflow
+   * starts from the environment computed without the assumption.
+   *
+   * @param state visitor state, with the path of a method
+   * @param nullableParam a parameter of that method, or {@code null} to count the errors of the
+   *     method as declared
+   * @return number of errors reported in the method
+   */
+  public int countErrorsInMethodAssumingNullable(
+      VisitorState state, @Nullable VarSymbol nullableParam) {
+    List<Description> errors = new ArrayList<>();
+    // collects the errors matchers report directly, instead of returning them
+    VisitorState collectingState =
+        VisitorState.createForCustomFindingCollection(state.context, errors::add);
+    MethodRechecker rechecker = new MethodRechecker(this, collectingState, errors);
+    evaluateHypothesis(nullableParam, () -> rechecker.scan(state.getPath(), null));
+    return errors.size();
+  }
+
+  /**
+   * Re-runs the check that the method at the path of {@code state} overrides its closest
+   * overridden method consistently, assuming that {@code nullableParam} is {@code @Nullable}, for
+   * the multi-candidate method parameter protection test. Errors are neither reported, serialized
+   * nor cached.
+   *
+   * @param state visitor state, with the path of a method
+   * @param methodSymbol symbol of that method
+   * @param nullableParam a parameter of that method or of the method it overrides, or {@code null}
+   *     to check the methods as declared
+   * @return true if the check finds an error
+   */
+  public boolean hasOverrideErrorAssumingNullable(
+      VisitorState state, Symbol.MethodSymbol methodSymbol, @Nullable VarSymbol nullableParam) {
+    return evaluateHypothesis(nullableParam, () -> checkOverridingOfMethod(methodSymbol, state))
+        != Description.NO_MATCH;
+  }
+
+  private <T> T evaluateHypothesis(@Nullable VarSymbol nullableParam, Supplier<T> check) {
+    Preconditions.checkState(
+        !errorBuilder.isEvaluatingHypothesis(), "cannot evaluate nested hypotheses");
+    nullableParamHypothesis = nullableParam;
+    errorBuilder.setEvaluatingHypothesis(true);
+    try {
+      return check.get();
+    } finally {
+      nullableParamHypothesis = null;
+      errorBuilder.setEvaluatingHypothesis(false);
+    }
+  }
+
   @Override
   public Description matchSwitch(SwitchTree tree, VisitorState state) {
     if (!withinAnnotatedCode(state)) {
@@ -625,7 +738,8 @@ public class NullAway extends BugChecker
       boolean isFirstParamNull = false;
       // Two cases: for annotated code, look first at the annotation
       if (!classAnnotationInfo.isSymbolUnannotated(overriddenMethod, config)) {
-        isFirstParamNull = Nullness.hasNullableAnnotation(superParamSymbols.get(0), config);
+        isFirstParamNull =
+            Nullness.hasNullableAnnotation(superParamSymbols.get(0), config, state.context);
       }
       // For both annotated and unannotated code, look then at handler overrides (e.g. Library
       // Models)
@@ -665,7 +779,8 @@ public class NullAway extends BugChecker
       for (int i = startParam; i < superParamSymbols.size(); i++) {
         // we need to call paramHasNullableAnnotation here since overriddenMethod may be defined
         // in a class file
-        if (Nullness.paramHasNullableAnnotation(overriddenMethod, i, config)) {
+        if (getSummary(overriddenMethod, state).isParamNullable(i, config)
+            || superParamSymbols.get(i).equals(nullableParamHypothesis)) {
           builder.add(i);
         }
       }
@@ -683,7 +798,9 @@ public class NullAway extends BugChecker
           lambdaExpressionTree != null
               && NullabilityUtil.lambdaParamIsImplicitlyTyped(
                   lambdaExpressionTree.getParameters().get(methodParamInd));
-      if (!Nullness.hasNullableAnnotation(paramSymbol, config) && !implicitlyTypedLambdaParam) {
+      if (!Nullness.hasNullableAnnotation(paramSymbol, config, state.context)
+          && !paramSymbol.equals(nullableParamHypothesis)
+          && !implicitlyTypedLambdaParam) {
         final String message =
             "parameter "
                 + paramSymbol.name.toString()
@@ -713,6 +830,10 @@ public class NullAway extends BugChecker
     return Description.NO_MATCH;
   }
 
+  private static MethodSummary getSummary(Symbol.MethodSymbol methodSymbol, VisitorState state) {
+    return MethodSummaries.instance(state.context).get(methodSymbol);
+  }
+
   static Trees getTreesInstance(VisitorState state) {
     return Trees.instance(JavacProcessingEnvironment.instance(state.context));
   }
@@ -728,7 +849,7 @@ public class NullAway extends BugChecker
       return Description.NO_MATCH;
     }
     if (classAnnotationInfo.isSymbolUnannotated(methodSymbol, config)
-        || Nullness.hasNullableAnnotation(methodSymbol, config)) {
+        || getSummary(methodSymbol, state).hasNullableReturn(config)) {
       return Description.NO_MATCH;
     }
     if (mayBeNullExpr(state, retExpr)) {
@@ -818,11 +939,11 @@ public class NullAway extends BugChecker
                 && handler.onUnannotatedInvocationGetExplicitlyNonNullReturn(
                     overriddenMethod, false))
             || (!isOverridenMethodUnannotated
-                && !Nullness.hasNullableAnnotation(overriddenMethod, config)));
+                && !getSummary(overriddenMethod, state).hasNullableReturn(config)));
     // if the super method returns nonnull,
     // overriding method better not return nullable
     if (overriddenMethodReturnsNonNull
-        && Nullness.hasNullableAnnotation(overridingMethod, config)
+        && getSummary(overridingMethod, state).hasNullableReturn(config)
         && getComputedNullness(memberReferenceTree).equals(Nullness.NULLABLE)) {
       String message;
       if (memberReferenceTree != null) {
@@ -995,32 +1116,40 @@ public class NullAway extends BugChecker
   private boolean fieldAlwaysInitializedBeforeRead(
       Symbol symbol, TreePath pathToRead, VisitorState state, TreePath enclosingBlockPath) {
     AccessPathNullnessAnalysis nullnessAnalysis = getNullnessAnalysis(state);
-    Set<Element> nonnullFields;
     if (symbol.isStatic()) {
-      nonnullFields = nullnessAnalysis.getNonnullStaticFieldsBefore(pathToRead, state.context);
-    } else {
-      nonnullFields = new LinkedHashSet<>();
-      nonnullFields.addAll(
-          nullnessAnalysis.getNonnullFieldsOfReceiverBefore(pathToRead, state.context));
-      nonnullFields.addAll(safeInitByCalleeBefore(pathToRead, state, enclosingBlockPath));
+      Set<Element> nonnullStaticFields =
+          nullnessAnalysis.getNonnullStaticFieldsBefore(pathToRead, state.context);
+      return nonnullStaticFields.contains(symbol);
+    }
+    Set<Element> nonnullReceiverFields =
+        nullnessAnalysis.getNonnullFieldsOfReceiverBefore(pathToRead, state.context);
+    if (nonnullReceiverFields.contains(symbol)) {
+      return true;
     }
-    return nonnullFields.contains(symbol);
+    NonnullFieldIndex fieldIndex =
+        class2Entities.get(enclosingClassSymbol(enclosingBlockPath)).nonnullInstanceFieldIndex();
+    long[] initByCallee = fieldIndex.emptySet();
+    safeInitByCalleeBefore(pathToRead, state, enclosingBlockPath, fieldIndex, initByCallee);
+    return fieldIndex.contains(initByCallee, symbol);
   }
 
   /**
    * computes those fields always initialized by callee safe init methods before a read operation
-   * (pathToRead) is invoked. See <a
+   * (pathToRead) is invoked, and adds them to {@code result}. See <a
    * href="https://github.com/uber/NullAway/wiki/Error-Messages#initializer-method-does-not-guarantee-nonnull-field-is-initialized--nonnull-field--not-initialized">the
    * docs</a> for what is considered a safe initializer method.
    */
-  private ImmutableSet<Element> safeInitByCalleeBefore(
-      TreePath pathToRead, VisitorState state, TreePath enclosingBlockPath) {
+  private void safeInitByCalleeBefore(
+      TreePath pathToRead,
+      VisitorState state,
+      TreePath enclosingBlockPath,
+      NonnullFieldIndex fieldIndex,
+      long[] result) {
     Set<Element> safeInitMethods = new LinkedHashSet<>();
     Tree enclosingBlockOrMethod = enclosingBlockPath.getLeaf();
     if (enclosingBlockOrMethod instanceof VariableTree) {
-      return ImmutableSet.of();
+      return;
     }
-    ImmutableSet.Builder<Element> resultBuilder = ImmutableSet.builder();
     BlockTree blockTree =
         enclosingBlockOrMethod instanceof BlockTree
             ? (BlockTree) enclosingBlockOrMethod
@@ -1053,24 +1182,32 @@ public class NullAway extends BugChecker
           // that initialization?
           if (tryTree.getCatches().size() == 0) {
             if (tryTree.getBlock() != null) {
-              resultBuilder.addAll(
-                  safeInitByCalleeBefore(
-                      pathToRead, state, new TreePath(enclosingBlockPath, tryTree.getBlock())));
+              safeInitByCalleeBefore(
+                  pathToRead,
+                  state,
+                  new TreePath(enclosingBlockPath, tryTree.getBlock()),
+                  fieldIndex,
+                  result);
             }
             if (tryTree.getFinallyBlock() != null) {
-              resultBuilder.addAll(
-                  safeInitByCalleeBefore(
-                      pathToRead,
-                      state,
-                      new TreePath(enclosingBlockPath, tryTree.getFinallyBlock())));
+              safeInitByCalleeBefore(
+                  pathToRead,
+                  state,
+                  new TreePath(enclosingBlockPath, tryTree.getFinallyBlock()),
+                  fieldIndex,
+                  result);
             }
           }
         }
       }
     }
     addGuaranteedNonNullFromInvokes(
-        state, getTreesInstance(state), safeInitMethods, getNullnessAnalysis(state), resultBuilder);
-    return resultBuilder.build();
+        state,
+        getTreesInstance(state),
+        safeInitMethods,
+        getNullnessAnalysis(state),
+        fieldIndex,
+        result);
   }
 
   private int getStartPos(JCTree tree) {
@@ -1127,7 +1264,8 @@ public class NullAway extends BugChecker
               nullnessAnalysis.getNonnullStaticFieldsAtExit(memberPath, state.context));
         } else {
           initThusFar.addAll(
-              nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(memberPath, state.context));
+              nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(
+                  retainedDataflowResult(memberPath, state)));
         }
       }
       if (memberTree instanceof MethodTree) {
@@ -1257,13 +1395,22 @@ public class NullAway extends BugChecker
           isExcludedClass(classSymbol) ? NullMarking.FULLY_UNMARKED : NullMarking.FULLY_MARKED;
       // since we are processing a new top-level class, invalidate any cached
       // results for previous classes
+      if (config.getIncrementalCacheDir() != null) {
+        incrementalAnalysis = IncrementalAnalysis.instance(state.context, config);
+        incrementalAnalysis.onMatchTopLevelClass(classSymbol);
+      }
       handler.onMatchTopLevelClass(this, tree, state, classSymbol);
       getNullnessAnalysis(state).invalidateCaches();
       initTree2PrevFieldInit.clear();
       class2Entities.clear();
       class2ConstructorUninit.clear();
+      safeInitMethod2InitFields.clear();
+      retainedDataflowResults.clear();
       computedNullnessMap.clear();
       EnclosingEnvironmentNullness.instance(state.context).clear();
+      if (config.printProfilingOutput()) {
+        registerProfilingCounters(state);
+      }
     } else {
       // handle the case where the top-class is unannotated, but there is a @NullMarked annotation
       // on a nested class
@@ -1441,7 +1588,7 @@ public class NullAway extends BugChecker
         }
         // we need to call paramHasNullableAnnotation here since the invoked method may be defined
         // in a class file
-        if (!Nullness.paramHasNullableAnnotation(methodSymbol, i, config)) {
+        if (!getSummary(methodSymbol, state).isParamNullable(i, config)) {
           builder.add(i);
         }
       }
@@ -1630,7 +1777,8 @@ public class NullAway extends BugChecker
       FieldInitEntities entities, Set<Symbol> notInitializedInConstructors, VisitorState state) {
     Trees trees = getTreesInstance(state);
     Symbol.ClassSymbol classSymbol = entities.classSymbol();
-    ImmutableSet.Builder<Element> initInSomeInitializerBuilder = ImmutableSet.builder();
+    NonnullFieldIndex fieldIndex = entities.nonnullInstanceFieldIndex();
+    long[] initInSomeInitializer = fieldIndex.emptySet();
     for (MethodTree initMethodTree : entities.instanceInitializerMethods()) {
       if (initMethodTree.getBody() == null) {
         continue;
@@ -1639,7 +1787,8 @@ public class NullAway extends BugChecker
           state,
           trees,
           classSymbol,
-          initInSomeInitializerBuilder,
+          fieldIndex,
+          initInSomeInitializer,
           initMethodTree.getBody(),
           new TreePath(state.getPath(), initMethodTree));
     }
@@ -1648,14 +1797,14 @@ public class NullAway extends BugChecker
           state,
           trees,
           classSymbol,
-          initInSomeInitializerBuilder,
+          fieldIndex,
+          initInSomeInitializer,
           block,
           new TreePath(state.getPath(), block));
     }
     Set<Symbol> result = new LinkedHashSet<>();
-    ImmutableSet<Element> initInSomeInitializer = initInSomeInitializerBuilder.build();
     for (Symbol fieldSymbol : notInitializedInConstructors) {
-      if (!initInSomeInitializer.contains(fieldSymbol)) {
+      if (!fieldIndex.contains(initInSomeInitializer, fieldSymbol)) {
         result.add(fieldSymbol);
       }
     }
@@ -1666,16 +1815,17 @@ public class NullAway extends BugChecker
       VisitorState state,
       Trees trees,
       Symbol.ClassSymbol classSymbol,
-      ImmutableSet.Builder<Element> initInSomeInitializerBuilder,
+      NonnullFieldIndex fieldIndex,
+      long[] initInSomeInitializer,
       BlockTree block,
       TreePath path) {
     AccessPathNullnessAnalysis nullnessAnalysis = getNullnessAnalysis(state);
     Set<Element> nonnullAtExit =
-        nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(path, state.context);
-    initInSomeInitializerBuilder.addAll(nonnullAtExit);
+        nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(retainedDataflowResult(path, state));
+    fieldIndex.addAll(initInSomeInitializer, nonnullAtExit);
     Set<Element> safeInitMethods = getSafeInitMethods(block, classSymbol, state);
     addGuaranteedNonNullFromInvokes(
-        state, trees, safeInitMethods, nullnessAnalysis, initInSomeInitializerBuilder);
+        state, trees, safeInitMethods, nullnessAnalysis, fieldIndex, initInSomeInitializer);
   }
 
   /**
@@ -1686,7 +1836,6 @@ public class NullAway extends BugChecker
   private SetMultimap<MethodTree, Symbol> checkConstructorInitialization(
       FieldInitEntities entities, VisitorState state) {
     SetMultimap<MethodTree, Symbol> result = LinkedHashMultimap.create();
-    Set<Symbol> nonnullInstanceFields = entities.nonnullInstanceFields();
     Trees trees = getTreesInstance(state);
     boolean isExternalInit = isExternalInit(entities.classSymbol());
     for (MethodTree constructor : entities.constructors()) {
@@ -1697,13 +1846,10 @@ public class NullAway extends BugChecker
         // external framework initializes fields in this case
         continue;
       }
-      Set<Element> guaranteedNonNull =
+      long[] guaranteedNonNull =
           guaranteedNonNullForConstructor(entities, state, trees, constructor);
-      for (Symbol fieldSymbol : nonnullInstanceFields) {
-        if (!guaranteedNonNull.contains(fieldSymbol)) {
-          result.put(constructor, fieldSymbol);
-        }
-      }
+      result.putAll(
+          constructor, entities.nonnullInstanceFieldIndex().missingFrom(guaranteedNonNull));
     }
     return result;
   }
@@ -1714,18 +1860,82 @@ public class NullAway extends BugChecker
         .anyMatch(config::isExternalInitClassAnnotation);
   }
 
-  private ImmutableSet<Element> guaranteedNonNullForConstructor(
+  private long[] guaranteedNonNullForConstructor(
       FieldInitEntities entities, VisitorState state, Trees trees, MethodTree constructor) {
     Set<Element> safeInitMethods =
         getSafeInitMethods(constructor.getBody(), entities.classSymbol(), state);
     AccessPathNullnessAnalysis nullnessAnalysis = getNullnessAnalysis(state);
-    ImmutableSet.Builder<Element> guaranteedNonNullBuilder = ImmutableSet.builder();
-    guaranteedNonNullBuilder.addAll(
+    NonnullFieldIndex fieldIndex = entities.nonnullInstanceFieldIndex();
+    long[] guaranteedNonNull = fieldIndex.emptySet();
+    fieldIndex.addAll(
+        guaranteedNonNull,
         nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(
-            new TreePath(state.getPath(), constructor), state.context));
+            retainedDataflowResult(new TreePath(state.getPath(), constructor), state)));
     addGuaranteedNonNullFromInvokes(
-        state, trees, safeInitMethods, nullnessAnalysis, guaranteedNonNullBuilder);
-    return guaranteedNonNullBuilder.build();
+        state, trees, safeInitMethods, nullnessAnalysis, fieldIndex, guaranteedNonNull);
+    return guaranteedNonNull;
+  }
+
+  /**
+   * Get a handle on the dataflow result for a method or initializer block, retaining it until the
+   * visitor has moved past that code. Field initialization checking runs dataflow on constructors
+   * and initializers from {@link #matchClass(ClassTree, VisitorState)}; the handle ensures that the
+   * later dereference checks within their bodies reuse the same run.
+   *
+   * @param methodPath path to the method or initializer block
+   * @param state visitor state
+   * @return handle on the retained dataflow result
+   */
+  private MethodAnalysisHandle retainedDataflowResult(TreePath methodPath, VisitorState state) {
+    Tree methodTree = methodPath.getLeaf();
+    MethodAnalysisHandle handle = retainedDataflowResults.get(methodTree);
+    if (handle == null) {
+      handle = getNullnessAnalysis(state).retainResultForMethod(methodPath, state.context);
+      retainedDataflowResults.put(methodTree, handle);
+    }
+    return handle;
+  }
+
+  /** Registers the counters printed in the profiling output, see {@link Profiling}. */
+  private void registerProfilingCounters(VisitorState state) {
+    Profiling profiling = Profiling.instance(state.context);
+    EnclosingEnvironmentNullness environmentNullness =
+        EnclosingEnvironmentNullness.instance(state.context);
+    profiling.register(
+        "enclosingEnvironments.savedContexts", environmentNullness::getNumSavedContexts);
+    profiling.register("enclosingEnvironments.snapshots", environmentNullness::getNumSnapshots);
+    profiling.register(
+        "enclosingEnvironments.peakRetainedEntries",
+        environmentNullness::getPeakRetainedEntryCount);
+    AccessPathLimits accessPathLimits = getNullnessAnalysis(state).getAccessPathLimits();
+    profiling.register(
+        "accessPathLimits.droppedForPathLength", accessPathLimits::getNumDroppedForPathLength);
+    profiling.register(
+        "accessPathLimits.droppedForStoreSize", accessPathLimits::getNumDroppedForStoreSize);
+  }
+
+  /**
+   * Release retained dataflow results for code that ends before {@code tree} starts. Trees are
+   * visited depth-first in source order, so no further queries will be made on that code.
+   */
+  private void releaseRetainedDataflowResultsBefore(MethodTree tree, VisitorState state) {
+    if (retainedDataflowResults.isEmpty()) {
+      return;
+    }
+    int startPos = getStartPos((JCTree) tree);
+    EndPosTable endPositions =
+        ((JCTree.JCCompilationUnit) state.getPath().getCompilationUnit()).endPositions;
+    AccessPathNullnessAnalysis nullnessAnalysis = getNullnessAnalysis(state);
+    Iterator<MethodAnalysisHandle> iterator = retainedDataflowResults.values().iterator();
+    while (iterator.hasNext()) {
+      MethodAnalysisHandle handle = iterator.next();
+      // if end positions are unavailable this may release early, which just falls back on the
+      // dataflow caches
+      if (((JCTree) handle.getMethodTree()).getEndPosition(endPositions) <= startPos) {
+        nullnessAnalysis.release(handle);
+        iterator.remove();
+      }
+    }
   }
 
   /** does the constructor invoke another constructor in the same class via this(...)? */
@@ -1771,12 +1981,20 @@ public class NullAway extends BugChecker
       Trees trees,
       Set<Element> safeInitMethods,
       AccessPathNullnessAnalysis nullnessAnalysis,
-      ImmutableSet.Builder<Element> guaranteedNonNullBuilder) {
+      NonnullFieldIndex fieldIndex,
+      long[] guaranteedNonNull) {
     for (Element invoked : safeInitMethods) {
-      Tree invokedTree = trees.getTree(invoked);
-      guaranteedNonNullBuilder.addAll(
-          nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(
-              new TreePath(state.getPath(), invokedTree), state.context));
+      long[] initByInvoked = safeInitMethod2InitFields.get(invoked);
+      if (initByInvoked == null) {
+        Tree invokedTree = trees.getTree(invoked);
+        initByInvoked = fieldIndex.emptySet();
+        fieldIndex.addAll(
+            initByInvoked,
+            nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(
+                retainedDataflowResult(new TreePath(state.getPath(), invokedTree), state)));
+        safeInitMethod2InitFields.put(invoked, initByInvoked);
+      }
+      NonnullFieldIndex.union(guaranteedNonNull, initByInvoked);
     }
   }
 
@@ -1958,7 +2176,7 @@ public class NullAway extends BugChecker
       }
     }
     Symbol.MethodSymbol closestOverriddenMethod =
-        NullabilityUtil.getClosestOverriddenMethod(symbol, state.getTypes());
+        getSummary(symbol, state).getClosestOverriddenMethod(state.getTypes());
     if (closestOverriddenMethod == null) {
       return false;
     }
@@ -2103,7 +2321,7 @@ public class NullAway extends BugChecker
     if (classAnnotationInfo.isSymbolUnannotated(exprSymbol, config)) {
       exprMayBeNull = false;
     }
-    if (!Nullness.hasNullableAnnotation(exprSymbol, config)) {
+    if (!getSummary(exprSymbol, state).hasNullableReturn(config)) {
       exprMayBeNull = false;
     }
     exprMayBeNull = handler.onOverrideMayBeNullExpr(this, expr, state, exprMayBeNull);
@@ -2111,8 +2329,19 @@ public class NullAway extends BugChecker
   }
 
   public boolean nullnessFromDataflow(VisitorState state, ExpressionTree expr) {
-    Nullness nullness =
-        getNullnessAnalysis(state).getNullness(new TreePath(state.getPath(), expr), state.context);
+    TreePath exprPath = new TreePath(state.getPath(), expr);
+    Nullness nullness;
+    if (nullableParamHypothesis == null) {
+      nullness = getNullnessAnalysis(state).getNullness(exprPath, state.context);
+    } else {
+      int paramIndex =
+          ((Symbol.MethodSymbol) nullableParamHypothesis.owner)
+              .getParameters()
+              .indexOf(nullableParamHypothesis);
+      nullness =
+          getNullnessAnalysis(state)
+              .getNullnessAssumingNullableParam(exprPath, state.context, paramIndex);
+    }
     if (nullness == null) {
       // this may be unsound, like for field initializers
       // figure out if we care
@@ -2121,6 +2350,13 @@ public class NullAway extends BugChecker
     return NullabilityUtil.nullnessToBool(nullness);
   }
 
+  /**
+   * @return the configuration of this checker
+   */
+  public Config getConfig() {
+    return config;
+  }
+
   public AccessPathNullnessAnalysis getNullnessAnalysis(VisitorState state) {
     return AccessPathNullnessAnalysis.instance(state, nonAnnotatedMethod, config, this.handler);
   }
@@ -2306,6 +2542,7 @@ public class NullAway extends BugChecker
       return new AutoValue_NullAway_FieldInitEntities(
           classSymbol,
           ImmutableSet.copyOf(nonnullInstanceFields),
+          NonnullFieldIndex.create(nonnullInstanceFields),
           ImmutableSet.copyOf(nonnullStaticFields),
           ImmutableList.copyOf(instanceInitializerBlocks),
           ImmutableList.copyOf(staticInitializerBlocks),
@@ -2325,6 +2562,12 @@ public class NullAway extends BugChecker
      */
     abstract ImmutableSet<Symbol> nonnullInstanceFields();
 
+    /**
+     * @return numbering of {@link #nonnullInstanceFields()}, used to represent sets of these fields
+     *     as bitsets
+     */
+    abstract NonnullFieldIndex nonnullInstanceFieldIndex();
+
     /**
      * @return <code>@NonNull</code> static fields that are not directly initialized at declaration
      */
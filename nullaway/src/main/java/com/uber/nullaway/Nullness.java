@@ -18,9 +18,12 @@
 
 package com.uber.nullaway;
 
+import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Symbol;
-import java.util.stream.Stream;
-import javax.lang.model.element.AnnotationMirror;
+import com.sun.tools.javac.code.TargetType;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.List;
+import javax.annotation.Nullable;
 import org.checkerframework.nullaway.dataflow.analysis.AbstractValue;
 
 /**
@@ -128,18 +131,87 @@ public enum Nullness implements AbstractValue<Nullness> {
     return displayName;
   }
 
-  private static boolean hasNullableAnnotation(
-      Stream<? extends AnnotationMirror> annotations, Config config) {
-    return annotations
-        .map(anno -> anno.getAnnotationType().toString())
-        .anyMatch(anno -> isNullableAnnotation(anno, config));
+  /**
+   * Does any declaration annotation of {@code symbol}, or any type-use annotation of its type (of
+   * its return type, for methods), have nullness kind {@code kind}?
+   *
+   * <p>This is equivalent to checking {@link NullabilityUtil#getAllAnnotations(Symbol)}, but walks
+   * the javac lists directly, so that queries do not allocate. {@link
+   * Config#getVirtualAnnotations() Virtual} {@code @Nullable} annotations count as declaration
+   * annotations. If {@code context} is given, the kinds of annotation types are memoized in it.
+   */
+  private static boolean hasAnnotationOfKind(
+      Symbol symbol, int kind, Config config, @Nullable Context context) {
+    if (kind == AnnotationNullnessKinds.NULLABLE
+        && config.getVirtualAnnotations().isNullable(symbol, context)) {
+      return true;
+    }
+    AnnotationNullnessKinds kinds =
+        context == null ? null : AnnotationNullnessKinds.instance(context);
+    if (anyOfKind(symbol.getAnnotationMirrors(), kind, config, kinds)) {
+      return true;
+    }
+    boolean isMethod = symbol instanceof Symbol.MethodSymbol;
+    for (List<Attribute.TypeCompound> l = symbol.getRawTypeAttributes(); l.nonEmpty(); l = l.tail) {
+      Attribute.TypeCompound t = l.head;
+      // for methods, we want the type-use annotations on the return type
+      if ((!isMethod || t.position.type.equals(TargetType.METHOD_RETURN))
+          && (kindsOf(t, config, kinds) & kind) != 0) {
+        return true;
+      }
+    }
+    return false;
   }
 
-  private static boolean hasNonNullAnnotation(
-      Stream<? extends AnnotationMirror> annotations, Config config) {
-    return annotations
-        .map(anno -> anno.getAnnotationType().toString())
-        .anyMatch(anno -> isNonNullAnnotation(anno, config));
+  /**
+   * Allocation-free counterpart of checking {@link
+   * NullabilityUtil#getAllAnnotationsForParameter(Symbol.MethodSymbol, int)}.
+   */
+  private static boolean paramHasAnnotationOfKind(
+      Symbol.MethodSymbol symbol,
+      int paramInd,
+      int kind,
+      Config config,
+      @Nullable Context context) {
+    if (kind == AnnotationNullnessKinds.NULLABLE
+        && config.getVirtualAnnotations().isNullableParam(symbol, paramInd, context)) {
+      return true;
+    }
+    AnnotationNullnessKinds kinds =
+        context == null ? null : AnnotationNullnessKinds.instance(context);
+    Symbol.VarSymbol varSymbol = symbol.getParameters().get(paramInd);
+    if (anyOfKind(varSymbol.getAnnotationMirrors(), kind, config, kinds)) {
+      return true;
+    }
+    for (List<Attribute.TypeCompound> l = symbol.getRawTypeAttributes(); l.nonEmpty(); l = l.tail) {
+      Attribute.TypeCompound t = l.head;
+      if (t.position.type.equals(TargetType.METHOD_FORMAL_PARAMETER)
+          && t.position.parameter_index == paramInd
+          && (kindsOf(t, config, kinds) & kind) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean anyOfKind(
+      List<? extends Attribute.Compound> annotations,
+      int kind,
+      Config config,
+      @Nullable AnnotationNullnessKinds kinds) {
+    for (List<? extends Attribute.Compound> l = annotations; l.nonEmpty(); l = l.tail) {
+      if ((kindsOf(l.head, config, kinds) & kind) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int kindsOf(
+      Attribute.Compound annotation, Config config, @Nullable AnnotationNullnessKinds kinds) {
+    return kinds == null
+        ? AnnotationNullnessKinds.computeKinds(annotation, config)
+        : kinds.kindsOf(annotation, config);
   }
 
   /**
@@ -167,7 +239,7 @@ public enum Nullness implements AbstractValue<Nullness> {
    * @param annotName annotation name
    * @return true if we treat annotName as a <code>@NonNull</code> annotation, false otherwise
    */
-  private static boolean isNonNullAnnotation(String annotName, Config config) {
+  static boolean isNonNullAnnotation(String annotName, Config config) {
     return annotName.endsWith(".NonNull")
         || annotName.endsWith(".NotNull")
         || annotName.endsWith(".Nonnull")
@@ -184,7 +256,15 @@ public enum Nullness implements AbstractValue<Nullness> {
    * Config)}
    */
   public static boolean hasNonNullAnnotation(Symbol symbol, Config config) {
-    return hasNonNullAnnotation(NullabilityUtil.getAllAnnotations(symbol), config);
+    return hasAnnotationOfKind(symbol, AnnotationNullnessKinds.NONNULL, config, null);
+  }
+
+  /**
+   * Same as {@link #hasNonNullAnnotation(Symbol, Config)}, memoizing the kinds of annotation types
+   * in the javac context of the running compilation.
+   */
+  public static boolean hasNonNullAnnotation(Symbol symbol, Config config, Context context) {
+    return hasAnnotationOfKind(symbol, AnnotationNullnessKinds.NONNULL, config, context);
   }
 
   /**
@@ -195,7 +275,15 @@ public enum Nullness implements AbstractValue<Nullness> {
    * Config)}
    */
   public static boolean hasNullableAnnotation(Symbol symbol, Config config) {
-    return hasNullableAnnotation(NullabilityUtil.getAllAnnotations(symbol), config);
+    return hasAnnotationOfKind(symbol, AnnotationNullnessKinds.NULLABLE, config, null);
+  }
+
+  /**
+   * Same as {@link #hasNullableAnnotation(Symbol, Config)}, memoizing the kinds of annotation types
+   * in the javac context of the running compilation.
+   */
+  public static boolean hasNullableAnnotation(Symbol symbol, Config config, Context context) {
+    return hasAnnotationOfKind(symbol, AnnotationNullnessKinds.NULLABLE, config, context);
   }
 
   /**
@@ -204,8 +292,18 @@ public enum Nullness implements AbstractValue<Nullness> {
    */
   public static boolean paramHasNullableAnnotation(
       Symbol.MethodSymbol symbol, int paramInd, Config config) {
-    return hasNullableAnnotation(
-        NullabilityUtil.getAllAnnotationsForParameter(symbol, paramInd), config);
+    return paramHasAnnotationOfKind(
+        symbol, paramInd, AnnotationNullnessKinds.NULLABLE, config, null);
+  }
+
+  /**
+   * Same as {@link #paramHasNullableAnnotation(Symbol.MethodSymbol, int, Config)}, memoizing the
+   * kinds of annotation types in the javac context of the running compilation.
+   */
+  public static boolean paramHasNullableAnnotation(
+      Symbol.MethodSymbol symbol, int paramInd, Config config, Context context) {
+    return paramHasAnnotationOfKind(
+        symbol, paramInd, AnnotationNullnessKinds.NULLABLE, config, context);
   }
 
   /**
@@ -214,7 +312,17 @@ public enum Nullness implements AbstractValue<Nullness> {
    */
   public static boolean paramHasNonNullAnnotation(
       Symbol.MethodSymbol symbol, int paramInd, Config config) {
-    return hasNonNullAnnotation(
-        NullabilityUtil.getAllAnnotationsForParameter(symbol, paramInd), config);
+    return paramHasAnnotationOfKind(
+        symbol, paramInd, AnnotationNullnessKinds.NONNULL, config, null);
+  }
+
+  /**
+   * Same as {@link #paramHasNonNullAnnotation(Symbol.MethodSymbol, int, Config)}, memoizing the
+   * kinds of annotation types in the javac context of the running compilation.
+   */
+  public static boolean paramHasNonNullAnnotation(
+      Symbol.MethodSymbol symbol, int paramInd, Config config, Context context) {
+    return paramHasAnnotationOfKind(
+        symbol, paramInd, AnnotationNullnessKinds.NONNULL, config, context);
   }
 }
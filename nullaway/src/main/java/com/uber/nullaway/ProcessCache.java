@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide registry of immutable structures that are expensive to build and do not depend on
+ * the code being compiled, e.g., the parsed {@link Config} for a set of flags, or the library
+ * models found on the processor path.
+ *
+ * <p>javac, and thus NullAway, may run many times in a single long-lived JVM (e.g., a Gradle
+ * compiler daemon), and each compilation creates a new {@link NullAway} instance. Structures stored
+ * here are built once and reused by all compilations in the process that load NullAway through the
+ * same class loader and use an equal key (which should fingerprint any configuration the structure
+ * depends on).
+ *
+ * <p>Entries are scoped to the class loader of NullAway and of the models: models are discovered
+ * via {@link java.util.ServiceLoader} on that class loader, so they cannot change while it is
+ * alive. Build tools create a new class loader when the jars on the processor path change, at
+ * which point entries for the old class loader are no longer reachable and are garbage collected
+ * along with it.
+ *
+ * <p>Only immutable (or effectively immutable, i.e., never mutated after construction) values must
+ * be stored here, as they may be shared by concurrent compilations. Mutable, per-compilation state
+ * belongs in a {@link com.sun.tools.javac.util.Context}, as usual.
+ */
+public final class ProcessCache {
+
+  private static final Cache<ClassLoader, ConcurrentMap<Object, Object>> ENTRIES_BY_LOADER =
+      CacheBuilder.newBuilder().weakKeys().build();
+
+  private ProcessCache() {}
+
+  /**
+   * Get the value for {@code key}, building it with {@code factory} if this is the first request
+   * for {@code key} in this process (for {@code loader}).
+   *
+   * <p>{@code factory} is not invoked while holding any lock, so it may itself use this cache. If
+   * two compilations race on the same key, both values are built but only the first one stored is
+   * ever returned.
+   *
+   * @param loader class loader from which the value (e.g., its models) is loaded
+   * @param key key for the value, including a fingerprint of anything the value depends on; must
+   *     implement {@code equals} and {@code hashCode}
+   * @param type type of the value
+   * @param factory builds the value, if not present
+   * @param <T> type of the value
+   * @return the shared value for {@code key}
+   */
+  public static <T> T get(ClassLoader loader, Object key, Class<T> type, Supplier<T> factory) {
+    ConcurrentMap<Object, Object> entries;
+    try {
+      entries = ENTRIES_BY_LOADER.get(loader, ConcurrentHashMap::new);
+    } catch (ExecutionException e) {
+      // ConcurrentHashMap::new cannot throw a checked exception
+      throw new IllegalStateException(e);
+    }
+    Object value = entries.get(key);
+    if (value == null) {
+      T newValue = factory.get();
+      value = entries.putIfAbsent(key, newValue);
+      if (value == null) {
+        value = newValue;
+      }
+    }
+    return type.cast(value);
+  }
+
+  /**
+   * Drop all entries, so that they are rebuilt on next use. Needed only if a resource underlying
+   * some entry may change while its class loader is alive, e.g., in tests.
+   */
+  public static void invalidateAll() {
+    ENTRIES_BY_LOADER.invalidateAll();
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway;
+
+import com.google.common.collect.ImmutableMap;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.tools.javac.api.MultiTaskListener;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Log;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Profiling output (see {@link Config#printProfilingOutput()}): counters registered by parts of
+ * NullAway, such as the number of entries their data structures retain, printed when the
+ * compilation ends.
+ *
+ * <p>We ensure there is one instance per context (as opposed to using static fields) to avoid
+ * memory leaks. Only created when profiling output is enabled.
+ */
+public final class Profiling {
+
+  private static final Context.Key<Profiling> PROFILING_KEY = new Context.Key<>();
+
+  /** counters by name, in registration order */
+  private final Map<String, LongSupplier> counters = new LinkedHashMap<>();
+
+  private Profiling(Context context) {
+    Log log = Log.instance(context);
+    // we compare by name since TaskEvent.Kind.COMPILATION does not exist on JDK 8, where nothing
+    // is printed; the counters can still be read with getCounters()
+    MultiTaskListener.instance(context)
+        .add(
+            new TaskListener() {
+              @Override
+              public void finished(TaskEvent e) {
+                if (e.getKind().name().equals("COMPILATION") && !counters.isEmpty()) {
+                  log.printRawLines(Log.WriterKind.NOTICE, format());
+                }
+              }
+            });
+  }
+
+  /**
+   * Get the profiling output of the given javac context. Must only be called if {@link
+   * Config#printProfilingOutput()} is set.
+   */
+  public static Profiling instance(Context context) {
+    Profiling instance = context.get(PROFILING_KEY);
+    if (instance == null) {
+      instance = new Profiling(context);
+      context.put(PROFILING_KEY, instance);
+    }
+    return instance;
+  }
+
+  /**
+   * Registers a counter, replacing any previous counter with the same name.
+   *
+   * @param name name of the counter, as printed
+   * @param counter reads the current value of the counter
+   */
+  public void register(String name, LongSupplier counter) {
+    counters.put(name, counter);
+  }
+
+  /**
+   * @return the current values of all registered counters, in registration order
+   */
+  public ImmutableMap<String, Long> getCounters() {
+    ImmutableMap.Builder<String, Long> result = ImmutableMap.builder();
+    for (Map.Entry<String, LongSupplier> counter : counters.entrySet()) {
+      result.put(counter.getKey(), counter.getValue().getAsLong());
+    }
+    return result.build();
+  }
+
+  private String format() {
+    StringBuilder result = new StringBuilder("NullAway profiling:");
+    for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+      result.append("\n  ").append(counter.getKey()).append(": ").append(counter.getValue());
+    }
+    return result.toString();
+  }
+}
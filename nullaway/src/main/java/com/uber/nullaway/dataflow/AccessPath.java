@@ -32,7 +32,7 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Type;
-import com.uber.nullaway.NullabilityUtil;
+import com.uber.nullaway.MapMethods;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -549,16 +549,16 @@ public final class AccessPath implements MapKey {
   }
 
   private static boolean isMapGet(Symbol.MethodSymbol symbol, VisitorState state) {
-    return NullabilityUtil.isMapMethod(symbol, state, "get", 1);
+    return MapMethods.instance(state.context).kindOf(symbol, state) == MapMethods.Kind.GET;
   }
 
   public static boolean isContainsKey(Symbol.MethodSymbol symbol, VisitorState state) {
-    return NullabilityUtil.isMapMethod(symbol, state, "containsKey", 1);
+    return MapMethods.instance(state.context).kindOf(symbol, state)
+        == MapMethods.Kind.CONTAINS_KEY;
   }
 
   public static boolean isMapPut(Symbol.MethodSymbol symbol, VisitorState state) {
-    return NullabilityUtil.isMapMethod(symbol, state, "put", 2)
-        || NullabilityUtil.isMapMethod(symbol, state, "putIfAbsent", 2);
+    return MapMethods.instance(state.context).kindOf(symbol, state) == MapMethods.Kind.PUT;
   }
 
   /**
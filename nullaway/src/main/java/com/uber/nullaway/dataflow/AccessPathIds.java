@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.dataflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+
+/**
+ * Assigns dense int ids to {@link AccessPath}s, so that a {@link NullnessStore} can keep its facts
+ * in arrays indexed by id.
+ *
+ * <p>An instance is shared by a store and all stores derived from it (through {@link
+ * NullnessStore#toBuilder()}, joins and filtering), which within a dataflow analysis means all of
+ * its stores, so that joins and comparisons can work on whole words. Ids are never removed, so
+ * instances only grow; they are dropped along with the last store using them.
+ *
+ * <p>Along with the ids, we index paths by root variable and by a few shapes that stores are
+ * queried for, as {@link IdMask}s in the same layout as the presence words of a store. Since the
+ * table is shared, each index is built once per analysis as ids get assigned, and a query on a
+ * store is a bitwise {@code &} of its presence words with the index, visiting only the matches.
+ *
+ * <p>Not thread-safe; a dataflow analysis and its stores are confined to one thread.
+ */
+final class AccessPathIds {
+
+  private final Map<AccessPath, Integer> idsByPath = new HashMap<>();
+
+  private final List<AccessPath> paths = new ArrayList<>();
+
+  /** ids of the paths rooted at each variable (excluding {@code this}) */
+  private final Map<Element, IdMask> idsByRoot = new HashMap<>();
+
+  /** ids of the paths of the form {@code this.f}, for a field {@code f} */
+  private final IdMask receiverFieldIds = new IdMask();
+
+  /** ids of the paths rooted at a (static) field */
+  private final IdMask fieldRootedIds = new IdMask();
+
+  /** ids of the paths whose map-get argument is an {@link AccessPath.IteratorContentsKey} */
+  private final IdMask iteratorContentsKeyIds = new IdMask();
+
+  /** caps on the facts recorded by stores using this table, if any */
+  @Nullable private final AccessPathLimits limits;
+
+  AccessPathIds() {
+    this(null);
+  }
+
+  AccessPathIds(@Nullable AccessPathLimits limits) {
+    this.limits = limits;
+  }
+
+  /**
+   * @return caps on the facts recorded by stores using this table, or {@code null} if unbounded
+   */
+  @Nullable
+  AccessPathLimits getLimits() {
+    return limits;
+  }
+
+  /**
+   * @param path an access path
+   * @return the id of {@code path}, or {@code -1} if it has none
+   */
+  int idOf(AccessPath path) {
+    Integer id = idsByPath.get(path);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * @param path an access path
+   * @return the id of {@code path}, assigning the next free id if it has none
+   */
+  int getOrCreateId(AccessPath path) {
+    Integer id = idsByPath.get(path);
+    if (id == null) {
+      id = paths.size();
+      idsByPath.put(path, id);
+      paths.add(path);
+      index(path, id);
+    }
+    return id;
+  }
+
+  /**
+   * @param id an id assigned by this object
+   * @return the access path with that id
+   */
+  AccessPath pathOf(int id) {
+    return paths.get(id);
+  }
+
+  /**
+   * @param root a variable
+   * @return ids of the paths rooted at {@code root}, or {@code null} if there are none
+   */
+  @Nullable
+  IdMask idsRootedAt(Element root) {
+    return idsByRoot.get(root);
+  }
+
+  /**
+   * @return ids of the paths of the form {@code this.f}, for a field {@code f}
+   */
+  IdMask receiverFieldIds() {
+    return receiverFieldIds;
+  }
+
+  /**
+   * @return ids of the paths rooted at a (static) field
+   */
+  IdMask fieldRootedIds() {
+    return fieldRootedIds;
+  }
+
+  /**
+   * @return ids of the paths whose map-get argument is an {@link AccessPath.IteratorContentsKey}
+   */
+  IdMask iteratorContentsKeyIds() {
+    return iteratorContentsKeyIds;
+  }
+
+  private void index(AccessPath path, int id) {
+    AccessPath.Root root = path.getRoot();
+    if (root.isReceiver()) {
+      if (path.getElements().size() == 1
+          && path.getElements().get(0).getJavaElement().getKind().equals(ElementKind.FIELD)) {
+        receiverFieldIds.add(id);
+      }
+    } else {
+      Element varElement = root.getVarElement();
+      idsByRoot.computeIfAbsent(varElement, k -> new IdMask()).add(id);
+      if (varElement.getKind().equals(ElementKind.FIELD)) {
+        fieldRootedIds.add(id);
+      }
+    }
+    if (path.getMapGetArg() instanceof AccessPath.IteratorContentsKey) {
+      iteratorContentsKeyIds.add(id);
+    }
+  }
+
+  /**
+   * A set of ids, with two bits per id like the presence words of a {@link NullnessStore}, so it
+   * can be intersected with them word by word.
+   */
+  static final class IdMask {
+
+    private long[] words = new long[0];
+
+    private void add(int id) {
+      int word = NullnessStore.wordOf(id);
+      if (word >= words.length) {
+        words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+      }
+      words[word] |= 3L << NullnessStore.shiftOf(id);
+    }
+
+    /**
+     * @param word index of a word
+     * @return the bits of the ids in the word, or 0 if the word is past the end of the mask
+     */
+    long word(int word) {
+      return word < words.length ? words[word] : 0;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.dataflow;
+
+import com.uber.nullaway.Config;
+import javax.lang.model.element.ElementKind;
+
+/**
+ * Caps on the access paths tracked by a dataflow analysis, protecting it from pathological code
+ * (deep builder chains, long call chains, maps with many constant keys), where the number of
+ * distinct access paths, and hence the cost of joins, would otherwise blow up. See {@link
+ * Config#getMaxAccessPathLength()} and {@link Config#getMaxStoreEntries()}.
+ *
+ * <p>When a cap is hit, the fact is not recorded in the store. Reads of field and method call
+ * access paths without a fact fall back to the declared nullness of the field or method return,
+ * and a store fact can only refine a declared {@code @Nullable} to non-null, so this only trades
+ * precision (possibly extra warnings) for speed. Access paths of plain locals and parameters are
+ * exempt, since there is no declared nullness for them to fall back to.
+ *
+ * <p>Also counts how often facts were dropped, so users can tell whether the caps cost precision.
+ */
+public final class AccessPathLimits {
+
+  private final int maxAccessPathLength;
+
+  private final int maxStoreEntries;
+
+  private long numDroppedForPathLength;
+
+  private long numDroppedForStoreSize;
+
+  AccessPathLimits(Config config) {
+    this.maxAccessPathLength = config.getMaxAccessPathLength();
+    this.maxStoreEntries = config.getMaxStoreEntries();
+  }
+
+  /**
+   * @return true if no cap is configured
+   */
+  boolean isUnbounded() {
+    return maxAccessPathLength == 0 && maxStoreEntries == 0;
+  }
+
+  /**
+   * Decides whether a new fact may be recorded in a store, and counts it if not.
+   *
+   * @param ap an access path without a fact in the store
+   * @param storeSize number of entries in the store
+   * @return true if the fact should be recorded
+   */
+  boolean admitNewFact(AccessPath ap, int storeSize) {
+    if (isLocalOrParameter(ap)) {
+      return true;
+    }
+    if (maxAccessPathLength > 0 && ap.getElements().size() > maxAccessPathLength) {
+      numDroppedForPathLength++;
+      return false;
+    }
+    if (maxStoreEntries > 0 && storeSize >= maxStoreEntries) {
+      numDroppedForStoreSize++;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return true if a store size cap is configured
+   */
+  boolean limitsStoreSize() {
+    return maxStoreEntries > 0;
+  }
+
+  /**
+   * @return number of facts not recorded because their access path was too long
+   */
+  public long getNumDroppedForPathLength() {
+    return numDroppedForPathLength;
+  }
+
+  /**
+   * @return number of facts not recorded because their store was full
+   */
+  public long getNumDroppedForStoreSize() {
+    return numDroppedForStoreSize;
+  }
+
+  private static boolean isLocalOrParameter(AccessPath ap) {
+    AccessPath.Root root = ap.getRoot();
+    return !root.isReceiver()
+        && ap.getElements().isEmpty()
+        && ap.getMapGetArg() == null
+        && !root.getVarElement().getKind().equals(ElementKind.FIELD);
+  }
+}
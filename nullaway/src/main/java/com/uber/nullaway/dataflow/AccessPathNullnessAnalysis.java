@@ -19,17 +19,19 @@
 package com.uber.nullaway.dataflow;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import com.google.errorprone.VisitorState;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.Config;
+import com.uber.nullaway.NullabilityUtil;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.handlers.Handler;
 import com.uber.nullaway.handlers.contract.ContractNullnessStoreInitializer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import javax.annotation.Nullable;
@@ -57,18 +59,36 @@ public final class AccessPathNullnessAnalysis {
 
   private final DataFlow dataFlow;
 
+  private final AccessPathLimits accessPathLimits;
+
   @Nullable private AccessPathNullnessPropagation contractNullnessPropagation;
 
+  /** Propagations assuming the parameter at each index is {@code @Nullable}, created lazily. */
+  private final List<AccessPathNullnessPropagation> nullableParamPropagations = new ArrayList<>();
+
+  private final Predicate<MethodInvocationNode> methodReturnsNonNull;
+
+  private final VisitorState state;
+
+  private final Config config;
+
+  private final Handler handler;
+
   // Use #instance to instantiate
   private AccessPathNullnessAnalysis(
       Predicate<MethodInvocationNode> methodReturnsNonNull,
       VisitorState state,
       Config config,
       Handler handler) {
+    this.methodReturnsNonNull = methodReturnsNonNull;
+    this.state = state;
+    this.config = config;
+    this.handler = handler;
     apContext =
         AccessPath.AccessPathContext.builder()
             .setImmutableTypes(handler.onRegisterImmutableTypes())
             .build();
+    this.accessPathLimits = new AccessPathLimits(config);
     this.nullnessPropagation =
         new AccessPathNullnessPropagation(
             Nullness.NONNULL,
@@ -77,7 +97,8 @@ public final class AccessPathNullnessAnalysis {
             apContext,
             config,
             handler,
-            new CoreNullnessStoreInitializer());
+            new CoreNullnessStoreInitializer(),
+            accessPathLimits);
     this.dataFlow = new DataFlow(config.assertsEnabled());
 
     if (config.checkContracts()) {
@@ -89,7 +110,8 @@ public final class AccessPathNullnessAnalysis {
               apContext,
               config,
               handler,
-              new ContractNullnessStoreInitializer());
+              new ContractNullnessStoreInitializer(),
+              accessPathLimits);
     }
   }
 
@@ -141,6 +163,36 @@ public final class AccessPathNullnessAnalysis {
     return dataFlow.expressionDataflow(exprPath, context, contractNullnessPropagation);
   }
 
+  /**
+   * Get an expression's nullness info, assuming the parameter at {@code paramIndex} of the
+   * enclosing method is {@code @Nullable}. Only the dataflow of the enclosing method is affected;
+   * for expressions within lambdas or initializers, this is the same as {@link
+   * #getNullness(TreePath, Context)}.
+   *
+   * @param exprPath tree path of expression
+   * @param context Javac context
+   * @param paramIndex index of the parameter assumed to be {@code @Nullable}
+   * @return nullness info for expression, from dataflow under that assumption
+   */
+  @Nullable
+  public Nullness getNullnessAssumingNullableParam(
+      TreePath exprPath, Context context, int paramIndex) {
+    while (nullableParamPropagations.size() <= paramIndex) {
+      nullableParamPropagations.add(
+          new AccessPathNullnessPropagation(
+              Nullness.NONNULL,
+              methodReturnsNonNull,
+              state,
+              apContext,
+              config,
+              handler,
+              new NullableParamStoreInitializer(nullableParamPropagations.size()),
+              accessPathLimits));
+    }
+    return dataFlow.expressionDataflow(
+        exprPath, context, nullableParamPropagations.get(paramIndex));
+  }
+
   /**
    * Get the fields that are guaranteed to be nonnull after a method or initializer block.
    *
@@ -158,19 +210,56 @@ public final class AccessPathNullnessAnalysis {
     return getNonnullReceiverFields(nullnessResult);
   }
 
+  /**
+   * Like {@link #getNonnullFieldsOfReceiverAtExit(TreePath, Context)}, but reads the exit store
+   * from a retained method result, without touching the dataflow caches.
+   *
+   * @param handle handle obtained from {@link #retainResultForMethod(TreePath, Context)}
+   * @return fields guaranteed to be nonnull at exit of method (or initializer block)
+   */
+  public Set<Element> getNonnullFieldsOfReceiverAtExit(MethodAnalysisHandle handle) {
+    NullnessStore nullnessResult = handle.getExitStore();
+    if (nullnessResult == null) {
+      // see above
+      return Collections.emptySet();
+    }
+    return getNonnullReceiverFields(nullnessResult);
+  }
+
+  /**
+   * Runs the analysis on the method (or lambda, or initializer block) at the given TreePath, if it
+   * has not run already, and retains its result until {@link #release(MethodAnalysisHandle)}.
+   *
+   * <p>Field initialization checking needs the exit store of constructors and initializers well
+   * before the checker visits their bodies and queries the same dataflow result for dereference
+   * checking. Retaining the result in between guarantees dataflow runs only once per method, even
+   * if the size-bounded caches evict it.
+   *
+   * @param methodPath tree path of the method (or lambda, or initializer block) to analyze
+   * @param context Javac context
+   * @return handle on the retained result
+   */
+  public MethodAnalysisHandle retainResultForMethod(TreePath methodPath, Context context) {
+    NullnessStore exitStore = dataFlow.retain(methodPath, context, nullnessPropagation);
+    return new MethodAnalysisHandle(methodPath.getLeaf(), exitStore);
+  }
+
+  /**
+   * Release a result retained by {@link #retainResultForMethod(TreePath, Context)}. Later queries
+   * on the method may re-run the analysis, if its result has been evicted from the caches.
+   *
+   * @param handle handle on the retained result
+   */
+  public void release(MethodAnalysisHandle handle) {
+    dataFlow.release(handle.getMethodTree(), nullnessPropagation);
+  }
+
   private Set<Element> getNonnullReceiverFields(NullnessStore nullnessResult) {
-    Set<AccessPath> nonnullAccessPaths = nullnessResult.getAccessPathsWithValue(Nullness.NONNULL);
+    Set<AccessPath> nonnullAccessPaths =
+        nullnessResult.getReceiverFieldAccessPathsWithValue(Nullness.NONNULL);
     Set<Element> result = new LinkedHashSet<>();
     for (AccessPath ap : nonnullAccessPaths) {
-      if (ap.getRoot().isReceiver()) {
-        ImmutableList<AccessPathElement> elements = ap.getElements();
-        if (elements.size() == 1) {
-          Element elem = elements.get(0).getJavaElement();
-          if (elem.getKind().equals(ElementKind.FIELD)) {
-            result.add(elem);
-          }
-        }
-      }
+      result.add(ap.getElements().get(0).getJavaElement());
     }
     return result;
   }
@@ -218,19 +307,58 @@ public final class AccessPathNullnessAnalysis {
     if (store == null) {
       return NullnessStore.empty();
     }
-    return store.filterAccessPaths(
-        (ap) -> {
-          if (ap.getElements().size() == 0) {
-            AccessPath.Root root = ap.getRoot();
-            if (!root.isReceiver()) {
-              Element e = root.getVarElement();
-              return e.getKind().equals(ElementKind.PARAMETER)
-                  || e.getKind().equals(ElementKind.LOCAL_VARIABLE);
-            }
-          }
-
-          return handler.includeApInfoInSavedContext(ap, state);
-        });
+    return store.filterAccessPaths(savedContextFilter(state, handler));
+  }
+
+  /**
+   * Like {@link #getNullnessInfoBeforeNewContext(TreePath, VisitorState, Handler)}, but rather than
+   * returning a filtered copy of the store, records it in {@link EnclosingEnvironmentNullness} for
+   * the nested context at the leaf of {@code path}. Filtering is deferred until the dataflow
+   * analysis of the nested context first needs the store, and nested contexts at program points
+   * with equal stores within the same enclosing method share the filtered result.
+   *
+   * @param path tree path to a lambda or a local / anonymous class
+   * @param state visitor state
+   * @param handler handler deciding which non-local access paths to keep, via {@link
+   *     Handler#includeApInfoInSavedContext(AccessPath, VisitorState)}
+   */
+  public void saveNullnessInfoBeforeNewContext(
+      TreePath path, VisitorState state, Handler handler) {
+    TreePath enclosingPath = NullabilityUtil.findEnclosingMethodOrLambdaOrInitializer(path);
+    NullnessStore store = dataFlow.resultBefore(path, state.context, nullnessPropagation);
+    if (enclosingPath == null || store == null) {
+      EnclosingEnvironmentNullness.instance(state.context)
+          .addEnvironmentMapping(path.getLeaf(), NullnessStore.empty());
+      return;
+    }
+    // the filter may run after the visitor has moved on, so it gets a state pinned to path
+    EnclosingEnvironmentNullness.instance(state.context)
+        .addEnvironmentMapping(
+            path.getLeaf(),
+            enclosingPath.getLeaf(),
+            store,
+            savedContextFilter(state.withPath(path), handler));
+  }
+
+  /**
+   * Access paths saved for nested contexts: parameters and locals, plus whatever the handler asks
+   * for. The handler is passed {@code state}, so when the predicate is evaluated lazily, {@code
+   * state} must be pinned to the path of the nested context (see {@link
+   * VisitorState#withPath(TreePath)}) rather than be the visitor's current state.
+   */
+  private static Predicate<AccessPath> savedContextFilter(VisitorState state, Handler handler) {
+    return (ap) -> {
+      if (ap.getElements().size() == 0) {
+        AccessPath.Root root = ap.getRoot();
+        if (!root.isReceiver()) {
+          Element e = root.getVarElement();
+          return e.getKind().equals(ElementKind.PARAMETER)
+              || e.getKind().equals(ElementKind.LOCAL_VARIABLE);
+        }
+      }
+
+      return handler.includeApInfoInSavedContext(ap, state);
+    };
   }
 
   /**
@@ -300,14 +428,11 @@ public final class AccessPathNullnessAnalysis {
   }
 
   private Set<Element> getNonnullStaticFields(NullnessStore nullnessResult) {
-    Set<AccessPath> nonnullAccessPaths = nullnessResult.getAccessPathsWithValue(Nullness.NONNULL);
+    Set<AccessPath> nonnullAccessPaths =
+        nullnessResult.getFieldRootedAccessPathsWithValue(Nullness.NONNULL);
     Set<Element> result = new LinkedHashSet<>();
     for (AccessPath ap : nonnullAccessPaths) {
-      assert !ap.getRoot().isReceiver();
-      Element varElement = ap.getRoot().getVarElement();
-      if (varElement.getKind().equals(ElementKind.FIELD)) {
-        result.add(varElement);
-      }
+      result.add(ap.getRoot().getVarElement());
     }
     return result;
   }
@@ -357,15 +482,21 @@ public final class AccessPathNullnessAnalysis {
         AccessPath.fromBaseAndElement(exprNodes.iterator().next(), variableElement, apContext);
 
     if (store != null && ap != null) {
-      if (store.getAccessPathsWithValue(Nullness.NONNULL).stream()
-          .anyMatch(accessPath -> accessPath.equals(ap))) {
+      if (store.getNullnessOfAccessPath(ap).equals(Nullness.NONNULL)) {
         return Nullness.NONNULL;
       }
     }
     return Nullness.NULLABLE;
   }
 
-  /** invalidate all caches */
+  /**
+   * @return the caps on tracked access paths, along with counts of the facts they dropped
+   */
+  public AccessPathLimits getAccessPathLimits() {
+    return accessPathLimits;
+  }
+
+  /** invalidate all caches, including retained method results */
   public void invalidateCaches() {
     dataFlow.invalidateCaches();
   }
@@ -32,11 +32,14 @@ import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.code.TypeTag;
 import com.uber.nullaway.ClassAnnotationInfo;
 import com.uber.nullaway.Config;
+import com.uber.nullaway.MapMethods;
+import com.uber.nullaway.MethodSummaries;
 import com.uber.nullaway.NullabilityUtil;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.handlers.Handler;
 import com.uber.nullaway.handlers.Handler.NullnessHint;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
@@ -154,6 +157,19 @@ public class AccessPathNullnessPropagation
 
   private final NullnessStoreInitializer nullnessStoreInitializer;
 
+  private final AccessPathLimits accessPathLimits;
+
+  /** Marks nodes in {@link #accessPathsForNodes} that cannot be represented by an access path. */
+  private static final Object NOT_AN_ACCESS_PATH = new Object();
+
+  /**
+   * Access paths of the nodes visited by the current analysis run, or {@link #NOT_AN_ACCESS_PATH}.
+   * Transfer functions revisit the same nodes until a fixpoint is reached; computing the access
+   * path of a field access or method call walks its whole receiver chain, so we do it once per
+   * node. CFG nodes are compared by identity, and the memo is reset in {@link #initialStore}.
+   */
+  private final Map<Node, Object> accessPathsForNodes = new IdentityHashMap<>();
+
   public AccessPathNullnessPropagation(
       Nullness defaultAssumption,
       Predicate<MethodInvocationNode> methodReturnsNonNull,
@@ -161,7 +177,8 @@ public class AccessPathNullnessPropagation
       AccessPath.AccessPathContext apContext,
       Config config,
       Handler handler,
-      NullnessStoreInitializer nullnessStoreInitializer) {
+      NullnessStoreInitializer nullnessStoreInitializer,
+      AccessPathLimits accessPathLimits) {
     this.defaultAssumption = defaultAssumption;
     this.methodReturnsNonNull = methodReturnsNonNull;
     this.state = state;
@@ -169,6 +186,7 @@ public class AccessPathNullnessPropagation
     this.config = config;
     this.handler = handler;
     this.nullnessStoreInitializer = nullnessStoreInitializer;
+    this.accessPathLimits = accessPathLimits;
   }
 
   private static SubNodeValues values(final TransferInput<Nullness, NullnessStore> input) {
@@ -193,8 +211,14 @@ public class AccessPathNullnessPropagation
   @Override
   public NullnessStore initialStore(
       UnderlyingAST underlyingAST, List<LocalVariableNode> parameters) {
-    return nullnessStoreInitializer.getInitialStore(
-        underlyingAST, parameters, handler, state.context, state.getTypes(), config);
+    accessPathsForNodes.clear();
+    NullnessStore initialStore =
+        nullnessStoreInitializer.getInitialStore(
+            underlyingAST, parameters, handler, state.context, state.getTypes(), config);
+    // all stores of the analysis derive from the initial one, and inherit the limits from it
+    return accessPathLimits.isUnbounded()
+        ? initialStore
+        : initialStore.withLimits(accessPathLimits);
   }
 
   @Override
@@ -449,14 +473,14 @@ public class AccessPathNullnessPropagation
     Node realLeftNode = unwrapAssignExpr(leftNode);
     Node realRightNode = unwrapAssignExpr(rightNode);
 
-    AccessPath leftAP = AccessPath.getAccessPathForNodeWithMapGet(realLeftNode, state, apContext);
+    AccessPath leftAP = accessPathOf(realLeftNode);
     if (leftAP != null) {
       equalBranchUpdates.set(leftAP, equalBranchValue);
       notEqualBranchUpdates.set(
           leftAP, leftVal.greatestLowerBound(rightVal.deducedValueWhenNotEqual()));
     }
 
-    AccessPath rightAP = AccessPath.getAccessPathForNodeWithMapGet(realRightNode, state, apContext);
+    AccessPath rightAP = accessPathOf(realRightNode);
     if (rightAP != null) {
       equalBranchUpdates.set(rightAP, equalBranchValue);
       notEqualBranchUpdates.set(
@@ -618,8 +642,9 @@ public class AccessPathNullnessPropagation
     if (receiver instanceof MethodInvocationNode) {
       MethodInvocationNode baseInvocation = (MethodInvocationNode) receiver;
       // Check for a call to java.util.Map.keySet()
-      if (NullabilityUtil.isMapMethod(
-          ASTHelpers.getSymbol(baseInvocation.getTree()), state, "keySet", 0)) {
+      if (MapMethods.instance(state.context)
+              .kindOf(ASTHelpers.getSymbol(baseInvocation.getTree()), state)
+          == MapMethods.Kind.KEY_SET) {
         // receiver represents the map
         return baseInvocation.getTarget().getReceiver();
       }
@@ -656,12 +681,30 @@ public class AccessPathNullnessPropagation
    * the updates
    */
   private void setNonnullIfAnalyzeable(Updates updates, Node node) {
-    AccessPath ap = AccessPath.getAccessPathForNodeWithMapGet(node, state, apContext);
+    AccessPath ap = accessPathOf(node);
     if (ap != null) {
       updates.set(ap, NONNULL);
     }
   }
 
+  /**
+   * Memoized version of {@link AccessPath#getAccessPathForNodeWithMapGet(Node, VisitorState,
+   * AccessPath.AccessPathContext)}.
+   *
+   * @param node a CFG node of the code being analyzed
+   * @return the access path for {@code node}, or {@code null} if it has none
+   */
+  @Nullable
+  private AccessPath accessPathOf(Node node) {
+    Object result = accessPathsForNodes.get(node);
+    if (result == null) {
+      AccessPath accessPath = AccessPath.getAccessPathForNodeWithMapGet(node, state, apContext);
+      result = accessPath != null ? accessPath : NOT_AN_ACCESS_PATH;
+      accessPathsForNodes.put(node, result);
+    }
+    return result == NOT_AN_ACCESS_PATH ? null : (AccessPath) result;
+  }
+
   private static boolean hasPrimitiveType(Node node) {
     return node.getType().getKind().isPrimitive();
   }
@@ -714,7 +757,7 @@ public class AccessPathNullnessPropagation
     if (!NullabilityUtil.mayBeNullFieldFromType(symbol, config, getClassAnnotationInfo(state))) {
       nullness = NONNULL;
     } else {
-      nullness = input.getRegularStore().valueOfField(fieldAccessNode, nullness, apContext);
+      nullness = input.getRegularStore().valueOfAccessPath(accessPathOf(fieldAccessNode), nullness);
     }
     return updateRegularStore(nullness, input, updates);
   }
@@ -953,15 +996,17 @@ public class AccessPathNullnessPropagation
     } else if (node != null && returnValueNullnessHint == NullnessHint.HINT_NULLABLE) {
       // we have a model saying return value is nullable.
       // still, rely on dataflow fact if there is one available
-      nullness = input.getRegularStore().valueOfMethodCall(node, state, NULLABLE, apContext);
+      nullness = input.getRegularStore().valueOfAccessPath(accessPathOf(node), NULLABLE);
     } else if (node == null
         || methodReturnsNonNull.test(node)
-        || !Nullness.hasNullableAnnotation((Symbol) node.getTarget().getMethod(), config)) {
+        || !MethodSummaries.instance(state.context)
+            .get((Symbol.MethodSymbol) node.getTarget().getMethod())
+            .hasNullableReturn(config)) {
       // definite non-null return
       nullness = NONNULL;
     } else {
       // rely on dataflow, assuming nullable if no fact
-      nullness = input.getRegularStore().valueOfMethodCall(node, state, NULLABLE, apContext);
+      nullness = input.getRegularStore().valueOfAccessPath(accessPathOf(node), NULLABLE);
     }
     return nullness;
   }
@@ -1092,13 +1137,13 @@ public class AccessPathNullnessPropagation
 
     @Override
     public void set(FieldAccessNode node, Nullness value) {
-      AccessPath accessPath = AccessPath.fromFieldAccess(node, apContext);
+      AccessPath accessPath = accessPathOf(node);
       values.put(Preconditions.checkNotNull(accessPath), checkNotNull(value));
     }
 
     @Override
     public void set(MethodInvocationNode node, Nullness value) {
-      AccessPath path = AccessPath.fromMethodCall(node, state, apContext);
+      AccessPath path = accessPathOf(node);
       values.put(checkNotNull(path), value);
     }
 
@@ -65,7 +65,7 @@ class CoreNullnessStoreInitializer extends NullnessStoreInitializer {
     for (LocalVariableNode param : parameters) {
       Element element = param.getElement();
       Nullness assumed =
-          Nullness.hasNullableAnnotation((Symbol) element, config) ? NULLABLE : NONNULL;
+          Nullness.hasNullableAnnotation((Symbol) element, config, context) ? NULLABLE : NONNULL;
       result.setInformation(AccessPath.fromLocal(param), assumed);
     }
     result = handler.onDataflowInitialStore(underlyingAST, parameters, result);
@@ -104,7 +104,7 @@ class CoreNullnessStoreInitializer extends NullnessStoreInitializer {
       Nullness assumed;
       // we treat lambda parameters differently; they "inherit" the nullability of the
       // corresponding functional interface parameter, unless they are explicitly annotated
-      if (Nullness.hasNullableAnnotation((Symbol) element, config)) {
+      if (Nullness.hasNullableAnnotation((Symbol) element, config, context)) {
         assumed = NULLABLE;
       } else if (!NullabilityUtil.lambdaParamIsImplicitlyTyped(variableTree)) {
         // the parameter has a declared type with no @Nullable annotation
@@ -116,7 +116,7 @@ class CoreNullnessStoreInitializer extends NullnessStoreInitializer {
           assumed = nullableParamsFromHandler.contains(i) ? NULLABLE : NONNULL;
         } else {
           assumed =
-              Nullness.hasNullableAnnotation(fiMethodParameters.get(i), config)
+              Nullness.hasNullableAnnotation(fiMethodParameters.get(i), config, context)
                   ? NULLABLE
                   : NONNULL;
         }
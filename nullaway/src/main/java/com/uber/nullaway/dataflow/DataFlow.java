@@ -37,6 +37,8 @@ import com.sun.source.util.TreePath;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.NullabilityUtil;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.annotation.Nullable;
 import javax.annotation.processing.ProcessingEnvironment;
 import org.checkerframework.nullaway.dataflow.analysis.AbstractValue;
@@ -131,6 +133,48 @@ public final class DataFlow {
                 }
               });
 
+  /**
+   * Results pinned via {@link #retain(TreePath, Context, ForwardTransferFunction)}. These are
+   * consulted before the LRU caches above and are only dropped by an explicit {@link
+   * #release(Tree, ForwardTransferFunction)} or {@link #invalidateCaches()}. Keyed by the leaf of
+   * the code path (rather than the path itself), so that any path to the same method, lambda or
+   * initializer hits the retained result.
+   */
+  private final Map<RetainedKey, Result<?, ?, ?>> retainedResults = new LinkedHashMap<>();
+
+  /**
+   * Run the {@code transfer} dataflow analysis over the method, lambda or initializer which is the
+   * leaf of {@code path} (if not already run), and retain the result until {@link #release(Tree,
+   * ForwardTransferFunction)} is called for the same leaf and transfer function. While retained,
+   * all queries against that code use this result, regardless of evictions from the LRU caches.
+   *
+   * @param path path to method, lambda, or initializer
+   * @param context Javac context
+   * @param transfer transfer functions
+   * @param <A> values in abstraction
+   * @param <S> store type
+   * @param <T> transfer function type
+   * @return dataflow result at exit of the retained code
+   */
+  @Nullable
+  <A extends AbstractValue<A>, S extends Store<S>, T extends ForwardTransferFunction<A, S>>
+      S retain(TreePath path, Context context, T transfer) {
+    Result<A, S, T> result = dataflow(path, context, transfer);
+    retainedResults.put(RetainedKey.create(path.getLeaf(), transfer), result);
+    return result.getAnalysis().getRegularExitStore();
+  }
+
+  /**
+   * Drop a result previously pinned by {@link #retain(TreePath, Context,
+   * ForwardTransferFunction)}. Later queries fall back to the LRU caches.
+   *
+   * @param leaf the method, lambda, or initializer tree that was retained
+   * @param transfer transfer functions
+   */
+  void release(Tree leaf, ForwardTransferFunction<?, ?> transfer) {
+    retainedResults.remove(RetainedKey.create(leaf, transfer));
+  }
+
   /**
    * Run the {@code transfer} dataflow analysis over the method, lambda or initializer which is the
    * leaf of the {@code path}.
@@ -142,6 +186,14 @@ public final class DataFlow {
    */
   private <A extends AbstractValue<A>, S extends Store<S>, T extends ForwardTransferFunction<A, S>>
       Result<A, S, T> dataflow(TreePath path, Context context, T transfer) {
+    if (!retainedResults.isEmpty()) {
+      @SuppressWarnings("unchecked")
+      final Result<A, S, T> retained =
+          (Result<A, S, T>) retainedResults.get(RetainedKey.create(path.getLeaf(), transfer));
+      if (retained != null) {
+        return retained;
+      }
+    }
     final ProcessingEnvironment env = JavacProcessingEnvironment.instance(context);
     final ControlFlowGraph cfg = cfgCache.getUnchecked(CfgParams.create(path, env));
     final AnalysisParams aparams = AnalysisParams.create(transfer, cfg);
@@ -276,10 +328,11 @@ public final class DataFlow {
     return dataflow(enclosingPath, context, transfer).getAnalysis().getResult();
   }
 
-  /** clear the CFG and analysis caches */
+  /** clear the CFG and analysis caches, including any retained results */
   public void invalidateCaches() {
     cfgCache.invalidateAll();
     analysisCache.invalidateAll();
+    retainedResults.clear();
   }
 
   @AutoValue
@@ -314,6 +367,19 @@ public final class DataFlow {
     abstract ControlFlowGraph cfg();
   }
 
+  @AutoValue
+  abstract static class RetainedKey {
+
+    private static RetainedKey create(Tree leaf, ForwardTransferFunction<?, ?> transferFunction) {
+      return new AutoValue_DataFlow_RetainedKey(leaf, transferFunction);
+    }
+
+    // JCTree does not override equals, so this compares trees by identity
+    abstract Tree leaf();
+
+    abstract ForwardTransferFunction<?, ?> transferFunction();
+  }
+
   /** A pair of Analysis and ControlFlowGraph. */
   private interface Result<
       A extends AbstractValue<A>, S extends Store<S>, T extends TransferFunction<A, S>> {
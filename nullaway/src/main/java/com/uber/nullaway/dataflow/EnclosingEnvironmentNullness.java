@@ -6,21 +6,51 @@ import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.LambdaExpressionTree;
 import com.sun.source.tree.Tree;
 import com.sun.tools.javac.util.Context;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 import javax.lang.model.element.NestingKind;
 
 /**
  * Stores info on nullness of local variables in enclosing environments, used when performing
  * dataflow analysis on lambdas or methods in anonymous classes that may access these locals
+ *
+ * <p>Nested contexts declared at program points with equal enclosing stores (e.g., the lambdas of
+ * an Rx chain or a builder) share a single {@link Snapshot}. A snapshot keeps a reference to the
+ * unfiltered enclosing store, and only computes the filtered store the first time it is needed by
+ * the dataflow analysis of a nested context, after which the enclosing store is dropped.
  */
 public class EnclosingEnvironmentNullness {
 
   public static final Context.Key<EnclosingEnvironmentNullness>
       ENCLOSING_ENVIRONMENT_NULLNESS_ANALYSIS_KEY = new Context.Key<>();
 
-  private final Map<Tree, NullnessStore> environmentNullness = new LinkedHashMap<>();
+  private final Map<Tree, Snapshot> environmentNullness = new LinkedHashMap<>();
+
+  /**
+   * Snapshots created for nested contexts within {@link #currentEnclosingCode}, keyed by the
+   * contents of their enclosing store (the dataflow analysis computes a distinct but equal store
+   * for each program point where nothing new is learned), for sharing. Reset whenever the
+   * enclosing method / lambda / initializer changes, so that we retain unfiltered stores for at
+   * most one enclosing context at a time.
+   */
+  private final Map<NullnessStore, Snapshot> snapshotsForCurrentEnclosingCode = new HashMap<>();
+
+  @Nullable private Tree currentEnclosingCode;
+
+  /** Number of nested contexts whose environment was stored since this object was created. */
+  private int numSavedContexts;
+
+  /** Number of distinct snapshots created since this object was created. */
+  private int numSnapshots;
+
+  /** Number of access path entries held by live snapshots. */
+  private int retainedEntries;
+
+  /** Max value of {@link #retainedEntries} since this object was created. */
+  private int peakRetainedEntries;
 
   public static EnclosingEnvironmentNullness instance(Context context) {
     EnclosingEnvironmentNullness instance =
@@ -34,17 +64,88 @@ public class EnclosingEnvironmentNullness {
 
   public void addEnvironmentMapping(Tree t, NullnessStore s) {
     Preconditions.checkArgument(isValidTreeType(t), "cannot store environment for node " + t);
-    environmentNullness.put(t, s);
+    numSavedContexts++;
+    environmentNullness.put(t, newSnapshot(s, null));
+  }
+
+  /**
+   * Store the environment for a nested context, to be filtered lazily.
+   *
+   * @param t a lambda or a local / anonymous class
+   * @param enclosingCode the method, lambda, or initializer directly enclosing {@code t}
+   * @param enclosingStore nullness info just before {@code t}, unfiltered
+   * @param filter access paths of {@code enclosingStore} to keep in the environment of {@code t}
+   */
+  public void addEnvironmentMapping(
+      Tree t, Tree enclosingCode, NullnessStore enclosingStore, Predicate<AccessPath> filter) {
+    Preconditions.checkArgument(isValidTreeType(t), "cannot store environment for node " + t);
+    if (enclosingCode != currentEnclosingCode) {
+      snapshotsForCurrentEnclosingCode.clear();
+      currentEnclosingCode = enclosingCode;
+    }
+    Snapshot snapshot = snapshotsForCurrentEnclosingCode.get(enclosingStore);
+    if (snapshot == null) {
+      snapshot = newSnapshot(enclosingStore, filter);
+      snapshotsForCurrentEnclosingCode.put(enclosingStore, snapshot);
+    }
+    numSavedContexts++;
+    environmentNullness.put(t, snapshot);
   }
 
   @Nullable
   public NullnessStore getEnvironmentMapping(Tree t) {
     Preconditions.checkArgument(isValidTreeType(t));
-    return environmentNullness.get(t);
+    Snapshot snapshot = environmentNullness.get(t);
+    return snapshot == null ? null : snapshot.get();
   }
 
   public void clear() {
     environmentNullness.clear();
+    snapshotsForCurrentEnclosingCode.clear();
+    currentEnclosingCode = null;
+    retainedEntries = 0;
+  }
+
+  /**
+   * @return number of lambdas and local / anonymous classes whose environment was stored since
+   *     this object was created
+   */
+  public int getNumSavedContexts() {
+    return numSavedContexts;
+  }
+
+  /**
+   * @return number of distinct environment snapshots backing the saved contexts, since this object
+   *     was created
+   */
+  public int getNumSnapshots() {
+    return numSnapshots;
+  }
+
+  /**
+   * @return number of access path entries currently held by stored environments, as a proxy for
+   *     their heap footprint
+   */
+  public int getRetainedEntryCount() {
+    return retainedEntries;
+  }
+
+  /**
+   * @return the maximum of {@link #getRetainedEntryCount()} over the lifetime of this object
+   */
+  public int getPeakRetainedEntryCount() {
+    return peakRetainedEntries;
+  }
+
+  private Snapshot newSnapshot(NullnessStore store, @Nullable Predicate<AccessPath> filter) {
+    numSnapshots++;
+    updateRetainedEntries(store.size());
+    return new Snapshot(store, filter);
+  }
+
+  private void updateRetainedEntries(int delta) {
+    retainedEntries += delta;
+    peakRetainedEntries = Math.max(peakRetainedEntries, retainedEntries);
   }
 
   /** Is t an anonymous inner class or a lambda? */
@@ -58,4 +159,28 @@ public class EnclosingEnvironmentNullness {
     }
     return false;
   }
+
+  /** An environment store, possibly shared by several nested contexts and filtered on demand. */
+  private final class Snapshot {
+
+    private NullnessStore store;
+
+    /** non-null until {@link #store} has been filtered */
+    @Nullable private Predicate<AccessPath> filter;
+
+    Snapshot(NullnessStore store, @Nullable Predicate<AccessPath> filter) {
+      this.store = store;
+      this.filter = filter;
+    }
+
+    NullnessStore get() {
+      if (filter != null) {
+        NullnessStore filtered = store.filterAccessPaths(filter);
+        updateRetainedEntries(filtered.size() - store.size());
+        store = filtered;
+        filter = null;
+      }
+      return store;
+    }
+  }
 }
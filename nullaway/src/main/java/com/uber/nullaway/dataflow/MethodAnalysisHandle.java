@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.dataflow;
+
+import com.sun.source.tree.Tree;
+import javax.annotation.Nullable;
+
+/**
+ * A handle on the nullness analysis result for a single method (or lambda, or initializer block),
+ * obtained from {@link AccessPathNullnessAnalysis#retainResultForMethod}.
+ *
+ * <p>While the handle is live, every query on the analysis for code inside that method reuses the
+ * same dataflow run, independently of the size-bounded CFG / analysis caches. The holder is
+ * responsible for calling {@link AccessPathNullnessAnalysis#release(MethodAnalysisHandle)} once it
+ * is done with the method.
+ */
+public final class MethodAnalysisHandle {
+
+  private final Tree methodTree;
+
+  @Nullable private final NullnessStore exitStore;
+
+  MethodAnalysisHandle(Tree methodTree, @Nullable NullnessStore exitStore) {
+    this.methodTree = methodTree;
+    this.exitStore = exitStore;
+  }
+
+  /**
+   * @return the method, lambda, or initializer tree whose result is retained
+   */
+  public Tree getMethodTree() {
+    return methodTree;
+  }
+
+  /**
+   * @return the store at the regular exit of the method, or {@code null} if the method always
+   *     throws an exception
+   */
+  @Nullable
+  NullnessStore getExitStore() {
+    return exitStore;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.dataflow;
+
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.util.Context;
+import com.uber.nullaway.Config;
+import com.uber.nullaway.Nullness;
+import com.uber.nullaway.handlers.Handler;
+import java.util.List;
+import org.checkerframework.nullaway.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.nullaway.dataflow.cfg.node.LocalVariableNode;
+
+/**
+ * Initial store of the default dataflow analysis, except that the method parameter at a given index
+ * is {@code @Nullable}. Lambdas and initializers are unaffected. Used to evaluate the hypothesis
+ * that a parameter is {@code @Nullable}, see {@link
+ * AccessPathNullnessAnalysis#getNullnessAssumingNullableParam(com.sun.source.util.TreePath,
+ * Context, int)}.
+ */
+class NullableParamStoreInitializer extends NullnessStoreInitializer {
+
+  private final NullnessStoreInitializer delegate = new CoreNullnessStoreInitializer();
+
+  private final int paramIndex;
+
+  NullableParamStoreInitializer(int paramIndex) {
+    this.paramIndex = paramIndex;
+  }
+
+  @Override
+  public NullnessStore getInitialStore(
+      UnderlyingAST underlyingAST,
+      List<LocalVariableNode> parameters,
+      Handler handler,
+      Context context,
+      Types types,
+      Config config) {
+    NullnessStore result =
+        delegate.getInitialStore(underlyingAST, parameters, handler, context, types, config);
+    if (paramIndex >= parameters.size() || !(underlyingAST instanceof UnderlyingAST.CFGMethod)) {
+      return result;
+    }
+    return result
+        .toBuilder()
+        .setInformation(AccessPath.fromLocal(parameters.get(paramIndex)), Nullness.NULLABLE)
+        .build();
+  }
+}
@@ -17,20 +17,17 @@
 package com.uber.nullaway.dataflow;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Sets.intersection;
 
-import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.VisitorState;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.dataflow.AccessPath.IteratorContentsKey;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import javax.annotation.Nullable;
-import javax.lang.model.element.Element;
 import org.checkerframework.nullaway.dataflow.analysis.Store;
 import org.checkerframework.nullaway.dataflow.cfg.node.FieldAccessNode;
 import org.checkerframework.nullaway.dataflow.cfg.node.LocalVariableNode;
@@ -40,16 +37,47 @@ import org.checkerframework.nullaway.dataflow.expression.JavaExpression;
 
 /**
  * Highly based on {@link com.google.errorprone.dataflow.LocalStore}, but for {@link AccessPath}s.
+ *
+ * <p>Facts are packed into {@code long} words: each access path gets a dense id from an {@link
+ * AccessPathIds} table shared by all stores of a dataflow analysis, and each id owns two bits in
+ * {@link #present} (both set iff the store has a fact for the path) and two bits in {@link #values}
+ * (the fact, see {@link #encode(Nullness)}). With this encoding the join of two stores sharing an
+ * id table is a bitwise {@code &} of the presence words and a bitwise {@code |} of the value words,
+ * and comparing stores is a word-by-word comparison. Stores with different id tables (e.g., built
+ * independently from {@link #empty()}) are still supported, through per-path lookups.
  */
 public class NullnessStore implements Store<NullnessStore> {
 
-  private static final NullnessStore EMPTY = new NullnessStore(ImmutableMap.of());
+  private static final long[] NO_WORDS = new long[0];
+
+  private static final NullnessStore EMPTY = new NullnessStore(null, NO_WORDS, NO_WORDS);
+
+  /** Number of access path ids per word. */
+  private static final int IDS_PER_WORD = 32;
+
+  /** Nullness values indexed by their encoding, see {@link #encode(Nullness)}. */
+  private static final Nullness[] DECODE = {
+    Nullness.BOTTOM, Nullness.NULL, Nullness.NONNULL, Nullness.NULLABLE
+  };
 
-  private final ImmutableMap<AccessPath, Nullness> contents;
+  /** null only for {@link #EMPTY} */
+  @Nullable private final AccessPathIds ids;
 
-  private NullnessStore(Map<AccessPath, Nullness> contents) {
-    this.contents = ImmutableMap.copyOf(contents);
+  /** two bits per access path id, both set iff this store has a fact for that path */
+  private final long[] present;
+
+  /** two bits per access path id, holding the encoded fact for that path, or 0 if none */
+  private final long[] values;
+
+  /** cached {@link #hashCode()}, 0 if not computed yet */
+  private int hashCode;
+
+  private NullnessStore(@Nullable AccessPathIds ids, long[] present, long[] values) {
+    this.ids = ids;
+    this.present = present;
+    this.values = values;
   }
+
   /**
    * Produce an empty store.
    *
@@ -59,6 +87,57 @@ public class NullnessStore implements Store<NullnessStore> {
     return EMPTY;
   }
 
+  /**
+   * Encodes a nullness value in two bits, such that the least upper bound of two values is the
+   * bitwise or of their encodings, and the greatest lower bound is their bitwise and: {@code
+   * BOTTOM} is {@code 00}, {@code NULL} is {@code 01}, {@code NONNULL} is {@code 10} and {@code
+   * NULLABLE} is {@code 11}.
+   */
+  private static long encode(Nullness value) {
+    switch (value) {
+      case BOTTOM:
+        return 0;
+      case NULL:
+        return 1;
+      case NONNULL:
+        return 2;
+      case NULLABLE:
+        return 3;
+      default:
+        throw new AssertionError("Unexpected nullness value " + value);
+    }
+  }
+
+  static int wordOf(int id) {
+    return id / IDS_PER_WORD;
+  }
+
+  static int shiftOf(int id) {
+    return (id % IDS_PER_WORD) * 2;
+  }
+
+  @Nullable
+  private Nullness get(AccessPath accessPath) {
+    if (ids == null) {
+      return null;
+    }
+    int id = ids.idOf(accessPath);
+    return id < 0 ? null : get(id);
+  }
+
+  @Nullable
+  private Nullness get(int id) {
+    int word = wordOf(id);
+    if (word >= present.length) {
+      return null;
+    }
+    int shift = shiftOf(id);
+    if (((present[word] >>> shift) & 3L) == 0) {
+      return null;
+    }
+    return DECODE[(int) ((values[word] >>> shift) & 3L)];
+  }
+
   /**
    * Get the nullness for a local variable.
    *
@@ -67,7 +146,7 @@ public class NullnessStore implements Store<NullnessStore> {
    * @return fact associated with local
    */
   public Nullness valueOfLocalVariable(LocalVariableNode node, Nullness defaultValue) {
-    Nullness result = contents.get(AccessPath.fromLocal(node));
+    Nullness result = get(AccessPath.fromLocal(node));
     return result != null ? result : defaultValue;
   }
 
@@ -80,12 +159,7 @@ public class NullnessStore implements Store<NullnessStore> {
    */
   public Nullness valueOfField(
       FieldAccessNode node, Nullness defaultValue, AccessPath.AccessPathContext apContext) {
-    AccessPath path = AccessPath.fromFieldAccess(node, apContext);
-    if (path == null) {
-      return defaultValue;
-    }
-    Nullness result = contents.get(path);
-    return result != null ? result : defaultValue;
+    return valueOfAccessPath(AccessPath.fromFieldAccess(node, apContext), defaultValue);
   }
 
   /**
@@ -100,11 +174,21 @@ public class NullnessStore implements Store<NullnessStore> {
       VisitorState state,
       Nullness defaultValue,
       AccessPath.AccessPathContext apContext) {
-    AccessPath accessPath = AccessPath.fromMethodCall(node, state, apContext);
+    return valueOfAccessPath(AccessPath.fromMethodCall(node, state, apContext), defaultValue);
+  }
+
+  /**
+   * Get the nullness of an access path already computed by the caller.
+   *
+   * @param accessPath the access path, or {@code null} if the expression has none
+   * @param defaultValue default value if we have no fact
+   * @return fact associated with the access path
+   */
+  Nullness valueOfAccessPath(@Nullable AccessPath accessPath, Nullness defaultValue) {
     if (accessPath == null) {
       return defaultValue;
     }
-    Nullness result = contents.get(accessPath);
+    Nullness result = get(accessPath);
     return result != null ? result : defaultValue;
   }
 
@@ -115,10 +199,62 @@ public class NullnessStore implements Store<NullnessStore> {
    * @return all access paths in this store that have the given nullness value
    */
   public Set<AccessPath> getAccessPathsWithValue(Nullness value) {
+    return accessPathsWithValue(value, null);
+  }
+
+  /**
+   * Get the access paths of the form {@code this.f} in this store, for fields {@code f}, with a
+   * particular nullness value.
+   *
+   * @param value a nullness value
+   * @return the receiver field access paths in this store that have the given nullness value
+   */
+  Set<AccessPath> getReceiverFieldAccessPathsWithValue(Nullness value) {
+    if (ids == null) {
+      return new LinkedHashSet<>();
+    }
+    return accessPathsWithValue(value, ids.receiverFieldIds());
+  }
+
+  /**
+   * Get the access paths rooted at a (static) field in this store, with a particular nullness
+   * value.
+   *
+   * @param value a nullness value
+   * @return the field-rooted access paths in this store that have the given nullness value
+   */
+  Set<AccessPath> getFieldRootedAccessPathsWithValue(Nullness value) {
+    if (ids == null) {
+      return new LinkedHashSet<>();
+    }
+    return accessPathsWithValue(value, ids.fieldRootedIds());
+  }
+
+  /**
+   * Access paths in this store with nullness {@code value}, restricted to {@code mask} if it is not
+   * null, in id order. Matching ids are found a word at a time, so the cost is proportional to the
+   * number of words plus the size of the result, rather than to the size of the store.
+   */
+  private Set<AccessPath> accessPathsWithValue(
+      Nullness value, @Nullable AccessPathIds.IdMask mask) {
     Set<AccessPath> result = new LinkedHashSet<>();
-    for (Map.Entry<AccessPath, Nullness> entry : contents.entrySet()) {
-      if (value.equals(entry.getValue())) {
-        result.add(entry.getKey());
+    if (ids == null) {
+      return result;
+    }
+    // the encoding of value, repeated for every id of a word
+    long pattern = encode(value) * 0x5555555555555555L;
+    for (int word = 0; word < present.length; word++) {
+      long candidates = mask == null ? present[word] : present[word] & mask.word(word);
+      if (candidates == 0) {
+        continue;
+      }
+      long differences = values[word] ^ pattern;
+      long lowBitsOfEqualPairs = ~(differences | (differences >>> 1)) & 0x5555555555555555L;
+      long remaining = candidates & (lowBitsOfEqualPairs | (lowBitsOfEqualPairs << 1));
+      while (remaining != 0) {
+        int shift = Long.numberOfTrailingZeros(remaining);
+        result.add(ids.pathOf(word * IDS_PER_WORD + shift / 2));
+        remaining &= ~(3L << shift);
       }
     }
     return result;
@@ -131,17 +267,26 @@ public class NullnessStore implements Store<NullnessStore> {
    */
   @Nullable
   public AccessPath getMapGetIteratorContentsAccessPath(LocalVariableNode iteratorVar) {
-    for (AccessPath accessPath : contents.keySet()) {
-      MapKey mapGetArg = accessPath.getMapGetArg();
-      if (mapGetArg instanceof IteratorContentsKey) {
-        IteratorContentsKey iteratorContentsKey = (IteratorContentsKey) mapGetArg;
+    if (ids == null) {
+      return null;
+    }
+    AccessPathIds.IdMask mask = ids.iteratorContentsKeyIds();
+    for (int word = 0; word < present.length; word++) {
+      long remaining = present[word] & mask.word(word);
+      while (remaining != 0) {
+        int shift = Long.numberOfTrailingZeros(remaining);
+        AccessPath accessPath = ids.pathOf(word * IDS_PER_WORD + shift / 2);
+        IteratorContentsKey iteratorContentsKey =
+            (IteratorContentsKey) checkNotNull(accessPath.getMapGetArg());
         if (iteratorContentsKey.getIteratorVarElement().equals(iteratorVar.getElement())) {
           return accessPath;
         }
+        remaining &= ~(3L << shift);
       }
     }
     return null;
   }
+
   /**
    * Gets the {@link Nullness} value of an access path.
    *
@@ -149,17 +294,62 @@ public class NullnessStore implements Store<NullnessStore> {
    * @return The {@link Nullness} value of the access path.
    */
   public Nullness getNullnessOfAccessPath(AccessPath accessPath) {
-    if (contents == null) {
-      return Nullness.NULLABLE;
-    }
-    Nullness nullness = contents.get(accessPath);
+    Nullness nullness = get(accessPath);
     return (nullness == null) ? Nullness.NULLABLE : nullness;
   }
 
+  /**
+   * @return number of access paths with nullness info in this store
+   */
+  public int size() {
+    int setBits = 0;
+    for (long word : present) {
+      setBits += Long.bitCount(word);
+    }
+    return setBits / 2;
+  }
+
+  /**
+   * @return the facts in this store, in access path id order
+   */
+  private Map<AccessPath, Nullness> toMap() {
+    Map<AccessPath, Nullness> result = new LinkedHashMap<>();
+    if (ids == null) {
+      return result;
+    }
+    for (int word = 0; word < present.length; word++) {
+      long remaining = present[word];
+      while (remaining != 0) {
+        int shift = Long.numberOfTrailingZeros(remaining);
+        int id = word * IDS_PER_WORD + shift / 2;
+        result.put(ids.pathOf(id), DECODE[(int) ((values[word] >>> shift) & 3L)]);
+        remaining &= ~(3L << shift);
+      }
+    }
+    return result;
+  }
+
   public Builder toBuilder() {
     return new Builder(this);
   }
 
+  /**
+   * Copies this store to a new id table subject to {@code limits}; stores derived from the copy
+   * share the table, and hence the limits. Used for the initial store of an analysis.
+   *
+   * @param limits caps on the facts recorded from now on
+   * @return a store equal to this one, with {@code limits} applied to its descendants
+   */
+  NullnessStore withLimits(AccessPathLimits limits) {
+    NullnessStore.Builder result =
+        new Builder(new NullnessStore(new AccessPathIds(limits), NO_WORDS, NO_WORDS));
+    for (Map.Entry<AccessPath, Nullness> entry : toMap().entrySet()) {
+      // existing facts are kept regardless of the limits
+      result.setInformationUnchecked(entry.getKey(), entry.getValue());
+    }
+    return result.build();
+  }
+
   @Override
   public NullnessStore copy() {
     return this;
@@ -167,17 +357,26 @@ public class NullnessStore implements Store<NullnessStore> {
 
   @Override
   public NullnessStore leastUpperBound(NullnessStore other) {
-    NullnessStore.Builder result = NullnessStore.empty().toBuilder();
-    for (AccessPath ap : intersection(contents.keySet(), other.contents.keySet())) {
-      Nullness apContents = contents.get(ap);
-      if (apContents == null) {
-        throw new RuntimeException("null contents for " + ap);
+    if (ids == other.ids) {
+      if (ids == null) {
+        return EMPTY;
+      }
+      // facts for the paths present in both stores, joined
+      int length = Math.min(present.length, other.present.length);
+      long[] resultPresent = new long[length];
+      long[] resultValues = new long[length];
+      for (int word = 0; word < length; word++) {
+        resultPresent[word] = present[word] & other.present[word];
+        resultValues[word] = (values[word] | other.values[word]) & resultPresent[word];
       }
-      Nullness otherAPContents = other.contents.get(ap);
-      if (otherAPContents == null) {
-        throw new RuntimeException("null other contents for " + ap);
+      return new NullnessStore(ids, resultPresent, resultValues);
+    }
+    NullnessStore.Builder result = new Builder(ids != null ? this : other, NO_WORDS, NO_WORDS);
+    for (Map.Entry<AccessPath, Nullness> entry : toMap().entrySet()) {
+      Nullness otherValue = other.get(entry.getKey());
+      if (otherValue != null) {
+        result.setInformation(entry.getKey(), entry.getValue().leastUpperBound(otherValue));
       }
-      result.contents.put(ap, apContents.leastUpperBound(otherAPContents));
     }
     return result.build();
   }
@@ -193,17 +392,55 @@ public class NullnessStore implements Store<NullnessStore> {
       return false;
     }
     NullnessStore other = (NullnessStore) o;
-    return contents.equals(other.contents);
+    if (ids == other.ids) {
+      return wordsEqual(present, other.present) && wordsEqual(values, other.values);
+    }
+    Map<AccessPath, Nullness> contents = toMap();
+    if (contents.size() != other.size()) {
+      return false;
+    }
+    for (Map.Entry<AccessPath, Nullness> entry : contents.entrySet()) {
+      if (!entry.getValue().equals(other.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Compares two word arrays, treating missing trailing words as zero. */
+  private static boolean wordsEqual(long[] a, long[] b) {
+    int common = Math.min(a.length, b.length);
+    for (int word = 0; word < common; word++) {
+      if (a[word] != b[word]) {
+        return false;
+      }
+    }
+    long[] longer = a.length > b.length ? a : b;
+    for (int word = common; word < longer.length; word++) {
+      if (longer[word] != 0) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
   public int hashCode() {
-    return contents.hashCode();
+    // Same as the hash code of toMap(), so that it is consistent with equals() for stores with
+    // different id tables
+    int result = hashCode;
+    if (result == 0) {
+      for (Map.Entry<AccessPath, Nullness> entry : toMap().entrySet()) {
+        result += entry.getKey().hashCode() ^ entry.getValue().hashCode();
+      }
+      hashCode = result;
+    }
+    return result;
   }
 
   @Override
   public String toString() {
-    return contents.toString();
+    return toMap().toString();
   }
 
   @Override
@@ -234,17 +471,25 @@ public class NullnessStore implements Store<NullnessStore> {
   public NullnessStore uprootAccessPaths(
       Map<LocalVariableNode, LocalVariableNode> localVarTranslations) {
     NullnessStore.Builder nullnessBuilder = NullnessStore.empty().toBuilder();
-    for (AccessPath ap : contents.keySet()) {
-      if (ap.getRoot().isReceiver()) {
+    if (ids == null) {
+      return nullnessBuilder.build();
+    }
+    for (Map.Entry<LocalVariableNode, LocalVariableNode> translation :
+        localVarTranslations.entrySet()) {
+      AccessPathIds.IdMask rootedAtFromVar = ids.idsRootedAt(translation.getKey().getElement());
+      if (rootedAtFromVar == null) {
         continue;
       }
-      Element varElement = ap.getRoot().getVarElement();
-      for (LocalVariableNode fromVar : localVarTranslations.keySet()) {
-        if (varElement.equals(fromVar.getElement())) {
-          LocalVariableNode toVar = localVarTranslations.get(fromVar);
-          AccessPath newAP =
-              new AccessPath(new AccessPath.Root(toVar.getElement()), ap.getElements());
-          nullnessBuilder.setInformation(newAP, contents.get(ap));
+      AccessPath.Root newRoot = new AccessPath.Root(translation.getValue().getElement());
+      for (int word = 0; word < present.length; word++) {
+        long remaining = present[word] & rootedAtFromVar.word(word);
+        while (remaining != 0) {
+          int shift = Long.numberOfTrailingZeros(remaining);
+          AccessPath ap = ids.pathOf(word * IDS_PER_WORD + shift / 2);
+          nullnessBuilder.setInformation(
+              new AccessPath(newRoot, ap.getElements()),
+              DECODE[(int) ((values[word] >>> shift) & 3L)]);
+          remaining &= ~(3L << shift);
         }
       }
     }
@@ -258,19 +503,53 @@ public class NullnessStore implements Store<NullnessStore> {
    * @return NullnessStore containing only AccessPaths that pass the predicate
    */
   public NullnessStore filterAccessPaths(Predicate<AccessPath> pred) {
-    return new NullnessStore(
-        contents.entrySet().stream()
-            .filter(e -> pred.test(e.getKey()))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    if (ids == null) {
+      return this;
+    }
+    long[] resultPresent = present.clone();
+    long[] resultValues = values.clone();
+    for (int word = 0; word < present.length; word++) {
+      long remaining = present[word];
+      while (remaining != 0) {
+        int shift = Long.numberOfTrailingZeros(remaining);
+        long mask = 3L << shift;
+        if (!pred.test(ids.pathOf(word * IDS_PER_WORD + shift / 2))) {
+          resultPresent[word] &= ~mask;
+          resultValues[word] &= ~mask;
+        }
+        remaining &= ~mask;
+      }
+    }
+    return new NullnessStore(ids, resultPresent, resultValues);
   }
 
   /** class for building up instances of the store. */
   public static final class Builder {
-    private final Map<AccessPath, Nullness> contents;
+
+    private final AccessPathIds ids;
+
+    private long[] present;
+
+    private long[] values;
+
+    /**
+     * true if {@link #present} and {@link #values} may be referenced by a store, and must be copied
+     * before being modified
+     */
+    private boolean shared;
+
+    /** number of facts in {@link #present}, or -1 if not computed yet */
+    private int size = -1;
 
     Builder(NullnessStore prototype) {
+      this(prototype, prototype.present, prototype.values);
+    }
 
-      contents = new HashMap<>(prototype.contents);
+    private Builder(NullnessStore prototype, long[] present, long[] values) {
+      this.ids = prototype.ids != null ? prototype.ids : new AccessPathIds();
+      this.present = present;
+      this.values = values;
+      this.shared = true;
     }
 
     /**
@@ -284,17 +563,59 @@ public class NullnessStore implements Store<NullnessStore> {
      * @return the new builder
      */
     public NullnessStore.Builder setInformation(AccessPath ap, Nullness value) {
-      contents.put(checkNotNull(ap), checkNotNull(value));
+      AccessPathLimits limits = ids.getLimits();
+      if (limits != null && !isPresent(ids.idOf(checkNotNull(ap)))) {
+        int storeSize = limits.limitsStoreSize() ? size() : 0;
+        if (!limits.admitNewFact(ap, storeSize)) {
+          return this;
+        }
+      }
+      return setInformationUnchecked(ap, value);
+    }
+
+    private NullnessStore.Builder setInformationUnchecked(AccessPath ap, Nullness value) {
+      int id = ids.getOrCreateId(checkNotNull(ap));
+      long code = encode(checkNotNull(value));
+      int word = wordOf(id);
+      if (shared || word >= present.length) {
+        int length = Math.max(present.length, word + 1);
+        present = Arrays.copyOf(present, length);
+        values = Arrays.copyOf(values, length);
+        shared = false;
+      }
+      int shift = shiftOf(id);
+      if (size >= 0 && ((present[word] >>> shift) & 3L) == 0) {
+        size++;
+      }
+      present[word] |= 3L << shift;
+      values[word] = (values[word] & ~(3L << shift)) | (code << shift);
       return this;
     }
 
+    private boolean isPresent(int id) {
+      int word = wordOf(id);
+      return id >= 0 && word < present.length && ((present[word] >>> shiftOf(id)) & 3L) != 0;
+    }
+
+    private int size() {
+      if (size < 0) {
+        int setBits = 0;
+        for (long word : present) {
+          setBits += Long.bitCount(word);
+        }
+        size = setBits / 2;
+      }
+      return size;
+    }
+
     /**
      * Construct the immutable NullnessStore instance.
      *
      * @return a store constructed from everything added to the builder
      */
     public NullnessStore build() {
-      return new NullnessStore(contents);
+      shared = true;
+      return new NullnessStore(ids, present, values);
     }
   }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.uber.nullaway.fixserialization;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the settings read from fix serialization config files, for the lifetime of the JVM.
+ *
+ * <p>A build typically runs many compilation tasks in the same JVM with the same config file. An
+ * entry is reused as long as the content of its file is unchanged, so rewriting the config between
+ * tasks (e.g. to run another round of the method parameter protection test) is picked up, even when
+ * the rewrite keeps the size and lands within the same file system timestamp tick. The file is
+ * still read by every task, but only parsed when its content changed.
+ */
+final class ConfigFileCache {
+
+  private static final ConcurrentMap<Path, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+  private static final class Entry {
+
+    final HashCode contentHash;
+
+    final ImmutableMap<String, String> settings;
+
+    Entry(HashCode contentHash, ImmutableMap<String, String> settings) {
+      this.contentHash = contentHash;
+      this.settings = settings;
+    }
+  }
+
+  private ConfigFileCache() {}
+
+  /**
+   * Reads the settings of a config file, in {@code .properties} format if its name ends with
+   * {@link PropertiesUtil#EXTENSION}, in {@code XML} format otherwise.
+   *
+   * @param configFilePath Path to the serialization config file.
+   * @return the settings in the file, by the keys of {@link FixSerializationConfig}.
+   */
+  static ImmutableMap<String, String> readSettings(String configFilePath) {
+    Path path = Paths.get(configFilePath).toAbsolutePath().normalize();
+    byte[] content;
+    try {
+      content = Files.readAllBytes(path);
+    } catch (IOException e) {
+      throw new RuntimeException("Error in reading/parsing config at path: " + configFilePath, e);
+    }
+    HashCode contentHash = Hashing.sha256().hashBytes(content);
+    Entry entry = ENTRIES.get(path);
+    if (entry != null && entry.contentHash.equals(contentHash)) {
+      return entry.settings;
+    }
+    // parse the bytes we hashed, so the entry matches its hash even if the file changes meanwhile
+    ImmutableMap<String, String> settings =
+        configFilePath.endsWith(PropertiesUtil.EXTENSION)
+            ? PropertiesUtil.readSettings(content, configFilePath)
+            : XMLUtil.readSettings(content, configFilePath);
+    ENTRIES.put(path, new Entry(contentHash, settings));
+    return settings;
+  }
+}
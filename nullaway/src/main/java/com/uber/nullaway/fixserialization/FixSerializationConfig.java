@@ -23,19 +23,23 @@
 package com.uber.nullaway.fixserialization;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.uber.nullaway.fixserialization.qual.AnnotationConfig;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
 
 /** Config class for Fix Serialization package. */
 public class FixSerializationConfig {
 
+  /* Keys of the settings, as written in .properties configs. */
+  static final String SUGGEST_ACTIVE = "suggest.active";
+  static final String SUGGEST_ENCLOSING = "suggest.enclosing";
+  static final String FIELD_INIT_INFO_ACTIVE = "fieldInitInfo.active";
+  static final String PARAM_TEST_ACTIVE = "paramTest.active";
+  static final String PARAM_TEST_INDEX = "paramTest.index";
+  static final String PARAM_TEST_MULTI = "paramTest.multi";
+  static final String ANNOTATION_NULLABLE = "annotation.nullable";
+  static final String ANNOTATION_NONNULL = "annotation.nonnull";
+  static final String PATH = "path";
+
   /**
    * If enabled, the corresponding output file will be cleared and for all reported errors, NullAway
    * will serialize information and suggest type changes to resolve them, in case these errors could
@@ -70,6 +74,15 @@ public class FixSerializationConfig {
    */
   public final int paramTestIndex;
 
+  /**
+   * If enabled, NullAway evaluates, for every non-primitive parameter of every method in annotated
+   * code, the hypothesis that the parameter is {@code @Nullable}, and serializes the resulting
+   * error deltas: the errors it would add within the method, and the errors it would remove at call
+   * sites passing a {@code @Nullable} argument. All hypotheses are evaluated in a single
+   * compilation, rerunning dataflow only for the methods declaring the parameters.
+   */
+  public final boolean methodParamProtectionMultiTestEnabled;
+
   /** The directory where all files generated/read by Fix Serialization package resides. */
   public final String outputDirectory;
 
@@ -84,6 +97,7 @@ public class FixSerializationConfig {
     fieldInitInfoEnabled = false;
     methodParamProtectionTestEnabled = false;
     paramTestIndex = Integer.MAX_VALUE;
+    methodParamProtectionMultiTestEnabled = false;
     annotationConfig = new AnnotationConfig();
     outputDirectory = null;
     serializer = null;
@@ -95,6 +109,7 @@ public class FixSerializationConfig {
       boolean fieldInitInfoEnabled,
       boolean methodParamProtectionTestEnabled,
       int paramTestIndex,
+      boolean methodParamProtectionMultiTestEnabled,
       AnnotationConfig annotationConfig,
       String outputDirectory) {
     this.suggestEnabled = suggestEnabled;
@@ -102,58 +117,45 @@ public class FixSerializationConfig {
     this.fieldInitInfoEnabled = fieldInitInfoEnabled;
     this.methodParamProtectionTestEnabled = methodParamProtectionTestEnabled;
     this.paramTestIndex = paramTestIndex;
+    this.methodParamProtectionMultiTestEnabled = methodParamProtectionMultiTestEnabled;
     this.outputDirectory = outputDirectory;
     this.annotationConfig = annotationConfig;
     serializer = new Serializer(this);
   }
 
   /**
-   * Sets all flags based on their values in the configuration file.
+   * Sets all flags based on their values in the configuration file. Files whose name ends with
+   * {@link PropertiesUtil#EXTENSION} are read in the {@code .properties} format, others in {@code
+   * XML}. The content of a file is parsed once per JVM, unless the content changes.
    *
-   * @param configFilePath Path to the serialization config file written in xml.
+   * @param configFilePath Path to the serialization config file written in xml or properties.
    */
   public FixSerializationConfig(String configFilePath) {
-    Preconditions.checkNotNull(configFilePath);
-    Document document;
-    try {
-      DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-      DocumentBuilder builder = factory.newDocumentBuilder();
-      document = builder.parse(Files.newInputStream(Paths.get(configFilePath)));
-      document.normalize();
-    } catch (IOException | SAXException | ParserConfigurationException e) {
-      throw new RuntimeException("Error in reading/parsing config at path: " + configFilePath, e);
-    }
-    this.outputDirectory =
-        XMLUtil.getValueFromTag(document, "/serialization/path", String.class).orElse(null);
+    this(ConfigFileCache.readSettings(Preconditions.checkNotNull(configFilePath)));
+  }
+
+  private FixSerializationConfig(ImmutableMap<String, String> settings) {
+    this.outputDirectory = settings.get(PATH);
     Preconditions.checkNotNull(
         this.outputDirectory, "Error in FixSerialization Config: Output path cannot be null");
-    suggestEnabled =
-        XMLUtil.getValueFromAttribute(document, "/serialization/suggest", "active", Boolean.class)
-            .orElse(false);
-    suggestEnclosing =
-        XMLUtil.getValueFromAttribute(
-                document, "/serialization/suggest", "enclosing", Boolean.class)
-            .orElse(false);
+    suggestEnabled = Boolean.parseBoolean(settings.get(SUGGEST_ACTIVE));
+    suggestEnclosing = Boolean.parseBoolean(settings.get(SUGGEST_ENCLOSING));
     if (suggestEnclosing && !suggestEnabled) {
       throw new IllegalStateException(
           "Error in the fix serialization configuration, suggest flag must be enabled to activate enclosing method and class serialization.");
     }
-    fieldInitInfoEnabled =
-        XMLUtil.getValueFromAttribute(
-                document, "/serialization/fieldInitInfo", "active", Boolean.class)
-            .orElse(false);
-    methodParamProtectionTestEnabled =
-        XMLUtil.getValueFromAttribute(document, "/serialization/paramTest", "active", Boolean.class)
-            .orElse(false);
-    paramTestIndex =
-        XMLUtil.getValueFromAttribute(document, "/serialization/paramTest", "index", Integer.class)
-            .orElse(Integer.MAX_VALUE);
-    String nullableAnnot =
-        XMLUtil.getValueFromTag(document, "/serialization/annotation/nullable", String.class)
-            .orElse("javax.annotation.Nullable");
-    String nonnullAnnot =
-        XMLUtil.getValueFromTag(document, "/serialization/annotation/nonnull", String.class)
-            .orElse("javax.annotation.Nonnull");
+    fieldInitInfoEnabled = Boolean.parseBoolean(settings.get(FIELD_INIT_INFO_ACTIVE));
+    methodParamProtectionTestEnabled = Boolean.parseBoolean(settings.get(PARAM_TEST_ACTIVE));
+    String index = settings.get(PARAM_TEST_INDEX);
+    paramTestIndex = index == null ? Integer.MAX_VALUE : Integer.parseInt(index);
+    methodParamProtectionMultiTestEnabled = Boolean.parseBoolean(settings.get(PARAM_TEST_MULTI));
+    if (methodParamProtectionTestEnabled && methodParamProtectionMultiTestEnabled) {
+      throw new IllegalStateException(
+          "Error in the fix serialization configuration, method parameter protection test cannot"
+              + " be both active for a single index and in multi mode.");
+    }
+    String nullableAnnot = settings.getOrDefault(ANNOTATION_NULLABLE, "javax.annotation.Nullable");
+    String nonnullAnnot = settings.getOrDefault(ANNOTATION_NONNULL, "javax.annotation.Nonnull");
     this.annotationConfig = new AnnotationConfig(nullableAnnot, nonnullAnnot);
     serializer = new Serializer(this);
   }
@@ -170,6 +172,7 @@ public class FixSerializationConfig {
     private boolean fieldInitInfo;
     private boolean methodParamProtectionTestEnabled;
     private int paramIndex;
+    private boolean methodParamProtectionMultiTestEnabled;
     private String nullable;
     private String nonnull;
     private String outputDir;
@@ -210,6 +213,11 @@ public class FixSerializationConfig {
       return this;
     }
 
+    public Builder setParamProtectionMultiTest(boolean value) {
+      this.methodParamProtectionMultiTestEnabled = value;
+      return this;
+    }
+
     /**
      * Builds and writes the config with the state in builder at the given path as XML.
      *
@@ -220,6 +228,18 @@ public class FixSerializationConfig {
       XMLUtil.writeInXMLFormat(config, path);
     }
 
+    /**
+     * Builds and writes the config with the state in builder at the given path in the {@code
+     * .properties} format, which is faster to load than {@code XML}. The path should end with
+     * {@link PropertiesUtil#EXTENSION}.
+     *
+     * @param path path to write the config file.
+     */
+    public void writeAsProperties(String path) {
+      FixSerializationConfig config = this.build();
+      PropertiesUtil.writeInPropertiesFormat(config, path);
+    }
+
     public FixSerializationConfig build() {
       return new FixSerializationConfig(
           suggestEnabled,
@@ -227,6 +247,7 @@ public class FixSerializationConfig {
           fieldInitInfo,
           methodParamProtectionTestEnabled,
           paramIndex,
+          methodParamProtectionMultiTestEnabled,
           new AnnotationConfig(nullable, nonnull),
           outputDir);
     }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.uber.nullaway.fixserialization;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Helper class for parsing/writing fix serialization configs in the {@code .properties} format.
+ *
+ * <p>Unlike {@code XML} configs, these are loaded without initializing a DOM parser or XPath, which
+ * is noticeably slow on a cold JVM. Keys are the ones of {@link FixSerializationConfig}, e.g.
+ * {@code suggest.active=true} or {@code path=/tmp/out}.
+ */
+public class PropertiesUtil {
+
+  /** File extension of configs in the {@code .properties} format. */
+  public static final String EXTENSION = ".properties";
+
+  /**
+   * Reads the settings of a config in the {@code .properties} format.
+   *
+   * @param content Contents of the config file.
+   * @param path Path to the config file, for error messages.
+   * @return the settings in the file, by key.
+   */
+  static ImmutableMap<String, String> readSettings(byte[] content, String path) {
+    Properties properties = new Properties();
+    try (InputStream in = new ByteArrayInputStream(content)) {
+      properties.load(in);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new RuntimeException("Error in reading/parsing config at path: " + path, e);
+    }
+    ImmutableMap.Builder<String, String> settings = ImmutableMap.builder();
+    for (String key : properties.stringPropertyNames()) {
+      settings.put(key, properties.getProperty(key));
+    }
+    return settings.build();
+  }
+
+  /**
+   * Writes the {@link FixSerializationConfig} in {@code .properties} format.
+   *
+   * @param config Config file to write.
+   * @param path Path to write the config at.
+   */
+  public static void writeInPropertiesFormat(FixSerializationConfig config, String path) {
+    Properties properties = new Properties();
+    properties.setProperty(
+        FixSerializationConfig.SUGGEST_ACTIVE, String.valueOf(config.suggestEnabled));
+    properties.setProperty(
+        FixSerializationConfig.SUGGEST_ENCLOSING, String.valueOf(config.suggestEnclosing));
+    properties.setProperty(
+        FixSerializationConfig.FIELD_INIT_INFO_ACTIVE, String.valueOf(config.fieldInitInfoEnabled));
+    properties.setProperty(
+        FixSerializationConfig.PARAM_TEST_ACTIVE,
+        String.valueOf(config.methodParamProtectionTestEnabled));
+    properties.setProperty(
+        FixSerializationConfig.PARAM_TEST_INDEX, String.valueOf(config.paramTestIndex));
+    properties.setProperty(
+        FixSerializationConfig.PARAM_TEST_MULTI,
+        String.valueOf(config.methodParamProtectionMultiTestEnabled));
+    properties.setProperty(
+        FixSerializationConfig.ANNOTATION_NULLABLE,
+        config.annotationConfig.getNullable().getFullName());
+    properties.setProperty(
+        FixSerializationConfig.ANNOTATION_NONNULL,
+        config.annotationConfig.getNonNull().getFullName());
+    properties.setProperty(FixSerializationConfig.PATH, config.outputDirectory);
+    try (OutputStream out = Files.newOutputStream(Paths.get(path))) {
+      properties.store(out, "NullAway fix serialization config");
+    } catch (IOException e) {
+      throw new RuntimeException("Error happened in writing config.", e);
+    }
+  }
+}
@@ -33,7 +33,9 @@ import com.uber.nullaway.ErrorMessage;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.fixserialization.location.FixLocation;
 import com.uber.nullaway.fixserialization.out.ErrorInfo;
+import com.uber.nullaway.fixserialization.out.ParamTestInfo;
 import com.uber.nullaway.fixserialization.out.SuggestedFixInfo;
+import javax.lang.model.element.ElementKind;
 
 /** A facade class to interact with fix serialization package. */
 public class SerializationService {
@@ -44,6 +46,9 @@ public class SerializationService {
    * therefore, if the target element has an explicit {@code @Nonnull} annotation, no type change is
    * suggested.
    *
+   * <p>In the multi-candidate method parameter protection test, also records that making the target
+   * parameter {@code @Nullable} would remove a {@code PASS_NULLABLE} error.
+   *
    * @param config NullAway config.
    * @param state Visitor state.
    * @param target Target element to alternate it's type.
@@ -52,11 +57,12 @@ public class SerializationService {
   public static void serializeFixSuggestion(
       Config config, VisitorState state, Symbol target, ErrorMessage errorMessage) {
     FixSerializationConfig serializationConfig = config.getSerializationConfig();
-    if (!serializationConfig.suggestEnabled) {
+    if (!serializationConfig.suggestEnabled
+        && !serializationConfig.methodParamProtectionMultiTestEnabled) {
       return;
     }
     // Skip if the element has an explicit @Nonnull annotation.
-    if (Nullness.hasNonNullAnnotation(target, config)) {
+    if (Nullness.hasNonNullAnnotation(target, config, state.context)) {
       return;
     }
     Trees trees = Trees.instance(JavacProcessingEnvironment.instance(state.context));
@@ -64,12 +70,22 @@ public class SerializationService {
     if (trees.getPath(target) == null) {
       return;
     }
-    FixLocation location = FixLocation.createFixLocationFromSymbol(target);
-    SuggestedFixInfo suggestedFixInfo =
-        buildFixMetadata(config, state.getPath(), errorMessage, location);
     Serializer serializer = serializationConfig.getSerializer();
     Preconditions.checkNotNull(
         serializer, "Serializer shouldn't be null at this point, error in configuration setting!");
+    if (serializationConfig.methodParamProtectionMultiTestEnabled
+        && errorMessage.getMessageType().equals(ErrorMessage.MessageTypes.PASS_NULLABLE)
+        && target.getKind().equals(ElementKind.PARAMETER)) {
+      // making the parameter @Nullable would remove this error
+      serializer.serializeParamTestInfo(
+          new ParamTestInfo(target, ParamTestInfo.Site.CALL_SITE, -1));
+    }
+    if (!serializationConfig.suggestEnabled) {
+      return;
+    }
+    FixLocation location = FixLocation.createFixLocationFromSymbol(target);
+    SuggestedFixInfo suggestedFixInfo =
+        buildFixMetadata(config, state.getPath(), errorMessage, location);
     serializer.serializeSuggestedFixInfo(suggestedFixInfo, serializationConfig.suggestEnclosing);
   }
 
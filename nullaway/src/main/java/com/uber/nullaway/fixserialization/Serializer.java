@@ -23,8 +23,10 @@
 package com.uber.nullaway.fixserialization;
 
 import com.uber.nullaway.ErrorMessage;
+import com.uber.nullaway.fixserialization.out.EnclosingInfoCache;
 import com.uber.nullaway.fixserialization.out.ErrorInfo;
 import com.uber.nullaway.fixserialization.out.FieldInitializationInfo;
+import com.uber.nullaway.fixserialization.out.ParamTestInfo;
 import com.uber.nullaway.fixserialization.out.SuggestedFixInfo;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -45,12 +47,17 @@ public class Serializer {
   private final Path suggestedFixesOutputPath;
   /** Path to write suggested fix metadata. */
   private final Path fieldInitializationOutputPath;
+  /** Path to write method parameter protection test results. */
+  private final Path paramTestOutputPath;
+  /** Enclosing classes and methods of reported errors and suggested fixes. */
+  private final EnclosingInfoCache enclosingInfoCache = new EnclosingInfoCache();
 
   public Serializer(FixSerializationConfig config) {
     String outputDirectory = config.outputDirectory;
     this.errorOutputPath = Paths.get(outputDirectory, "errors.tsv");
     this.suggestedFixesOutputPath = Paths.get(outputDirectory, "fixes.tsv");
     this.fieldInitializationOutputPath = Paths.get(outputDirectory, "field_init.tsv");
+    this.paramTestOutputPath = Paths.get(outputDirectory, "param_test.tsv");
     initializeOutputFiles(config);
   }
 
@@ -62,7 +69,7 @@ public class Serializer {
    */
   public void serializeSuggestedFixInfo(SuggestedFixInfo suggestedFixInfo, boolean enclosing) {
     if (enclosing) {
-      suggestedFixInfo.initEnclosing();
+      suggestedFixInfo.initEnclosing(enclosingInfoCache);
     }
     appendToFile(suggestedFixInfo.tabSeparatedToString(), suggestedFixesOutputPath);
   }
@@ -73,7 +80,7 @@ public class Serializer {
    * @param errorInfo ErrorMessage object.
    */
   public void serializeErrorInfo(ErrorInfo errorInfo) {
-    errorInfo.initEnclosing();
+    errorInfo.initEnclosing(enclosingInfoCache);
     appendToFile(errorInfo.tabSeparatedToString(), errorOutputPath);
   }
 
@@ -81,6 +88,10 @@ public class Serializer {
     appendToFile(info.tabSeparatedToString(), fieldInitializationOutputPath);
   }
 
+  public void serializeParamTestInfo(ParamTestInfo info) {
+    appendToFile(info.tabSeparatedToString(), paramTestOutputPath);
+  }
+
   /** Cleared the content of the file if exists and writes the header in the first line. */
   private void initializeFile(Path path, String header) {
     try {
@@ -107,6 +118,9 @@ public class Serializer {
       if (config.fieldInitInfoEnabled) {
         initializeFile(fieldInitializationOutputPath, FieldInitializationInfo.header());
       }
+      if (config.methodParamProtectionMultiTestEnabled) {
+        initializeFile(paramTestOutputPath, ParamTestInfo.header());
+      }
       initializeFile(errorOutputPath, ErrorInfo.header());
     } catch (IOException e) {
       throw new RuntimeException("Could not finish resetting serializer", e);
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.fixserialization;
+
+import com.google.common.base.Preconditions;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.util.Context;
+import com.uber.nullaway.fixserialization.location.FixLocation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.lang.model.element.ElementKind;
+
+/**
+ * A set of {@code @Nullable} annotations that NullAway treats as present in the source code,
+ * without the source being edited. Lets tools evaluate the effect of candidate annotations (e.g.
+ * those suggested in {@code fixes.tsv}) by recompiling in-process, rather than injecting them into
+ * the sources and running a full build for each one.
+ *
+ * <p>Annotations are read from a file in the format of {@code fixes.tsv}: each line starts with the
+ * columns of {@link FixLocation#header()}, i.e. the kind of the element ({@code METHOD}, {@code
+ * FIELD} or {@code PARAMETER}), its class, its method, its name and its parameter index, formatted
+ * as in {@link FixLocation#tabSeparatedToString()}. Other columns, and a header line, are ignored.
+ *
+ * <p>Instances are immutable. Lookups given a javac {@link Context} are memoized per symbol in that
+ * context, so the memo is confined to the compilation the symbols belong to.
+ */
+public final class VirtualAnnotations {
+
+  /** No virtual annotations. */
+  public static final VirtualAnnotations EMPTY = new VirtualAnnotations(new HashSet<>());
+
+  /** Keys of the annotated elements, see {@link #keyOf(Symbol)}. */
+  private final Set<String> keys;
+
+  private VirtualAnnotations(Set<String> keys) {
+    this.keys = keys;
+  }
+
+  /**
+   * Reads virtual annotations from a file in the format of {@code fixes.tsv}.
+   *
+   * @param path path to the file.
+   * @return the virtual annotations in the file.
+   */
+  public static VirtualAnnotations fromFile(String path) {
+    Preconditions.checkNotNull(path);
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new RuntimeException("Error in reading virtual annotations at path: " + path, e);
+    }
+    Set<String> keys = new HashSet<>();
+    String header = FixLocation.header();
+    for (String line : lines) {
+      if (line.isEmpty() || line.startsWith(header)) {
+        continue;
+      }
+      String[] columns = line.split("\t", -1);
+      if (columns.length < 5) {
+        throw new IllegalStateException(
+            "Error in virtual annotations at path: " + path + ", malformed line: " + line);
+      }
+      switch (columns[0]) {
+        case "METHOD":
+          keys.add(memberKey(columns[0], columns[1], columns[2]));
+          break;
+        case "FIELD":
+          keys.add(memberKey(columns[0], columns[1], columns[3]));
+          break;
+        case "PARAMETER":
+          keys.add(paramKey(columns[1], columns[2], Integer.parseInt(columns[4])));
+          break;
+        default:
+          throw new IllegalStateException(
+              "Error in virtual annotations at path: " + path + ", unknown location: " + line);
+      }
+    }
+    return keys.isEmpty() ? EMPTY : new VirtualAnnotations(keys);
+  }
+
+  /**
+   * Writes virtual annotations in the format read by {@link #fromFile(String)}.
+   *
+   * @param locations rows in the format of {@link FixLocation#tabSeparatedToString()}, or of
+   *     {@code fixes.tsv}.
+   * @param path path to the file.
+   */
+  public static void writeToFile(Iterable<String> locations, Path path) {
+    StringBuilder content = new StringBuilder(FixLocation.header()).append('\n');
+    for (String location : locations) {
+      content.append(location).append('\n');
+    }
+    try {
+      Files.write(path, content.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new RuntimeException("Error in writing virtual annotations at path: " + path, e);
+    }
+  }
+
+  /**
+   * Is this set empty? Checked before any lookup, so that NullAway pays nothing for this feature
+   * unless it is used.
+   *
+   * @return true if there are no virtual annotations.
+   */
+  public boolean isEmpty() {
+    return keys.isEmpty();
+  }
+
+  /**
+   * Is {@code symbol} (a method, for its return type, a field, or a method parameter) virtually
+   * annotated as {@code @Nullable}?
+   *
+   * @param symbol the symbol.
+   * @param context javac context of the compilation {@code symbol} belongs to, in which the result
+   *     is memoized, or {@code null} not to memoize it.
+   * @return true if a virtual {@code @Nullable} annotation applies to {@code symbol}.
+   */
+  public boolean isNullable(Symbol symbol, @Nullable Context context) {
+    if (keys.isEmpty()) {
+      return false;
+    }
+    if (context == null) {
+      return computeIsNullable(symbol);
+    }
+    Map<Symbol, Boolean> memo = Memo.instance(context).forAnnotations(this);
+    Boolean result = memo.get(symbol);
+    if (result == null) {
+      result = computeIsNullable(symbol);
+      memo.put(symbol, result);
+    }
+    return result;
+  }
+
+  /**
+   * Is the parameter of {@code methodSymbol} at {@code paramIndex} virtually annotated as {@code
+   * @Nullable}? Works for methods in class files too.
+   *
+   * @param methodSymbol the method.
+   * @param paramIndex index of the parameter.
+   * @param context javac context, see {@link #isNullable(Symbol, Context)}.
+   * @return true if a virtual {@code @Nullable} annotation applies to the parameter.
+   */
+  public boolean isNullableParam(
+      Symbol.MethodSymbol methodSymbol, int paramIndex, @Nullable Context context) {
+    return !keys.isEmpty()
+        && paramIndex < methodSymbol.getParameters().size()
+        && isNullable(methodSymbol.getParameters().get(paramIndex), context);
+  }
+
+  private boolean computeIsNullable(Symbol symbol) {
+    String key = keyOf(symbol);
+    return key != null && keys.contains(key);
+  }
+
+  /** Key of a symbol, matching the one built from its {@link FixLocation}, if it can have one. */
+  @Nullable
+  private static String keyOf(Symbol symbol) {
+    switch (symbol.getKind()) {
+      case METHOD:
+        return memberKey("METHOD", symbol.owner.toString(), symbol.toString());
+      case FIELD:
+        return memberKey("FIELD", symbol.owner.toString(), symbol.toString());
+      case PARAMETER:
+        Symbol owner = symbol.owner;
+        if (!(owner instanceof Symbol.MethodSymbol)
+            || !(owner.getKind().equals(ElementKind.METHOD)
+                || owner.getKind().equals(ElementKind.CONSTRUCTOR))) {
+          return null;
+        }
+        Symbol.MethodSymbol method = (Symbol.MethodSymbol) owner;
+        int index = method.getParameters().indexOf(symbol);
+        return index < 0 ? null : paramKey(method.owner.toString(), method.toString(), index);
+      default:
+        return null;
+    }
+  }
+
+  private static String memberKey(String kind, String clazz, String member) {
+    return kind + '\t' + clazz + '\t' + member;
+  }
+
+  private static String paramKey(String clazz, String method, int index) {
+    return "PARAMETER" + '\t' + clazz + '\t' + method + '\t' + index;
+  }
+
+  /** Memoized lookups of the virtual annotations in use, for the symbols of one javac context. */
+  private static final class Memo {
+
+    private static final Context.Key<Memo> VIRTUAL_ANNOTATIONS_MEMO_KEY = new Context.Key<>();
+
+    private final Map<Symbol, Boolean> isNullable = new IdentityHashMap<>();
+
+    @Nullable private VirtualAnnotations annotations;
+
+    /**
+     * Get the Memo for the given javac context. We ensure there is one instance per context (as
+     * opposed to using static fields) to avoid memory leaks.
+     */
+    static Memo instance(Context context) {
+      Memo instance = context.get(VIRTUAL_ANNOTATIONS_MEMO_KEY);
+      if (instance == null) {
+        instance = new Memo();
+        context.put(VIRTUAL_ANNOTATIONS_MEMO_KEY, instance);
+      }
+      return instance;
+    }
+
+    /** Returns the memo for {@code annotations}, dropping lookups made for other annotations. */
+    Map<Symbol, Boolean> forAnnotations(VirtualAnnotations annotations) {
+      if (annotations != this.annotations) {
+        isNullable.clear();
+        this.annotations = annotations;
+      }
+      return isNullable;
+    }
+  }
+}
@@ -22,7 +22,12 @@
 
 package com.uber.nullaway.fixserialization;
 
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.annotation.Nullable;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -38,6 +43,7 @@ import javax.xml.xpath.XPathFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
 
 /** Helper for class for parsing/writing xml files. */
 public class XMLUtil {
@@ -92,6 +98,79 @@ public class XMLUtil {
     return new DefaultXMLValueProvider<>(null, klass);
   }
 
+  /**
+   * Reads the settings of a config in {@code XML} format, by the keys of the equivalent {@code
+   * .properties} config (see {@link PropertiesUtil}).
+   *
+   * @param content Contents of the config file.
+   * @param path Path to the config file, for error messages.
+   * @return the settings in the file, by key.
+   */
+  static ImmutableMap<String, String> readSettings(byte[] content, String path) {
+    Document document;
+    try (InputStream in = new ByteArrayInputStream(content)) {
+      DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+      DocumentBuilder builder = factory.newDocumentBuilder();
+      document = builder.parse(in);
+      document.normalize();
+    } catch (IOException | SAXException | ParserConfigurationException e) {
+      throw new RuntimeException("Error in reading/parsing config at path: " + path, e);
+    }
+    ImmutableMap.Builder<String, String> settings = ImmutableMap.builder();
+    putIfPresent(
+        settings,
+        FixSerializationConfig.PATH,
+        getValueFromTag(document, "/serialization/path", String.class).orElse(null));
+    putIfPresent(
+        settings,
+        FixSerializationConfig.SUGGEST_ACTIVE,
+        getValueFromAttribute(document, "/serialization/suggest", "active", String.class)
+            .orElse(null));
+    putIfPresent(
+        settings,
+        FixSerializationConfig.SUGGEST_ENCLOSING,
+        getValueFromAttribute(document, "/serialization/suggest", "enclosing", String.class)
+            .orElse(null));
+    putIfPresent(
+        settings,
+        FixSerializationConfig.FIELD_INIT_INFO_ACTIVE,
+        getValueFromAttribute(document, "/serialization/fieldInitInfo", "active", String.class)
+            .orElse(null));
+    putIfPresent(
+        settings,
+        FixSerializationConfig.PARAM_TEST_ACTIVE,
+        getValueFromAttribute(document, "/serialization/paramTest", "active", String.class)
+            .orElse(null));
+    putIfPresent(
+        settings,
+        FixSerializationConfig.PARAM_TEST_INDEX,
+        getValueFromAttribute(document, "/serialization/paramTest", "index", String.class)
+            .orElse(null));
+    putIfPresent(
+        settings,
+        FixSerializationConfig.PARAM_TEST_MULTI,
+        getValueFromAttribute(document, "/serialization/paramTest", "multi", String.class)
+            .orElse(null));
+    putIfPresent(
+        settings,
+        FixSerializationConfig.ANNOTATION_NULLABLE,
+        getValueFromTag(document, "/serialization/annotation/nullable", String.class)
+            .orElse(null));
+    putIfPresent(
+        settings,
+        FixSerializationConfig.ANNOTATION_NONNULL,
+        getValueFromTag(document, "/serialization/annotation/nonnull", String.class)
+            .orElse(null));
+    return settings.build();
+  }
+
+  private static void putIfPresent(
+      ImmutableMap.Builder<String, String> settings, String key, @Nullable String value) {
+    if (value != null) {
+      settings.put(key, value);
+    }
+  }
+
   /**
    * Writes the {@link FixSerializationConfig} in {@code XML} format.
    *
@@ -124,6 +203,8 @@ public class XMLUtil {
       paramTestElement.setAttribute(
           "active", String.valueOf(config.methodParamProtectionTestEnabled));
       paramTestElement.setAttribute("index", String.valueOf(config.paramTestIndex));
+      paramTestElement.setAttribute(
+          "multi", String.valueOf(config.methodParamProtectionMultiTestEnabled));
       rootElement.appendChild(paramTestElement);
 
       // Annotations
@@ -26,6 +26,7 @@ import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.util.TreePath;
+import javax.annotation.Nullable;
 
 /** Container class of enclosing class and method of the element. */
 public class EnclosingClassAndMethodInfo {
@@ -36,31 +37,62 @@ public class EnclosingClassAndMethodInfo {
    * Finding values for these properties is costly and are not needed by default, hence, they are
    * not {@code final} and are only initialized at request.
    */
-  private MethodTree method;
+  @Nullable private MethodTree method;
 
-  private ClassTree clazz;
+  @Nullable private ClassTree clazz;
+
+  /** Serialized symbols of {@link #clazz} and {@link #method}, {@code "null"} if absent. */
+  private String clazzName = "null";
+
+  private String methodName = "null";
 
   public EnclosingClassAndMethodInfo(TreePath path) {
     this.path = path;
   }
 
-  /** Finds the enclosing class and method according to {@code path}. */
-  public void findEnclosing() {
-    method = ASTHelpers.findEnclosingNode(path, MethodTree.class);
-    clazz = ASTHelpers.findEnclosingNode(path, ClassTree.class);
+  /**
+   * Finds the enclosing class and method according to {@code path}. If there is none, the leaf of
+   * {@code path} itself is used when it is a class or a method.
+   *
+   * @param cache Cache of enclosing classes and methods of the current compilation unit.
+   */
+  public void findEnclosing(EnclosingInfoCache cache) {
+    EnclosingInfoCache.Entry entry = cache.lookup(path);
+    clazz = entry.clazz;
+    clazzName = entry.clazzName;
+    method = entry.method;
+    methodName = entry.methodName;
     if (clazz == null && path.getLeaf() instanceof ClassTree) {
       clazz = (ClassTree) path.getLeaf();
+      clazzName = String.valueOf(ASTHelpers.getSymbol(clazz));
     }
     if (method == null && path.getLeaf() instanceof MethodTree) {
       method = (MethodTree) path.getLeaf();
+      methodName = String.valueOf(ASTHelpers.getSymbol(method));
     }
   }
 
+  @Nullable
   public MethodTree getMethod() {
     return method;
   }
 
+  @Nullable
   public ClassTree getClazz() {
     return clazz;
   }
+
+  /**
+   * @return serialized symbol of the enclosing class, {@code "null"} if not found.
+   */
+  public String getClazzName() {
+    return clazzName;
+  }
+
+  /**
+   * @return serialized symbol of the enclosing method, {@code "null"} if not found.
+   */
+  public String getMethodName() {
+    return methodName;
+  }
 }
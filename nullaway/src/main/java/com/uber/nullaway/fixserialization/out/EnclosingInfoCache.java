@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.uber.nullaway.fixserialization.out;
+
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Caches the enclosing class and method of program points, and their serialized names, for {@link
+ * EnclosingClassAndMethodInfo}.
+ *
+ * <p>Entries are keyed by the closest method or class strictly enclosing a program point, so all
+ * errors and fixes reported within the same method share one entry: finding the key is a short
+ * walk up the path, and the names are rendered once. Entries are only kept for the compilation unit
+ * being serialized, and dropped when it changes.
+ */
+public final class EnclosingInfoCache {
+
+  /** Enclosing class and method of a program point, and their serialized names. */
+  static final class Entry {
+
+    static final Entry NONE = new Entry(null, null);
+
+    @Nullable final ClassTree clazz;
+
+    @Nullable final MethodTree method;
+
+    final String clazzName;
+
+    final String methodName;
+
+    Entry(@Nullable ClassTree clazz, @Nullable MethodTree method) {
+      this.clazz = clazz;
+      this.method = method;
+      this.clazzName = clazz == null ? "null" : String.valueOf(ASTHelpers.getSymbol(clazz));
+      this.methodName = method == null ? "null" : String.valueOf(ASTHelpers.getSymbol(method));
+    }
+  }
+
+  private final Map<Tree, Entry> entries = new IdentityHashMap<>();
+
+  @Nullable private CompilationUnitTree compilationUnit;
+
+  /**
+   * Returns the closest class and method strictly enclosing the leaf of {@code path}, as {@link
+   * ASTHelpers#findEnclosingNode(TreePath, Class)} does.
+   *
+   * @param path Path to a program point.
+   * @return enclosing class and method of the program point.
+   */
+  Entry lookup(TreePath path) {
+    if (path.getCompilationUnit() != compilationUnit) {
+      entries.clear();
+      compilationUnit = path.getCompilationUnit();
+    }
+    TreePath anchor = path.getParentPath();
+    while (anchor != null
+        && !(anchor.getLeaf() instanceof MethodTree)
+        && !(anchor.getLeaf() instanceof ClassTree)) {
+      anchor = anchor.getParentPath();
+    }
+    if (anchor == null) {
+      return Entry.NONE;
+    }
+    Entry entry = entries.get(anchor.getLeaf());
+    if (entry == null) {
+      Tree leaf = anchor.getLeaf();
+      entry =
+          new Entry(
+              leaf instanceof ClassTree
+                  ? (ClassTree) leaf
+                  : ASTHelpers.findEnclosingNode(anchor, ClassTree.class),
+              leaf instanceof MethodTree
+                  ? (MethodTree) leaf
+                  : ASTHelpers.findEnclosingNode(anchor, MethodTree.class));
+      entries.put(leaf, entry);
+    }
+    return entry;
+  }
+}
@@ -22,7 +22,6 @@
 
 package com.uber.nullaway.fixserialization.out;
 
-import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.util.TreePath;
 import com.uber.nullaway.ErrorMessage;
 
@@ -47,18 +46,18 @@ public class ErrorInfo {
         + '\t'
         + errorMessage.getMessage()
         + '\t'
-        + (enclosingInfo.getClazz() != null
-            ? ASTHelpers.getSymbol(enclosingInfo.getClazz())
-            : "null")
+        + enclosingInfo.getClazzName()
         + '\t'
-        + (enclosingInfo.getMethod() != null
-            ? ASTHelpers.getSymbol(enclosingInfo.getMethod())
-            : "null");
+        + enclosingInfo.getMethodName();
   }
 
-  /** Finds the enclosing class and method of program point where the error is reported. */
-  public void initEnclosing() {
-    enclosingInfo.findEnclosing();
+  /**
+   * Finds the enclosing class and method of program point where the error is reported.
+   *
+   * @param cache Cache of enclosing classes and methods of the current compilation unit.
+   */
+  public void initEnclosing(EnclosingInfoCache cache) {
+    enclosingInfo.findEnclosing(cache);
   }
 
   /**
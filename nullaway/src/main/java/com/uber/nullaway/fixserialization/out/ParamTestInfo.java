@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.fixserialization.out;
+
+import com.sun.tools.javac.code.Symbol;
+import com.uber.nullaway.fixserialization.location.FixLocation;
+
+/**
+ * Stores the effect on the number of errors of making a method parameter {@code @Nullable}, at one
+ * kind of site, as evaluated in the multi-candidate method parameter protection test. The total
+ * delta of a parameter is the sum of the deltas of its rows.
+ */
+public class ParamTestInfo {
+
+  /** Kinds of sites where the errors change. */
+  public enum Site {
+    /** Errors added within the method declaring the parameter. */
+    BODY,
+    /** An error removed at a call site passing a {@code @Nullable} argument for the parameter. */
+    CALL_SITE,
+    /**
+     * An error changed at a method overriding, or overridden by, the method declaring the
+     * parameter: added to an overriding method that keeps the parameter {@code @NonNull}, or
+     * removed from the declaring method if it overrides a {@code @Nullable} parameter.
+     */
+    OVERRIDE
+  }
+
+  /** Location of the parameter. */
+  private final FixLocation paramLocation;
+
+  private final Site site;
+
+  /** Change in the number of errors. */
+  private final int delta;
+
+  public ParamTestInfo(Symbol param, Site site, int delta) {
+    this.paramLocation = FixLocation.createFixLocationFromSymbol(param);
+    this.site = site;
+    this.delta = delta;
+  }
+
+  /**
+   * Returns string representation of content of an object.
+   *
+   * @return string representation of contents of an object in a line seperated by tabs.
+   */
+  public String tabSeparatedToString() {
+    return paramLocation.tabSeparatedToString() + '\t' + site + '\t' + delta;
+  }
+
+  /**
+   * Creates header of an output file containing all {@link ParamTestInfo} written in string which
+   * values are separated by tabs.
+   *
+   * @return string representation of the header separated by tabs.
+   */
+  public static String header() {
+    return FixLocation.header() + '\t' + "site" + '\t' + "delta";
+  }
+}
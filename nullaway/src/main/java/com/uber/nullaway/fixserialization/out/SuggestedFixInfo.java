@@ -22,7 +22,6 @@
 
 package com.uber.nullaway.fixserialization.out;
 
-import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.util.TreePath;
 import com.uber.nullaway.ErrorMessage;
 import com.uber.nullaway.fixserialization.location.FixLocation;
@@ -85,18 +84,18 @@ public class SuggestedFixInfo {
         + '\t'
         + annotation
         + '\t'
-        + (enclosingInfo.getClazz() == null
-            ? "null"
-            : ASTHelpers.getSymbol(enclosingInfo.getClazz()))
+        + enclosingInfo.getClazzName()
         + '\t'
-        + (enclosingInfo.getMethod() == null
-            ? "null"
-            : ASTHelpers.getSymbol(enclosingInfo.getMethod()));
+        + enclosingInfo.getMethodName();
   }
 
-  /** Finds the enclosing class and method of program point where triggered this type change. */
-  public void initEnclosing() {
-    enclosingInfo.findEnclosing();
+  /**
+   * Finds the enclosing class and method of program point where triggered this type change.
+   *
+   * @param cache Cache of enclosing classes and methods of the current compilation unit.
+   */
+  public void initEnclosing(EnclosingInfoCache cache) {
+    enclosingInfo.findEnclosing(cache);
   }
 
   /**
@@ -27,9 +27,11 @@ import com.google.errorprone.VisitorState;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.MethodTree;
 import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.ErrorMessage;
+import com.uber.nullaway.MethodSummaries;
+import com.uber.nullaway.MethodSummary;
 import com.uber.nullaway.NullAway;
-import com.uber.nullaway.NullabilityUtil;
 import com.uber.nullaway.handlers.contract.ContractUtils;
 import java.util.Collections;
 import java.util.Set;
@@ -64,8 +66,7 @@ public abstract class AbstractFieldContractHandler extends BaseNoOpHandler {
   @Override
   public void onMatchMethod(
       NullAway analysis, MethodTree tree, VisitorState state, Symbol.MethodSymbol methodSymbol) {
-    Set<String> annotationContent =
-        NullabilityUtil.getAnnotationValueArray(methodSymbol, annotName, false);
+    Set<String> annotationContent = getAnnotationContent(methodSymbol, state.context);
     boolean isAnnotated = annotationContent != null;
     boolean isValid =
         isAnnotated
@@ -75,7 +76,9 @@ public abstract class AbstractFieldContractHandler extends BaseNoOpHandler {
       return;
     }
     Symbol.MethodSymbol closestOverriddenMethod =
-        NullabilityUtil.getClosestOverriddenMethod(methodSymbol, state.getTypes());
+        MethodSummaries.instance(state.context)
+            .get(methodSymbol)
+            .getClosestOverriddenMethod(state.getTypes());
     if (closestOverriddenMethod == null) {
       return;
     }
@@ -89,6 +92,28 @@ public abstract class AbstractFieldContractHandler extends BaseNoOpHandler {
     super.onMatchMethod(analysis, tree, state, methodSymbol);
   }
 
+  /**
+   * Get the field names in the {@code value} of this handler's annotation on a method. The
+   * annotation is looked up once per method, see {@link MethodSummary}.
+   *
+   * @param methodSymbol A method to check for the annotation.
+   * @param context the javac context
+   * @return The {@code value} attribute of the annotation, or {@code null} if the annotation is not
+   *     present.
+   */
+  @Nullable
+  protected Set<String> getAnnotationContent(Symbol.MethodSymbol methodSymbol, Context context) {
+    return getAnnotationContent(MethodSummaries.instance(context).get(methodSymbol));
+  }
+
+  /**
+   * @param summary summary of a method
+   * @return The {@code value} attribute of this handler's annotation on the method, or {@code null}
+   *     if the annotation is not present.
+   */
+  @Nullable
+  protected abstract Set<String> getAnnotationContent(MethodSummary summary);
+
   /**
    * This method validates whether the input method in parameter conforms to the inheritance rules.
    * Regardless of whether an annotation is present, every method cannot have a stricter
@@ -35,6 +35,8 @@ import com.uber.nullaway.NullAway;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nullable;
 import javax.lang.model.element.Element;
@@ -56,6 +58,10 @@ public class ApacheThriftIsSetHandler extends BaseNoOpHandler {
 
   @Nullable private Optional<Type> tbaseType;
 
+  // Memoized results of thriftIsSetCall, so that each isSet* method (including overrides) is only
+  // checked once per top-level class.
+  private final Map<Symbol.MethodSymbol, Boolean> isSetMethods = new HashMap<>();
+
   @Override
   public void onMatchTopLevelClass(
       NullAway analysis, ClassTree tree, VisitorState state, Symbol.ClassSymbol classSymbol) {
@@ -63,6 +69,12 @@ public class ApacheThriftIsSetHandler extends BaseNoOpHandler {
       tbaseType =
           Optional.ofNullable(TBASE_TYPE_SUPPLIER.get(state)).map(state.getTypes()::erasure);
     }
+    isSetMethods.clear();
+  }
+
+  @Override
+  public MethodNameFilter onRegisterDataflowMethodInvocationNames() {
+    return MethodNameFilter.forPrefixes("isSet");
   }
 
   @Override
@@ -144,6 +156,15 @@ public class ApacheThriftIsSetHandler extends BaseNoOpHandler {
   }
 
   private boolean thriftIsSetCall(Symbol.MethodSymbol symbol, Types types) {
+    Boolean result = isSetMethods.get(symbol);
+    if (result == null) {
+      result = computeIsThriftIsSetCall(symbol, types);
+      isSetMethods.put(symbol, result);
+    }
+    return result;
+  }
+
+  private boolean computeIsThriftIsSetCall(Symbol.MethodSymbol symbol, Types types) {
     Preconditions.checkNotNull(tbaseType);
     // noinspection ConstantConditions
     return tbaseType.isPresent()
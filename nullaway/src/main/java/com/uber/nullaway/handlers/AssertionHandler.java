@@ -43,6 +43,11 @@ public class AssertionHandler extends BaseNoOpHandler {
     this.methodNameUtil = methodNameUtil;
   }
 
+  @Override
+  public MethodNameFilter onRegisterDataflowMethodInvocationNames() {
+    return MethodNameUtil.assertionMethodNames();
+  }
+
   @Override
   public NullnessHint onDataflowVisitMethodInvocation(
       MethodInvocationNode node,
@@ -53,6 +53,10 @@ import org.checkerframework.nullaway.dataflow.cfg.node.MethodInvocationNode;
  * they actually need to take action on, rather than having to implement the entire Handler
  * interface. Additionally, we can add extensibility points without breaking existing handlers, as
  * long as we define the corresponding No-Op behavior here.
+ *
+ * <p>{@link CompositeHandler} only dispatches a hook to handlers that override it, so the No-Op
+ * behavior of each hook must leave the result of the composition unchanged (e.g. return its input
+ * unchanged, or {@code NullnessHint.UNKNOWN}).
  */
 public abstract class BaseNoOpHandler implements Handler {
 
@@ -160,6 +164,12 @@ public abstract class BaseNoOpHandler implements Handler {
     return NullnessHint.UNKNOWN;
   }
 
+  @Override
+  public MethodNameFilter onRegisterDataflowMethodInvocationNames() {
+    // conservatively see every invocation
+    return MethodNameFilter.anyName();
+  }
+
   @Override
   public void onDataflowVisitReturn(
       ReturnTree tree, NullnessStore thenStore, NullnessStore elseStore) {
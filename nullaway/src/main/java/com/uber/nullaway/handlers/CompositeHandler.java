@@ -22,6 +22,7 @@
 
 package com.uber.nullaway.handlers;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.VisitorState;
@@ -41,7 +42,12 @@ import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessAnalysis;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import com.uber.nullaway.dataflow.NullnessStore;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.checkerframework.nullaway.dataflow.cfg.UnderlyingAST;
 import org.checkerframework.nullaway.dataflow.cfg.node.LocalVariableNode;
@@ -55,17 +61,109 @@ import org.checkerframework.nullaway.dataflow.cfg.node.MethodInvocationNode;
  */
 class CompositeHandler implements Handler {
 
-  private final List<Handler> handlers;
+  /*
+   * For each hook, the handlers that actually implement it, in registration order. Most handlers
+   * extend BaseNoOpHandler and override only a couple of hooks, so iterating only over the
+   * handlers that care keeps the hot callbacks (e.g. those invoked per CFG node during dataflow)
+   * from paying for a virtual call into every no-op.
+   */
+  private final Handler[] onMatchTopLevelClassHandlers;
+  private final Handler[] onMatchMethodHandlers;
+  private final Handler[] onMatchLambdaExpressionHandlers;
+  private final Handler[] onMatchMethodReferenceHandlers;
+  private final Handler[] onMatchMethodInvocationHandlers;
+  private final Handler[] onMatchReturnHandlers;
+  private final Handler[] onUnannotatedInvocationGetExplicitlyNullablePositionsHandlers;
+  private final Handler[] onUnannotatedInvocationGetExplicitlyNonNullReturnHandlers;
+  private final Handler[] onUnannotatedInvocationGetNonNullPositionsHandlers;
+  private final Handler[] onOverrideMayBeNullExprHandlers;
+  private final Handler[] onDataflowInitialStoreHandlers;
+  /*
+   * Handlers for onDataflowVisitMethodInvocation are further narrowed down by invoked method name,
+   * since that hook runs for every method invocation node in every CFG.
+   */
+  private final MethodNameDispatchIndex onDataflowVisitMethodInvocationIndex;
+  private final Handler[] onDataflowVisitReturnHandlers;
+  private final Handler[] onDataflowVisitLambdaResultExpressionHandlers;
+  private final Handler[] onExpressionDereferenceHandlers;
+  private final Handler[] includeApInfoInSavedContextHandlers;
+  private final Handler[] onRegisterImmutableTypesHandlers;
+  private final Handler[] onNonNullFieldAssignmentHandlers;
 
   CompositeHandler(ImmutableList<Handler> handlers) {
-    // Attach default handlers
-    this.handlers = handlers;
+    Map<String, Handler[]> hookHandlers = computeHookHandlers(handlers);
+    onMatchTopLevelClassHandlers = handlersFor(hookHandlers, "onMatchTopLevelClass");
+    onMatchMethodHandlers = handlersFor(hookHandlers, "onMatchMethod");
+    onMatchLambdaExpressionHandlers = handlersFor(hookHandlers, "onMatchLambdaExpression");
+    onMatchMethodReferenceHandlers = handlersFor(hookHandlers, "onMatchMethodReference");
+    onMatchMethodInvocationHandlers = handlersFor(hookHandlers, "onMatchMethodInvocation");
+    onMatchReturnHandlers = handlersFor(hookHandlers, "onMatchReturn");
+    onUnannotatedInvocationGetExplicitlyNullablePositionsHandlers =
+        handlersFor(hookHandlers, "onUnannotatedInvocationGetExplicitlyNullablePositions");
+    onUnannotatedInvocationGetExplicitlyNonNullReturnHandlers =
+        handlersFor(hookHandlers, "onUnannotatedInvocationGetExplicitlyNonNullReturn");
+    onUnannotatedInvocationGetNonNullPositionsHandlers =
+        handlersFor(hookHandlers, "onUnannotatedInvocationGetNonNullPositions");
+    onOverrideMayBeNullExprHandlers = handlersFor(hookHandlers, "onOverrideMayBeNullExpr");
+    onDataflowInitialStoreHandlers = handlersFor(hookHandlers, "onDataflowInitialStore");
+    onDataflowVisitMethodInvocationIndex =
+        new MethodNameDispatchIndex(handlersFor(hookHandlers, "onDataflowVisitMethodInvocation"));
+    onDataflowVisitReturnHandlers = handlersFor(hookHandlers, "onDataflowVisitReturn");
+    onDataflowVisitLambdaResultExpressionHandlers =
+        handlersFor(hookHandlers, "onDataflowVisitLambdaResultExpression");
+    onExpressionDereferenceHandlers = handlersFor(hookHandlers, "onExpressionDereference");
+    includeApInfoInSavedContextHandlers = handlersFor(hookHandlers, "includeApInfoInSavedContext");
+    onRegisterImmutableTypesHandlers = handlersFor(hookHandlers, "onRegisterImmutableTypes");
+    onNonNullFieldAssignmentHandlers = handlersFor(hookHandlers, "onNonNullFieldAssignment");
+  }
+
+  /**
+   * Discover, once, which hooks each handler implements. A handler implements a hook unless its
+   * implementation of the corresponding {@link Handler} method is the no-op inherited from {@link
+   * BaseNoOpHandler}. This requires no cooperation from the handlers, so it works for third-party
+   * handlers too: subclasses of {@link BaseNoOpHandler} declare the hooks they implement simply by
+   * overriding them, and handlers implementing {@link Handler} directly are called for every hook.
+   *
+   * @param handlers all handlers, in registration order
+   * @return map from each {@link Handler} method name to the handlers implementing it
+   */
+  private static Map<String, Handler[]> computeHookHandlers(List<Handler> handlers) {
+    Map<String, Handler[]> result = new HashMap<>();
+    for (Method hook : Handler.class.getMethods()) {
+      if (Modifier.isStatic(hook.getModifiers())) {
+        continue;
+      }
+      List<Handler> implementing = new ArrayList<>();
+      for (Handler h : handlers) {
+        if (implementsHook(h, hook)) {
+          implementing.add(h);
+        }
+      }
+      // hook names are unique in Handler; we do not overload
+      Handler[] previous = result.put(hook.getName(), implementing.toArray(new Handler[0]));
+      Preconditions.checkState(previous == null, "overloaded handler hook %s", hook.getName());
+    }
+    return result;
+  }
+
+  private static Handler[] handlersFor(Map<String, Handler[]> hookHandlers, String hookName) {
+    return Preconditions.checkNotNull(hookHandlers.get(hookName), "no handler hook %s", hookName);
+  }
+
+  private static boolean implementsHook(Handler handler, Method hook) {
+    try {
+      Method impl = handler.getClass().getMethod(hook.getName(), hook.getParameterTypes());
+      return !impl.getDeclaringClass().equals(BaseNoOpHandler.class);
+    } catch (NoSuchMethodException e) {
+      // cannot happen for a class implementing Handler; be conservative
+      return true;
+    }
   }
 
   @Override
   public void onMatchTopLevelClass(
       NullAway analysis, ClassTree tree, VisitorState state, Symbol.ClassSymbol classSymbol) {
-    for (Handler h : handlers) {
+    for (Handler h : onMatchTopLevelClassHandlers) {
       h.onMatchTopLevelClass(analysis, tree, state, classSymbol);
     }
   }
@@ -73,7 +171,7 @@ class CompositeHandler implements Handler {
   @Override
   public void onMatchMethod(
       NullAway analysis, MethodTree tree, VisitorState state, Symbol.MethodSymbol methodSymbol) {
-    for (Handler h : handlers) {
+    for (Handler h : onMatchMethodHandlers) {
       h.onMatchMethod(analysis, tree, state, methodSymbol);
     }
   }
@@ -84,7 +182,7 @@ class CompositeHandler implements Handler {
       LambdaExpressionTree tree,
       VisitorState state,
       Symbol.MethodSymbol methodSymbol) {
-    for (Handler h : handlers) {
+    for (Handler h : onMatchLambdaExpressionHandlers) {
       h.onMatchLambdaExpression(analysis, tree, state, methodSymbol);
     }
   }
@@ -95,7 +193,7 @@ class CompositeHandler implements Handler {
       MemberReferenceTree tree,
       VisitorState state,
       Symbol.MethodSymbol methodSymbol) {
-    for (Handler h : handlers) {
+    for (Handler h : onMatchMethodReferenceHandlers) {
       h.onMatchMethodReference(analysis, tree, state, methodSymbol);
     }
   }
@@ -106,14 +204,14 @@ class CompositeHandler implements Handler {
       MethodInvocationTree tree,
       VisitorState state,
       Symbol.MethodSymbol methodSymbol) {
-    for (Handler h : handlers) {
+    for (Handler h : onMatchMethodInvocationHandlers) {
       h.onMatchMethodInvocation(analysis, tree, state, methodSymbol);
     }
   }
 
   @Override
   public void onMatchReturn(NullAway analysis, ReturnTree tree, VisitorState state) {
-    for (Handler h : handlers) {
+    for (Handler h : onMatchReturnHandlers) {
       h.onMatchReturn(analysis, tree, state);
     }
   }
@@ -123,7 +221,7 @@ class CompositeHandler implements Handler {
       Context context,
       Symbol.MethodSymbol methodSymbol,
       ImmutableSet<Integer> explicitlyNullablePositions) {
-    for (Handler h : handlers) {
+    for (Handler h : onUnannotatedInvocationGetExplicitlyNullablePositionsHandlers) {
       explicitlyNullablePositions =
           h.onUnannotatedInvocationGetExplicitlyNullablePositions(
               context, methodSymbol, explicitlyNullablePositions);
@@ -134,7 +232,7 @@ class CompositeHandler implements Handler {
   @Override
   public boolean onUnannotatedInvocationGetExplicitlyNonNullReturn(
       Symbol.MethodSymbol methodSymbol, boolean explicitlyNonNullReturn) {
-    for (Handler h : handlers) {
+    for (Handler h : onUnannotatedInvocationGetExplicitlyNonNullReturnHandlers) {
       explicitlyNonNullReturn =
           h.onUnannotatedInvocationGetExplicitlyNonNullReturn(
               methodSymbol, explicitlyNonNullReturn);
@@ -149,7 +247,7 @@ class CompositeHandler implements Handler {
       Symbol.MethodSymbol methodSymbol,
       List<? extends ExpressionTree> actualParams,
       ImmutableSet<Integer> nonNullPositions) {
-    for (Handler h : handlers) {
+    for (Handler h : onUnannotatedInvocationGetNonNullPositionsHandlers) {
       nonNullPositions =
           h.onUnannotatedInvocationGetNonNullPositions(
               analysis, state, methodSymbol, actualParams, nonNullPositions);
@@ -160,7 +258,7 @@ class CompositeHandler implements Handler {
   @Override
   public boolean onOverrideMayBeNullExpr(
       NullAway analysis, ExpressionTree expr, VisitorState state, boolean exprMayBeNull) {
-    for (Handler h : handlers) {
+    for (Handler h : onOverrideMayBeNullExprHandlers) {
       exprMayBeNull = h.onOverrideMayBeNullExpr(analysis, expr, state, exprMayBeNull);
     }
     return exprMayBeNull;
@@ -171,7 +269,7 @@ class CompositeHandler implements Handler {
       UnderlyingAST underlyingAST,
       List<LocalVariableNode> parameters,
       NullnessStore.Builder result) {
-    for (Handler h : handlers) {
+    for (Handler h : onDataflowInitialStoreHandlers) {
       result = h.onDataflowInitialStore(underlyingAST, parameters, result);
     }
     return result;
@@ -188,6 +286,9 @@ class CompositeHandler implements Handler {
       AccessPathNullnessPropagation.Updates elseUpdates,
       AccessPathNullnessPropagation.Updates bothUpdates) {
     NullnessHint nullnessHint = NullnessHint.UNKNOWN;
+    Handler[] handlers =
+        onDataflowVisitMethodInvocationIndex.handlersFor(
+            node.getTarget().getMethod().getSimpleName(), context);
     for (Handler h : handlers) {
       NullnessHint n =
           h.onDataflowVisitMethodInvocation(
@@ -197,10 +298,15 @@ class CompositeHandler implements Handler {
     return nullnessHint;
   }
 
+  @Override
+  public MethodNameFilter onRegisterDataflowMethodInvocationNames() {
+    return onDataflowVisitMethodInvocationIndex.unionFilter();
+  }
+
   @Override
   public void onDataflowVisitReturn(
       ReturnTree tree, NullnessStore thenStore, NullnessStore elseStore) {
-    for (Handler h : handlers) {
+    for (Handler h : onDataflowVisitReturnHandlers) {
       h.onDataflowVisitReturn(tree, thenStore, elseStore);
     }
   }
@@ -208,7 +314,7 @@ class CompositeHandler implements Handler {
   @Override
   public void onDataflowVisitLambdaResultExpression(
       ExpressionTree tree, NullnessStore thenStore, NullnessStore elseStore) {
-    for (Handler h : handlers) {
+    for (Handler h : onDataflowVisitLambdaResultExpressionHandlers) {
       h.onDataflowVisitLambdaResultExpression(tree, thenStore, elseStore);
     }
   }
@@ -217,7 +323,7 @@ class CompositeHandler implements Handler {
   public Optional<ErrorMessage> onExpressionDereference(
       ExpressionTree expr, ExpressionTree baseExpr, VisitorState state) {
     Optional<ErrorMessage> optionalErrorMessage;
-    for (Handler h : handlers) {
+    for (Handler h : onExpressionDereferenceHandlers) {
       optionalErrorMessage = h.onExpressionDereference(expr, baseExpr, state);
       if (optionalErrorMessage.isPresent()) {
         return optionalErrorMessage;
@@ -229,7 +335,7 @@ class CompositeHandler implements Handler {
   @Override
   public boolean includeApInfoInSavedContext(AccessPath accessPath, VisitorState state) {
     boolean shouldFilter = false;
-    for (Handler h : handlers) {
+    for (Handler h : includeApInfoInSavedContextHandlers) {
       shouldFilter |= h.includeApInfoInSavedContext(accessPath, state);
     }
     return shouldFilter;
@@ -238,7 +344,7 @@ class CompositeHandler implements Handler {
   @Override
   public ImmutableSet<String> onRegisterImmutableTypes() {
     ImmutableSet.Builder<String> builder = ImmutableSet.<String>builder();
-    for (Handler h : handlers) {
+    for (Handler h : onRegisterImmutableTypesHandlers) {
       builder.addAll(h.onRegisterImmutableTypes());
     }
     return builder.build();
@@ -247,7 +353,7 @@ class CompositeHandler implements Handler {
   @Override
   public void onNonNullFieldAssignment(
       Symbol field, AccessPathNullnessAnalysis analysis, VisitorState state) {
-    for (Handler h : handlers) {
+    for (Handler h : onNonNullFieldAssignmentHandlers) {
       h.onNonNullFieldAssignment(field, analysis, state);
     }
   }
@@ -38,7 +38,9 @@ import com.uber.nullaway.Nullness;
 import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nullable;
 import javax.lang.model.element.Element;
@@ -62,6 +64,13 @@ public class GrpcHandler extends BaseNoOpHandler {
   @Nullable private Optional<Type> grpcMetadataType;
   @Nullable private Optional<Type> grpcKeyType;
 
+  // Memoized results of grpcIsMetadataContainsKeyCall and getGetterForMetadataSubtype, so that each
+  // containsKey* method (including overrides) and each Metadata subtype is only checked once per
+  // top-level class.
+  private final Map<Symbol.MethodSymbol, Boolean> containsKeyMethods = new HashMap<>();
+  private final Map<Symbol.ClassSymbol, Optional<Symbol.MethodSymbol>> metadataGetters =
+      new HashMap<>();
+
   @Override
   public void onMatchTopLevelClass(
       NullAway analysis, ClassTree tree, VisitorState state, Symbol.ClassSymbol classSymbol) {
@@ -73,6 +82,13 @@ public class GrpcHandler extends BaseNoOpHandler {
           Optional.ofNullable(GRPC_METADATA_KEY_TYPE_SUPPLIER.get(state))
               .map(state.getTypes()::erasure);
     }
+    containsKeyMethods.clear();
+    metadataGetters.clear();
+  }
+
+  @Override
+  public MethodNameFilter onRegisterDataflowMethodInvocationNames() {
+    return MethodNameFilter.forPrefixes(GRPC_CONTAINSKEY_MNAME);
   }
 
   @Override
@@ -118,6 +134,17 @@ public class GrpcHandler extends BaseNoOpHandler {
   @Nullable
   private Symbol.MethodSymbol getGetterForMetadataSubtype(
       Symbol.ClassSymbol classSymbol, Types types) {
+    Optional<Symbol.MethodSymbol> getter = metadataGetters.get(classSymbol);
+    if (getter == null) {
+      getter = Optional.ofNullable(findGetterForMetadataSubtype(classSymbol, types));
+      metadataGetters.put(classSymbol, getter);
+    }
+    return getter.orElse(null);
+  }
+
+  @Nullable
+  private Symbol.MethodSymbol findGetterForMetadataSubtype(
+      Symbol.ClassSymbol classSymbol, Types types) {
     // Is there a better way than iteration?
     for (Symbol elem : classSymbol.getEnclosedElements()) {
       if (elem.getKind().equals(ElementKind.METHOD)) {
@@ -131,6 +158,15 @@ public class GrpcHandler extends BaseNoOpHandler {
   }
 
   private boolean grpcIsMetadataContainsKeyCall(Symbol.MethodSymbol symbol, Types types) {
+    Boolean result = containsKeyMethods.get(symbol);
+    if (result == null) {
+      result = computeIsMetadataContainsKeyCall(symbol, types);
+      containsKeyMethods.put(symbol, result);
+    }
+    return result;
+  }
+
+  private boolean computeIsMetadataContainsKeyCall(Symbol.MethodSymbol symbol, Types types) {
     Preconditions.checkNotNull(grpcMetadataType);
     Preconditions.checkNotNull(grpcKeyType);
     // noinspection ConstantConditions
@@ -245,6 +245,17 @@ public interface Handler {
       AccessPathNullnessPropagation.Updates elseUpdates,
       AccessPathNullnessPropagation.Updates bothUpdates);
 
+  /**
+   * Called once, when the handler chain is built, to learn which invocations {@link
+   * #onDataflowVisitMethodInvocation} may act upon. Invocations of methods whose simple name is not
+   * matched by the returned filter are not passed to this handler at all, which lets most
+   * invocations skip the handler without any symbol or type queries.
+   *
+   * @return a filter on the simple names of invoked methods; {@link MethodNameFilter#anyName()} if
+   *     the handler must see every invocation
+   */
+  MethodNameFilter onRegisterDataflowMethodInvocationNames();
+
   /**
    * Called when the Dataflow analysis visits a return statement.
    *
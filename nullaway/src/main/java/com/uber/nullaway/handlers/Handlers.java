@@ -56,8 +56,8 @@ public class Handlers {
       handlerListBuilder.add(new AssertionHandler(methodNameUtil));
     }
     handlerListBuilder.add(new LibraryModelsHandler(config));
-    handlerListBuilder.add(StreamNullabilityPropagatorFactory.getRxStreamNullabilityPropagator());
-    handlerListBuilder.add(StreamNullabilityPropagatorFactory.getJavaStreamNullabilityPropagator());
+    handlerListBuilder.add(
+        StreamNullabilityPropagatorFactory.getDefaultStreamNullabilityPropagator());
     handlerListBuilder.add(new ContractHandler(config));
     handlerListBuilder.add(new ApacheThriftIsSetHandler());
     handlerListBuilder.add(new GrpcHandler());
@@ -68,7 +68,8 @@ public class Handlers {
           new FieldInitializationSerializationHandler(config.getSerializationConfig()));
     }
     if (config.serializationIsActive()
-        && config.getSerializationConfig().methodParamProtectionTestEnabled) {
+        && (config.getSerializationConfig().methodParamProtectionTestEnabled
+            || config.getSerializationConfig().methodParamProtectionMultiTestEnabled)) {
       handlerListBuilder.add(new MethodParamNullableInjectorHandler(config));
     }
     if (config.checkOptionalEmptiness()) {
@@ -36,6 +36,7 @@ import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.Config;
 import com.uber.nullaway.NullAway;
+import com.uber.nullaway.ProcessCache;
 import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import com.uber.nullaway.jarinfer.JarInferStubxProvider;
@@ -48,6 +49,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import javax.annotation.Nullable;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.type.TypeKind;
 import org.checkerframework.nullaway.dataflow.cfg.node.MethodInvocationNode;
@@ -64,21 +66,43 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
   }
 
   private static final int VERSION_0_FILE_MAGIC_NUMBER = 691458791;
-  private static final String ANDROID_ASTUBX_LOCATION = "jarinfer.astubx";
-  private static final String ANDROID_MODEL_CLASS =
+  public static final String ANDROID_ASTUBX_LOCATION = "jarinfer.astubx";
+  public static final String ANDROID_MODEL_CLASS =
       "com.uber.nullaway.jarinfer.AndroidJarInferModels";
 
   private static final int RETURN = -1; // '-1' indexes Return type in the Annotation Cache
 
-  private final Map<String, Map<String, Map<Integer, Set<String>>>> argAnnotCache;
+  @Nullable private Map<String, Map<String, Map<Integer, Set<String>>>> argAnnotCache;
 
   private final Config config;
 
   public InferredJARModelsHandler(Config config) {
     super();
     this.config = config;
-    argAnnotCache = new LinkedHashMap<>();
-    loadStubxFiles();
+  }
+
+  /**
+   * Get the annotation cache, parsing the stubx files (including the Android SDK models) on first
+   * use, so that compilations that never call a method from an unannotated package don't pay for
+   * it. Stubx files are parsed once per process, and the resulting map is shared (read-only) by all
+   * later compilations, see {@link ProcessCache}.
+   */
+  @SuppressWarnings("unchecked")
+  private Map<String, Map<String, Map<Integer, Set<String>>>> getArgAnnotCache() {
+    if (argAnnotCache == null) {
+      argAnnotCache =
+          ProcessCache.get(
+              InferredJARModelsHandler.class.getClassLoader(),
+              InferredJARModelsHandler.class,
+              Map.class,
+              InferredJARModelsHandler::loadModels);
+    }
+    return argAnnotCache;
+  }
+
+  private static Map<String, Map<String, Map<Integer, Set<String>>>> loadModels() {
+    Map<String, Map<String, Map<Integer, Set<String>>>> argAnnotCache = new LinkedHashMap<>();
+    loadStubxFiles(argAnnotCache);
     // Load Android SDK JarInfer models
     try {
       InputStream androidStubxIS =
@@ -86,7 +110,7 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
               .getClassLoader()
               .getResourceAsStream(ANDROID_ASTUBX_LOCATION);
       if (androidStubxIS != null) {
-        parseStubStream(androidStubxIS, "android.jar: " + ANDROID_ASTUBX_LOCATION);
+        parseStubStream(argAnnotCache, androidStubxIS, "android.jar: " + ANDROID_ASTUBX_LOCATION);
         LOG(DEBUG, "DEBUG", "Loaded Android RT models.");
       }
     } catch (ClassNotFoundException e) {
@@ -99,13 +123,15 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
     } catch (Exception e) {
       LOG(DEBUG, "DEBUG", "Cannot load Android RT models.");
     }
+    return argAnnotCache;
   }
 
   /**
    * Loads all stubx files discovered in the classpath. Stubx files are discovered via
    * implementations of {@link JarInferStubxProvider} loaded using a {@link ServiceLoader}
    */
-  private void loadStubxFiles() {
+  private static void loadStubxFiles(
+      Map<String, Map<String, Map<Integer, Set<String>>>> argAnnotCache) {
     Iterable<JarInferStubxProvider> astubxProviders =
         ServiceLoader.load(
             JarInferStubxProvider.class, InferredJARModelsHandler.class.getClassLoader());
@@ -115,7 +141,7 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
         InputStream stubxInputStream = providerClass.getResourceAsStream(astubxPath);
         String stubxLocation = providerClass + ":" + astubxPath;
         try {
-          parseStubStream(stubxInputStream, stubxLocation);
+          parseStubStream(argAnnotCache, stubxInputStream, stubxLocation);
           LOG(DEBUG, "DEBUG", "loaded stubx file " + stubxLocation);
         } catch (IOException e) {
           throw new RuntimeException("could not parse stubx file " + stubxLocation, e);
@@ -140,7 +166,7 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
           "Skipping abstract method: " + className + " : " + methodSymbol.getQualifiedName());
       return nonNullPositions;
     }
-    if (!argAnnotCache.containsKey(className)) {
+    if (!getArgAnnotCache().containsKey(className)) {
       return nonNullPositions;
     }
     String methodSign = getMethodSignature(methodSymbol);
@@ -193,7 +219,7 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
       Preconditions.checkNotNull(methodSymbol);
       Symbol.ClassSymbol classSymbol = methodSymbol.enclClass();
       String className = classSymbol.getQualifiedName().toString();
-      if (argAnnotCache.containsKey(className)) {
+      if (getArgAnnotCache().containsKey(className)) {
         String methodSign = getMethodSignature(methodSymbol);
         Map<Integer, Set<String>> methodArgAnnotations = lookupMethodInCache(className, methodSign);
         if (methodArgAnnotations != null) {
@@ -211,10 +237,11 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
   }
 
   private Map<Integer, Set<String>> lookupMethodInCache(String className, String methodSign) {
-    if (!argAnnotCache.containsKey(className)) {
+    Map<String, Map<Integer, Set<String>>> classAnnotations = getArgAnnotCache().get(className);
+    if (classAnnotations == null) {
       return null;
     }
-    Map<Integer, Set<String>> methodArgAnnotations = argAnnotCache.get(className).get(methodSign);
+    Map<Integer, Set<String>> methodArgAnnotations = classAnnotations.get(methodSign);
     if (methodArgAnnotations == null) {
       LOG(
           VERBOSE,
@@ -266,7 +293,10 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
     }
   }
 
-  private void parseStubStream(InputStream stubxInputStream, String stubxLocation)
+  private static void parseStubStream(
+      Map<String, Map<String, Map<Integer, Set<String>>>> argAnnotCache,
+      InputStream stubxInputStream,
+      String stubxLocation)
       throws IOException {
     String[] strings;
     DataInputStream in = new DataInputStream(stubxInputStream);
@@ -305,7 +335,7 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
       String methodSig = strings[in.readInt()];
       String annotation = strings[in.readInt()];
       LOG(DEBUG, "DEBUG", "method: " + methodSig + ", return annotation: " + annotation);
-      cacheAnnotation(methodSig, RETURN, annotation);
+      cacheAnnotation(argAnnotCache, methodSig, RETURN, annotation);
     }
     // Read the number of (method, argument, annotation) entries
     int numArgumentRecords = in.readInt();
@@ -322,11 +352,15 @@ public class InferredJARModelsHandler extends BaseNoOpHandler {
           DEBUG,
           "DEBUG",
           "method: " + methodSig + ", argNum: " + argNum + ", arg annotation: " + annotation);
-      cacheAnnotation(methodSig, argNum, annotation);
+      cacheAnnotation(argAnnotCache, methodSig, argNum, annotation);
     }
   }
 
-  private void cacheAnnotation(String methodSig, Integer argNum, String annotation) {
+  private static void cacheAnnotation(
+      Map<String, Map<String, Map<Integer, Set<String>>>> argAnnotCache,
+      String methodSig,
+      Integer argNum,
+      String annotation) {
     // TODO: handle inner classes properly
     String className = methodSig.split(":")[0].replace('$', '.');
     if (!argAnnotCache.containsKey(className)) {
@@ -43,6 +43,7 @@ import com.uber.nullaway.Config;
 import com.uber.nullaway.LibraryModels;
 import com.uber.nullaway.LibraryModels.MethodRef;
 import com.uber.nullaway.NullAway;
+import com.uber.nullaway.ProcessCache;
 import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import java.util.ArrayList;
@@ -66,14 +67,16 @@ import org.checkerframework.nullaway.dataflow.cfg.node.Node;
 public class LibraryModelsHandler extends BaseNoOpHandler {
 
   private final Config config;
-  private final LibraryModels libraryModels;
 
+  /**
+   * Built on first use, together with the library models it is built from, so that compilations
+   * that never call a method from an unannotated package don't pay for loading them.
+   */
   @Nullable private OptimizedLibraryModels optLibraryModels;
 
   public LibraryModelsHandler(Config config) {
     super();
     this.config = config;
-    libraryModels = loadLibraryModels();
   }
 
   @Override
@@ -214,7 +217,7 @@ public class LibraryModelsHandler extends BaseNoOpHandler {
 
   private OptimizedLibraryModels getOptLibraryModels(Context context) {
     if (optLibraryModels == null) {
-      optLibraryModels = new OptimizedLibraryModels(libraryModels, context);
+      optLibraryModels = new OptimizedLibraryModels(loadLibraryModels(), context);
     }
     return optLibraryModels;
   }
@@ -233,9 +236,18 @@ public class LibraryModelsHandler extends BaseNoOpHandler {
     }
   }
 
+  /**
+   * Loads the built-in library models and those found via {@link ServiceLoader}. They are loaded
+   * once per process (see {@link ProcessCache}) and shared by later compilations.
+   */
   private static LibraryModels loadLibraryModels() {
-    Iterable<LibraryModels> externalLibraryModels =
-        ServiceLoader.load(LibraryModels.class, LibraryModels.class.getClassLoader());
+    ClassLoader loader = LibraryModels.class.getClassLoader();
+    return ProcessCache.get(
+        loader, LibraryModels.class, LibraryModels.class, () -> combineLibraryModels(loader));
+  }
+
+  private static LibraryModels combineLibraryModels(ClassLoader loader) {
+    Iterable<LibraryModels> externalLibraryModels = ServiceLoader.load(LibraryModels.class, loader);
     ImmutableSet.Builder<LibraryModels> libModelsBuilder = new ImmutableSet.Builder<>();
     libModelsBuilder.add(new DefaultLibraryModels()).addAll(externalLibraryModels);
     return new CombinedLibraryModels(libModelsBuilder.build());
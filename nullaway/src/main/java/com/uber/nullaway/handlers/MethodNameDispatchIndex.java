@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.handlers;
+
+import com.sun.tools.javac.util.Context;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.lang.model.element.Name;
+
+/**
+ * Maps invoked method names to the handlers interested in them, per the {@link MethodNameFilter}s
+ * registered via {@link Handler#onRegisterDataflowMethodInvocationNames()}.
+ *
+ * <p>Lookups are memoized by javac {@link Name} identity: names are interned in the name table of
+ * a javac context, so after the first invocation of a method with a given name, finding its
+ * handlers is a single identity-map lookup. The memo is reset when the context changes.
+ */
+final class MethodNameDispatchIndex {
+
+  private static final Handler[] NO_HANDLERS = new Handler[0];
+
+  private final Handler[] handlers;
+
+  private final MethodNameFilter[] filters;
+
+  private final Map<Name, Handler[]> handlersForName = new IdentityHashMap<>();
+
+  @Nullable private Context indexContext;
+
+  /**
+   * @param handlers handlers implementing {@link Handler#onDataflowVisitMethodInvocation}, in
+   *     registration order
+   */
+  MethodNameDispatchIndex(Handler[] handlers) {
+    this.handlers = handlers;
+    this.filters = new MethodNameFilter[handlers.length];
+    for (int i = 0; i < handlers.length; i++) {
+      filters[i] = handlers[i].onRegisterDataflowMethodInvocationNames();
+    }
+  }
+
+  /**
+   * @param methodName simple name of the invoked method
+   * @param context javac context in which {@code methodName} was interned
+   * @return handlers interested in invocations of methods named {@code methodName}, in
+   *     registration order
+   */
+  Handler[] handlersFor(Name methodName, Context context) {
+    if (context != indexContext) {
+      handlersForName.clear();
+      indexContext = context;
+    }
+    Handler[] result = handlersForName.get(methodName);
+    if (result == null) {
+      result = computeHandlersFor(methodName.toString());
+      handlersForName.put(methodName, result);
+    }
+    return result;
+  }
+
+  /**
+   * @return the union of the filters of all indexed handlers
+   */
+  MethodNameFilter unionFilter() {
+    MethodNameFilter result = MethodNameFilter.forNames();
+    for (MethodNameFilter filter : filters) {
+      result = result.union(filter);
+    }
+    return result;
+  }
+
+  private Handler[] computeHandlersFor(String methodName) {
+    List<Handler> result = new ArrayList<>();
+    for (int i = 0; i < handlers.length; i++) {
+      if (filters[i].matches(methodName)) {
+        result.add(handlers[i]);
+      }
+    }
+    return result.isEmpty() ? NO_HANDLERS : result.toArray(NO_HANDLERS);
+  }
+}
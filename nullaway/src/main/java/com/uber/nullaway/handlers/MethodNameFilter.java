@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.handlers;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A filter on the simple names of invoked methods, used by handlers to declare which invocations
+ * they act upon (see {@link Handler#onRegisterDataflowMethodInvocationNames()}).
+ *
+ * <p>A name matches if it is one of the given names, or starts with one of the given prefixes.
+ */
+public final class MethodNameFilter {
+
+  private static final MethodNameFilter ANY_NAME =
+      new MethodNameFilter(true, ImmutableSet.of(), ImmutableSet.of());
+
+  private final boolean matchesAnyName;
+
+  private final ImmutableSet<String> names;
+
+  private final ImmutableSet<String> prefixes;
+
+  private MethodNameFilter(
+      boolean matchesAnyName, ImmutableSet<String> names, ImmutableSet<String> prefixes) {
+    this.matchesAnyName = matchesAnyName;
+    this.names = names;
+    this.prefixes = prefixes;
+  }
+
+  /**
+   * @return a filter matching every method name
+   */
+  public static MethodNameFilter anyName() {
+    return ANY_NAME;
+  }
+
+  /**
+   * @param names exact method simple names
+   * @return a filter matching exactly the given names
+   */
+  public static MethodNameFilter forNames(String... names) {
+    return new MethodNameFilter(false, ImmutableSet.copyOf(names), ImmutableSet.of());
+  }
+
+  /**
+   * @param prefixes method simple name prefixes, e.g. {@code "isSet"}
+   * @return a filter matching names starting with any of the given prefixes
+   */
+  public static MethodNameFilter forPrefixes(String... prefixes) {
+    return new MethodNameFilter(false, ImmutableSet.of(), ImmutableSet.copyOf(prefixes));
+  }
+
+  /**
+   * @param other another filter
+   * @return a filter matching the names matched by either {@code this} or {@code other}
+   */
+  public MethodNameFilter union(MethodNameFilter other) {
+    if (matchesAnyName || other.matchesAnyName) {
+      return ANY_NAME;
+    }
+    return new MethodNameFilter(
+        false,
+        ImmutableSet.<String>builder().addAll(names).addAll(other.names).build(),
+        ImmutableSet.<String>builder().addAll(prefixes).addAll(other.prefixes).build());
+  }
+
+  /**
+   * @return true if this filter matches every method name
+   */
+  public boolean matchesAnyName() {
+    return matchesAnyName;
+  }
+
+  /**
+   * @param methodName simple name of a method
+   * @return true if this filter matches {@code methodName}
+   */
+  public boolean matches(String methodName) {
+    if (matchesAnyName || names.contains(methodName)) {
+      return true;
+    }
+    for (String prefix : prefixes) {
+      if (methodName.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -81,6 +81,22 @@ class MethodNameUtil {
   private Name notNullValueMatcher;
   private Name nullValueMatcher;
 
+  /**
+   * Names of the methods whose invocations {@link AssertionHandler} handles in dataflow: Truth's
+   * {@code isNotNull()}, and the {@code assertThat} methods of Truth, Hamcrest and JUnit.
+   */
+  static MethodNameFilter assertionMethodNames() {
+    return MethodNameFilter.forNames(IS_NOT_NULL_METHOD, ASSERT_THAT_METHOD);
+  }
+
+  /**
+   * Name of Truth's {@code isTrue()}, whose invocations {@link OptionalEmptinessHandler} handles
+   * in dataflow.
+   */
+  static MethodNameFilter isTrueMethodNames() {
+    return MethodNameFilter.forNames(IS_TRUE_METHOD);
+  }
+
   void initializeMethodNames(Name.Table table) {
     isNotNull = table.fromString(IS_NOT_NULL_METHOD);
     isNotNullOwner = table.fromString(IS_NOT_NULL_OWNER);
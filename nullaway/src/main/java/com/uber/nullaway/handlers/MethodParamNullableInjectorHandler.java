@@ -22,12 +22,27 @@
 
 package com.uber.nullaway.handlers;
 
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.uber.nullaway.ClassAnnotationInfo;
 import com.uber.nullaway.Config;
+import com.uber.nullaway.MethodSummaries;
+import com.uber.nullaway.NullAway;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.NullnessStore;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
+import com.uber.nullaway.fixserialization.Serializer;
+import com.uber.nullaway.fixserialization.out.ParamTestInfo;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.checkerframework.nullaway.dataflow.cfg.UnderlyingAST;
 import org.checkerframework.nullaway.dataflow.cfg.node.LocalVariableNode;
 
@@ -35,14 +50,30 @@ import org.checkerframework.nullaway.dataflow.cfg.node.LocalVariableNode;
  * This handler transforms method parameter's state at index {@link
  * FixSerializationConfig#paramTestIndex} for all methods to {@code @Nullable}. It provides the
  * facility to measure protection of methods against nullability of each argument. This handler is
- * activated only if {@link FixSerializationConfig#methodParamProtectionTestEnabled} is enabled.
+ * activated only if {@link FixSerializationConfig#methodParamProtectionTestEnabled} or {@link
+ * FixSerializationConfig#methodParamProtectionMultiTestEnabled} is enabled.
+ *
+ * <p>In multi-candidate mode ({@link
+ * FixSerializationConfig#methodParamProtectionMultiTestEnabled}), the handler instead evaluates
+ * every candidate parameter (non-primitive and without a nullability annotation) of every matched
+ * method in a single compilation. For each candidate read in the method body, it re-runs the
+ * checks of NullAway on that method, with its dataflow assuming the parameter is {@code
+ * @Nullable}, and compares the number of errors with that of the method as declared (see {@link
+ * NullAway#countErrorsInMethodAssumingNullable}). It also re-runs the override check of each
+ * method against the method it overrides, assuming a candidate of either method is {@code
+ * @Nullable}. Errors it would remove at call sites are recorded when they are reported, see {@link
+ * com.uber.nullaway.fixserialization.SerializationService#serializeFixSuggestion}. All are
+ * serialized as {@link ParamTestInfo} rows.
  */
 public class MethodParamNullableInjectorHandler extends BaseNoOpHandler {
 
   private final FixSerializationConfig config;
 
+  private final Config nullawayConfig;
+
   public MethodParamNullableInjectorHandler(Config config) {
     this.config = config.getSerializationConfig();
+    this.nullawayConfig = config;
   }
 
   @Override
@@ -51,10 +82,94 @@ public class MethodParamNullableInjectorHandler extends BaseNoOpHandler {
       List<LocalVariableNode> parameters,
       NullnessStore.Builder result) {
     int index = config.paramTestIndex;
-    if (index >= parameters.size() || !(underlyingAST instanceof UnderlyingAST.CFGMethod)) {
+    if (!config.methodParamProtectionTestEnabled
+        || index >= parameters.size()
+        || !(underlyingAST instanceof UnderlyingAST.CFGMethod)) {
       return super.onDataflowInitialStore(underlyingAST, parameters, result);
     }
     result.setInformation(AccessPath.fromLocal(parameters.get(index)), Nullness.NULLABLE);
     return result;
   }
+
+  @Override
+  public void onMatchMethod(
+      NullAway analysis, MethodTree tree, VisitorState state, Symbol.MethodSymbol methodSymbol) {
+    if (!config.methodParamProtectionMultiTestEnabled) {
+      return;
+    }
+    Serializer serializer = config.getSerializer();
+    boolean overrideError = analysis.hasOverrideErrorAssumingNullable(state, methodSymbol, null);
+    // a method overriding this one gets an error if it keeps the parameter @NonNull
+    Symbol.MethodSymbol overriddenMethod =
+        MethodSummaries.instance(state.context)
+            .get(methodSymbol)
+            .getClosestOverriddenMethod(state.getTypes());
+    if (overriddenMethod != null
+        && !ClassAnnotationInfo.instance(state.context)
+            .isSymbolUnannotated(overriddenMethod, nullawayConfig)) {
+      for (Symbol.VarSymbol param : overriddenMethod.getParameters()) {
+        if (isCandidate(param, state)
+            && isInSource(param, state)
+            && analysis.hasOverrideErrorAssumingNullable(state, methodSymbol, param)
+                != overrideError) {
+          serializer.serializeParamTestInfo(
+              new ParamTestInfo(param, ParamTestInfo.Site.OVERRIDE, overrideError ? -1 : 1));
+        }
+      }
+    }
+    if (tree.getBody() == null) {
+      return;
+    }
+    Set<Symbol> readLocals = readLocals(tree);
+    // errors of the method as declared, computed on first use
+    int errors = -1;
+    for (Symbol.VarSymbol param : methodSymbol.getParameters()) {
+      if (!isCandidate(param, state)) {
+        continue;
+      }
+      // this method no longer gets an error for overriding a @Nullable parameter as @NonNull
+      if (analysis.hasOverrideErrorAssumingNullable(state, methodSymbol, param) != overrideError) {
+        serializer.serializeParamTestInfo(
+            new ParamTestInfo(param, ParamTestInfo.Site.OVERRIDE, overrideError ? -1 : 1));
+      }
+      int addedErrors = 0;
+      // a parameter that is never read cannot make anything @Nullable
+      if (readLocals.contains(param)) {
+        if (errors < 0) {
+          errors = analysis.countErrorsInMethodAssumingNullable(state, null);
+        }
+        addedErrors = analysis.countErrorsInMethodAssumingNullable(state, param) - errors;
+      }
+      serializer.serializeParamTestInfo(
+          new ParamTestInfo(param, ParamTestInfo.Site.BODY, addedErrors));
+    }
+  }
+
+  private boolean isCandidate(Symbol.VarSymbol param, VisitorState state) {
+    return !param.type.isPrimitive()
+        && !Nullness.hasNullableAnnotation(param, nullawayConfig, state.context)
+        && !Nullness.hasNonNullAnnotation(param, nullawayConfig, state.context);
+  }
+
+  /** Only parameters declared in the source being compiled get rows of their own. */
+  private static boolean isInSource(Symbol.VarSymbol param, VisitorState state) {
+    return Trees.instance(JavacProcessingEnvironment.instance(state.context)).getPath(param)
+        != null;
+  }
+
+  /** Collects the parameters and local variables read in a method. */
+  private static Set<Symbol> readLocals(MethodTree tree) {
+    Set<Symbol> result = new HashSet<>();
+    new TreeScanner<Void, Void>() {
+      @Override
+      public Void visitIdentifier(IdentifierTree identifier, Void unused) {
+        Symbol symbol = ASTHelpers.getSymbol(identifier);
+        if (symbol != null) {
+          result.add(symbol);
+        }
+        return null;
+      }
+    }.scan(tree.getBody(), null);
+    return result;
+  }
 }
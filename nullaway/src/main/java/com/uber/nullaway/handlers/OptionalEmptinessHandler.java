@@ -32,6 +32,7 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Names;
 import com.uber.nullaway.Config;
 import com.uber.nullaway.ErrorMessage;
 import com.uber.nullaway.NullAway;
@@ -40,7 +41,9 @@ import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessAnalysis;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import java.lang.annotation.Annotation;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -65,6 +68,15 @@ public class OptionalEmptinessHandler extends BaseNoOpHandler {
   @Nullable private ImmutableSet<Type> optionalTypes;
   private NullAway analysis;
 
+  // Interned names of the Optional methods we care about, for cheap comparisons
+  @Nullable private Name isPresentName;
+  @Nullable private Name getName;
+
+  // Methods already looked at by isNoArgOptionalMethod, mapped to the result. Only methods named
+  // isPresent or get are ever added, and overriding methods are just more keys, so the common case
+  // is a name comparison followed by a single lookup, with no type queries.
+  private final Map<Symbol.MethodSymbol, Boolean> noArgOptionalMethods = new HashMap<>();
+
   private final Config config;
   private final MethodNameUtil methodNameUtil;
 
@@ -91,12 +103,29 @@ public class OptionalEmptinessHandler extends BaseNoOpHandler {
 
     this.analysis = analysis;
 
-    optionalTypes =
+    ImmutableSet<Type> currentOptionalTypes =
         config.getOptionalClassPaths().stream()
             .map(state::getTypeFromString)
             .filter(Objects::nonNull)
             .map(state.getTypes()::erasure)
             .collect(ImmutableSet.toImmutableSet());
+    if (!currentOptionalTypes.equals(optionalTypes)) {
+      // First class, or a new compilation: cached symbols and names are from another context
+      optionalTypes = currentOptionalTypes;
+      noArgOptionalMethods.clear();
+      Names names = Names.instance(state.context);
+      isPresentName = names.fromString("isPresent");
+      getName = names.fromString("get");
+    }
+  }
+
+  @Override
+  public MethodNameFilter onRegisterDataflowMethodInvocationNames() {
+    MethodNameFilter filter = MethodNameFilter.forNames("isPresent");
+    if (config.handleTestAssertionLibraries()) {
+      filter = filter.union(MethodNameUtil.isTrueMethodNames());
+    }
+    return filter;
   }
 
   @Override
@@ -113,7 +142,7 @@ public class OptionalEmptinessHandler extends BaseNoOpHandler {
 
     if (optionalIsPresentCall(symbol, types)) {
       updateNonNullAPsForOptionalContent(thenUpdates, node.getTarget().getReceiver(), apContext);
-    } else if (config.handleTestAssertionLibraries() && methodNameUtil.isMethodIsTrue(symbol)) {
+    } else if (config.handleTestAssertionLibraries() && isMethodIsTrue(symbol)) {
       // we check for instance of AssertThat(optionalFoo.isPresent()).isTrue()
       updateIfAssertIsPresentTrueOnOptional(node, types, apContext, bothUpdates);
     }
@@ -155,6 +184,15 @@ public class OptionalEmptinessHandler extends BaseNoOpHandler {
     return false;
   }
 
+  private boolean isMethodIsTrue(Symbol.MethodSymbol symbol) {
+    // AssertionHandler only sees invocations of the methods it registers for, so we cannot rely on
+    // it having initialized the shared method names
+    if (!methodNameUtil.isUtilInitialized()) {
+      methodNameUtil.initializeMethodNames(symbol.name.table);
+    }
+    return methodNameUtil.isMethodIsTrue(symbol);
+  }
+
   private void updateIfAssertIsPresentTrueOnOptional(
       MethodInvocationNode node,
       Types types,
@@ -196,25 +234,32 @@ public class OptionalEmptinessHandler extends BaseNoOpHandler {
   }
 
   private boolean optionalIsPresentCall(Symbol.MethodSymbol symbol, Types types) {
-    for (Type optionalType : optionalTypes) {
-      if (symbol.getSimpleName().toString().equals("isPresent")
-          && symbol.getParameters().length() == 0
-          && types.isSubtype(symbol.owner.type, optionalType)) {
-        return true;
-      }
-    }
-    return false;
+    return symbol.getSimpleName().equals(isPresentName) && isNoArgOptionalMethod(symbol, types);
   }
 
   private boolean optionalIsGetCall(Symbol.MethodSymbol symbol, Types types) {
-    for (Type optionalType : optionalTypes) {
-      if (symbol.getSimpleName().toString().equals("get")
-          && symbol.getParameters().length() == 0
-          && types.isSubtype(symbol.owner.type, optionalType)) {
-        return true;
+    return symbol.getSimpleName().equals(getName) && isNoArgOptionalMethod(symbol, types);
+  }
+
+  /**
+   * Is {@code symbol} a method without parameters declared in one of the {@link #optionalTypes} or
+   * any of their subtypes (e.g. an override of {@code Optional.get()})? Memoized per symbol.
+   */
+  private boolean isNoArgOptionalMethod(Symbol.MethodSymbol symbol, Types types) {
+    Boolean result = noArgOptionalMethods.get(symbol);
+    if (result == null) {
+      result = false;
+      if (symbol.getParameters().length() == 0) {
+        for (Type optionalType : optionalTypes) {
+          if (types.isSubtype(symbol.owner.type, optionalType)) {
+            result = true;
+            break;
+          }
+        }
       }
+      noArgOptionalMethods.put(symbol, result);
     }
-    return false;
+    return result;
   }
 
   private static VariableElement getOptionalContentElement() {
@@ -33,6 +33,8 @@ import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.ClassAnnotationInfo;
 import com.uber.nullaway.Config;
+import com.uber.nullaway.MethodSummaries;
+import com.uber.nullaway.MethodSummary;
 import com.uber.nullaway.NullAway;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.dataflow.AccessPath;
@@ -60,7 +62,7 @@ public class RestrictiveAnnotationHandler extends BaseNoOpHandler {
     HashSet<Integer> positions = new HashSet<Integer>();
     positions.addAll(nonNullPositions);
     for (int i = 0; i < methodSymbol.getParameters().size(); ++i) {
-      if (Nullness.paramHasNonNullAnnotation(methodSymbol, i, config)) {
+      if (getSummary(state.context, methodSymbol).isParamNonNull(i, config)) {
         positions.add(i);
       }
     }
@@ -80,7 +82,8 @@ public class RestrictiveAnnotationHandler extends BaseNoOpHandler {
             && classAnnotationInfo.isGenerated(methodSymbol, config)) {
           return exprMayBeNull;
         } else {
-          return Nullness.hasNullableAnnotation(methodSymbol, config) || exprMayBeNull;
+          return getSummary(state.context, methodSymbol).hasNullableReturn(config)
+              || exprMayBeNull;
         }
       } else {
         return exprMayBeNull;
@@ -98,6 +101,10 @@ public class RestrictiveAnnotationHandler extends BaseNoOpHandler {
     return classAnnotationInfo;
   }
 
+  private static MethodSummary getSummary(Context context, Symbol.MethodSymbol methodSymbol) {
+    return MethodSummaries.instance(context).get(methodSymbol);
+  }
+
   @Override
   public ImmutableSet<Integer> onUnannotatedInvocationGetExplicitlyNullablePositions(
       Context context,
@@ -106,7 +113,7 @@ public class RestrictiveAnnotationHandler extends BaseNoOpHandler {
     HashSet<Integer> positions = new HashSet<Integer>();
     positions.addAll(explicitlyNullablePositions);
     for (int i = 0; i < methodSymbol.getParameters().size(); ++i) {
-      if (Nullness.paramHasNullableAnnotation(methodSymbol, i, config)) {
+      if (getSummary(context, methodSymbol).isParamNullable(i, config)) {
         positions.add(i);
       }
     }
@@ -131,7 +138,7 @@ public class RestrictiveAnnotationHandler extends BaseNoOpHandler {
       AccessPathNullnessPropagation.Updates bothUpdates) {
     Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(node.getTree());
     if (getClassAnnotationInfo(context).isSymbolUnannotated(methodSymbol, config)
-        && Nullness.hasNullableAnnotation(methodSymbol, config)) {
+        && getSummary(context, methodSymbol).hasNullableReturn(config)) {
       return NullnessHint.HINT_NULLABLE;
     }
     return NullnessHint.UNKNOWN;
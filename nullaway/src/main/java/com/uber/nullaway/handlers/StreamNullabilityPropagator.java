@@ -24,6 +24,8 @@ package com.uber.nullaway.handlers;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ClassTree;
@@ -44,12 +46,14 @@ import com.sun.tools.javac.tree.JCTree;
 import com.uber.nullaway.NullAway;
 import com.uber.nullaway.NullabilityUtil;
 import com.uber.nullaway.Nullness;
+import com.uber.nullaway.Profiling;
 import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathElement;
 import com.uber.nullaway.dataflow.AccessPathNullnessAnalysis;
 import com.uber.nullaway.dataflow.NullnessStore;
 import com.uber.nullaway.handlers.stream.MaplikeMethodRecord;
 import com.uber.nullaway.handlers.stream.MaplikeToFilterInstanceRecord;
+import com.uber.nullaway.handlers.stream.StreamTypeMatchCache;
 import com.uber.nullaway.handlers.stream.StreamTypeRecord;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -95,8 +99,9 @@ class StreamNullabilityPropagator extends BaseNoOpHandler {
    * This class works by building the following maps which keep enough state outside of the standard dataflow
    * analysis for us to figure out what's going on:
    *
-   * Note: If this state ever becomes a memory issue, we can discard it as soon as we exit any method at the
-   * topmost scope (e.g. not a method called from an anonymous inner class inside another method or a lambda).
+   * Note: A chain and all the methods and lambdas passed to it are nested within the same method at the
+   * topmost scope (e.g. not a method of an anonymous inner class inside another method or a lambda), so this
+   * state is discarded as soon as we start matching the next such method (see releaseChainState()).
    */
 
   // Set of filter methods found thus far (e.g. A.filter, see above)
@@ -151,15 +156,45 @@ class StreamNullabilityPropagator extends BaseNoOpHandler {
       new LinkedHashMap<>();
   private final ImmutableList<StreamTypeRecord> models;
 
+  // Dispatch table from the simple name of each filter, map or passthrough method of any of the
+  // models to the models defining it. Invocations of methods with any other name are irrelevant,
+  // and are skipped without any type check, no matter how many models are loaded.
+  private final ImmutableSetMultimap<String, StreamTypeRecord> modelsByMethodName;
+
+  // Max number of entries held in the maps above at any one time, across all compilation units
+  private int peakRetainedEntries;
+
   StreamNullabilityPropagator(ImmutableList<StreamTypeRecord> models) {
     super();
     this.models = models;
+    ImmutableSetMultimap.Builder<String, StreamTypeRecord> modelsByMethodNameBuilder =
+        ImmutableSetMultimap.builder();
+    for (StreamTypeRecord model : models) {
+      for (String methodName : model.getMethodSimpleNames()) {
+        modelsByMethodNameBuilder.put(methodName, model);
+      }
+    }
+    this.modelsByMethodName = modelsByMethodNameBuilder.build();
   }
 
   @Override
   public void onMatchTopLevelClass(
       NullAway analysis, ClassTree tree, VisitorState state, Symbol.ClassSymbol classSymbol) {
     // Clear compilation unit specific state
+    releaseChainState();
+    if (analysis.getConfig().printProfilingOutput()) {
+      Profiling.instance(state.context)
+          .register("streams.peakRetainedEntries", this::getPeakRetainedEntryCount);
+    }
+  }
+
+  /**
+   * Discard the state of all observable chains seen so far. Only safe to call when the analysis
+   * will not revisit any of the methods or lambdas in those chains, i.e., outside of any method,
+   * lambda or initializer that contains one of them.
+   */
+  private void releaseChainState() {
+    peakRetainedEntries = Math.max(peakRetainedEntries, getRetainedEntryCount());
     this.filterMethodOrLambdaSet.clear();
     this.observableOuterCallInChain.clear();
     this.observableCallToInnerMethodOrLambda.clear();
@@ -167,6 +202,28 @@ class StreamNullabilityPropagator extends BaseNoOpHandler {
     this.filterToNSMap.clear();
     this.bodyToMethodOrLambda.clear();
     this.returnToEnclosingMethodOrLambda.clear();
+    this.expressionBodyToFilterLambda.clear();
+  }
+
+  /**
+   * @return number of entries currently held for observable chains
+   */
+  int getRetainedEntryCount() {
+    return filterMethodOrLambdaSet.size()
+        + observableOuterCallInChain.size()
+        + observableCallToInnerMethodOrLambda.size()
+        + mapToFilterMap.size()
+        + filterToNSMap.size()
+        + bodyToMethodOrLambda.size()
+        + returnToEnclosingMethodOrLambda.size()
+        + expressionBodyToFilterLambda.size();
+  }
+
+  /**
+   * @return the maximum of {@link #getRetainedEntryCount()} over the lifetime of this handler
+   */
+  int getPeakRetainedEntryCount() {
+    return Math.max(peakRetainedEntries, getRetainedEntryCount());
   }
 
   @Override
@@ -175,43 +232,53 @@ class StreamNullabilityPropagator extends BaseNoOpHandler {
       MethodInvocationTree tree,
       VisitorState state,
       Symbol.MethodSymbol methodSymbol) {
+    ImmutableSet<StreamTypeRecord> candidateModels =
+        modelsByMethodName.get(methodSymbol.getSimpleName().toString());
+    if (candidateModels.isEmpty()) {
+      // Not a filter, map or passthrough method of any stream type, so it can neither start nor
+      // continue an observable chain and we don't need to record it (see handleChainFromFilter).
+      return;
+    }
     Type receiverType = ASTHelpers.getReceiverType(tree);
-    for (StreamTypeRecord streamType : models) {
-      if (streamType.matchesType(receiverType, state)) {
-        // Build observable call chain
-        buildObservableCallChain(tree);
-
-        // Dispatch to code handling specific observer methods
-        if (streamType.isFilterMethod(methodSymbol) && methodSymbol.getParameters().length() == 1) {
-          ExpressionTree argTree = tree.getArguments().get(0);
-          if (argTree instanceof NewClassTree) {
-            ClassTree annonClassBody = ((NewClassTree) argTree).getClassBody();
-            // Ensure that this `new A() ...` has a custom class body, otherwise, we skip for now.
-            // In the future, we could look at the declared type and its inheritance chain, at least
-            // for
-            // filters.
-            if (annonClassBody != null) {
-              handleFilterAnonClass(streamType, tree, annonClassBody, state);
-            }
-          } else if (argTree instanceof LambdaExpressionTree) {
-            LambdaExpressionTree lambdaTree = (LambdaExpressionTree) argTree;
-            handleFilterLambda(streamType, tree, lambdaTree, state);
+    ImmutableList<StreamTypeRecord> matchingModels =
+        StreamTypeMatchCache.instance(state.context).getMatchingModels(models, receiverType, state);
+    for (StreamTypeRecord streamType : matchingModels) {
+      if (!candidateModels.contains(streamType)) {
+        continue;
+      }
+      // Build observable call chain
+      buildObservableCallChain(tree);
+
+      // Dispatch to code handling specific observer methods
+      if (streamType.isFilterMethod(methodSymbol) && methodSymbol.getParameters().length() == 1) {
+        ExpressionTree argTree = tree.getArguments().get(0);
+        if (argTree instanceof NewClassTree) {
+          ClassTree annonClassBody = ((NewClassTree) argTree).getClassBody();
+          // Ensure that this `new A() ...` has a custom class body, otherwise, we skip for now.
+          // In the future, we could look at the declared type and its inheritance chain, at least
+          // for
+          // filters.
+          if (annonClassBody != null) {
+            handleFilterAnonClass(streamType, tree, annonClassBody, state);
           }
-        } else if (streamType.isMapMethod(methodSymbol)
-            && methodSymbol.getParameters().length() == 1) {
-          ExpressionTree argTree = tree.getArguments().get(0);
-          if (argTree instanceof NewClassTree) {
-            ClassTree annonClassBody = ((NewClassTree) argTree).getClassBody();
-            // Ensure that this `new B() ...` has a custom class body, otherwise, we skip for now.
-            if (annonClassBody != null) {
-              MaplikeMethodRecord methodRecord = streamType.getMaplikeMethodRecord(methodSymbol);
-              handleMapAnonClass(methodRecord, tree, annonClassBody);
-            }
-          } else if (argTree instanceof LambdaExpressionTree) {
-            observableCallToInnerMethodOrLambda.put(tree, argTree);
-          } else if (argTree instanceof MemberReferenceTree) {
-            observableCallToInnerMethodOrLambda.put(tree, argTree);
+        } else if (argTree instanceof LambdaExpressionTree) {
+          LambdaExpressionTree lambdaTree = (LambdaExpressionTree) argTree;
+          handleFilterLambda(streamType, tree, lambdaTree, state);
+        }
+      } else if (streamType.isMapMethod(methodSymbol)
+          && methodSymbol.getParameters().length() == 1) {
+        ExpressionTree argTree = tree.getArguments().get(0);
+        if (argTree instanceof NewClassTree) {
+          ClassTree annonClassBody = ((NewClassTree) argTree).getClassBody();
+          // Ensure that this `new B() ...` has a custom class body, otherwise, we skip for now.
+          if (annonClassBody != null) {
+            MaplikeMethodRecord methodRecord = streamType.getMaplikeMethodRecord(methodSymbol);
+            handleMapAnonClass(methodRecord, tree, annonClassBody);
           }
+        } else if (argTree instanceof LambdaExpressionTree) {
+          observableCallToInnerMethodOrLambda.put(tree, argTree);
+        } else if (argTree instanceof MemberReferenceTree) {
+          observableCallToInnerMethodOrLambda.put(tree, argTree);
         }
       }
     }
@@ -252,7 +319,9 @@ class StreamNullabilityPropagator extends BaseNoOpHandler {
         }
       }
     } while (outerCallInChain != null
-        && streamType.matchesType(ASTHelpers.getReceiverType(outerCallInChain), state)
+        && StreamTypeMatchCache.instance(state.context)
+            .getMatchingModels(models, ASTHelpers.getReceiverType(outerCallInChain), state)
+            .contains(streamType)
         && streamType.isPassthroughMethod(ASTHelpers.getSymbol(outerCallInChain)));
   }
 
@@ -295,6 +364,11 @@ class StreamNullabilityPropagator extends BaseNoOpHandler {
   @Override
   public void onMatchMethod(
       NullAway analysis, MethodTree tree, VisitorState state, Symbol.MethodSymbol methodSymbol) {
+    if (NullabilityUtil.findEnclosingMethodOrLambdaOrInitializer(state.getPath()) == null) {
+      // A method at the topmost scope: we are done with all chains in the preceding members of the
+      // class, including those nested in them.
+      releaseChainState();
+    }
     if (mapToFilterMap.containsKey(tree)) {
       bodyToMethodOrLambda.put(tree.getBody(), tree);
     }
@@ -24,116 +24,149 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.predicates.type.DescendantOf;
 import com.google.errorprone.suppliers.Suppliers;
+import com.uber.nullaway.ProcessCache;
 import com.uber.nullaway.handlers.stream.StreamModelBuilder;
+import com.uber.nullaway.handlers.stream.StreamModels;
 import com.uber.nullaway.handlers.stream.StreamTypeRecord;
+import java.util.ServiceLoader;
 
 public class StreamNullabilityPropagatorFactory {
+
+  /**
+   * Get a propagator for all built-in stream models, plus those of any {@link StreamModels}
+   * implementation found by {@link ServiceLoader}.
+   *
+   * <p>A single propagator is used so that all models are compiled into a single dispatch table.
+   * The models themselves are built once per process (see {@link ProcessCache}) and shared by later
+   * compilations.
+   *
+   * @return A propagator for all known stream models.
+   */
+  @SuppressWarnings("unchecked")
+  public static StreamNullabilityPropagator getDefaultStreamNullabilityPropagator() {
+    ClassLoader loader = StreamModels.class.getClassLoader();
+    ImmutableList<StreamTypeRecord> models =
+        ProcessCache.get(
+            loader, StreamModels.class, ImmutableList.class, () -> getDefaultStreamModels(loader));
+    return new StreamNullabilityPropagator(models);
+  }
+
+  private static ImmutableList<StreamTypeRecord> getDefaultStreamModels(ClassLoader loader) {
+    ImmutableList.Builder<StreamTypeRecord> models = ImmutableList.builder();
+    models.addAll(getRxStreamModels()).addAll(getJavaStreamModels());
+    for (StreamModels externalModels : ServiceLoader.load(StreamModels.class, loader)) {
+      models.addAll(externalModels.streamTypeRecords());
+    }
+    return models.build();
+  }
+
   public static StreamNullabilityPropagator getJavaStreamNullabilityPropagator() {
-    ImmutableList<StreamTypeRecord> streamModels =
-        StreamModelBuilder.start()
-            .addStreamType(new DescendantOf(Suppliers.typeFromString("java.util.stream.Stream")))
-            // Names of all the methods of java.util.stream.Stream that behave like .filter(...)
-            // (must take exactly 1 argument)
-            .withFilterMethodFromSignature("filter(java.util.function.Predicate<? super T>)")
-            // Names and relevant arguments of all the methods of java.util.stream.Stream that
-            // behave
-            // like .map(...) for the purposes of this checker (the listed arguments are those that
-            // take the potentially filtered objects from the stream)
-            .withMapMethodFromSignature(
-                "<R>map(java.util.function.Function<? super T,? extends R>)",
-                "apply",
-                ImmutableSet.of(0))
-            .withMapMethodFromSignature(
-                "mapToInt(java.util.function.ToIntFunction<? super T>)",
-                "applyAsInt",
-                ImmutableSet.of(0))
-            .withMapMethodFromSignature(
-                "mapToLong(java.util.function.ToLongFunction<? super T>)",
-                "applyAsLong",
-                ImmutableSet.of(0))
-            .withMapMethodFromSignature(
-                "mapToDouble(java.util.function.ToDoubleFunction<? super T>)",
-                "applyAsDouble",
-                ImmutableSet.of(0))
-            .withMapMethodFromSignature(
-                "forEach(java.util.function.Consumer<? super T>)", "accept", ImmutableSet.of(0))
-            .withMapMethodFromSignature(
-                "forEachOrdered(java.util.function.Consumer<? super T>)",
-                "accept",
-                ImmutableSet.of(0))
-            .withMapMethodAllFromName("flatMap", "apply", ImmutableSet.of(0))
-            // List of methods of java.util.stream.Stream through which we just propagate the
-            // nullability information of the last call, e.g. m() in
-            // Observable.filter(...).m().map(...) means the
-            // nullability information from filter(...) should still be propagated to map(...),
-            // ignoring the interleaving call to m().
-            .withPassthroughMethodFromSignature("distinct()")
-            // List of methods of java.util.stream.Stream that both use the nullability information
-            // internally (like map does), but also don't change the values flowing through the
-            // stream
-            // and thus propagate
-            // the nullability information of the last call.
-            .end();
-    return new StreamNullabilityPropagator(streamModels);
+    return new StreamNullabilityPropagator(getJavaStreamModels());
   }
 
   public static StreamNullabilityPropagator getRxStreamNullabilityPropagator() {
-    ImmutableList<StreamTypeRecord> rxModels =
-        StreamModelBuilder.start()
-            .addStreamType(new DescendantOf(Suppliers.typeFromString("io.reactivex.Observable")))
-            // Names of all the methods of io.reactivex.Observable that behave like .filter(...)
-            // (must take exactly 1 argument)
-            .withFilterMethodFromSignature("filter(io.reactivex.functions.Predicate<? super T>)")
-            // Names and relevant arguments of all the methods of io.reactivex.Observable that
-            // behave
-            // like .map(...) for the purposes of this checker (the listed arguments are those that
-            // take the potentially filtered objects from the stream)
-            .withMapMethodFromSignature(
-                "<R>map(io.reactivex.functions.Function<? super T,? extends R>)",
-                "apply",
-                ImmutableSet.of(0))
-            .withMapMethodAllFromName("flatMap", "apply", ImmutableSet.of(0))
-            .withMapMethodAllFromName("flatMapSingle", "apply", ImmutableSet.of(0))
-            .withMapMethodFromSignature(
-                "distinctUntilChanged(io.reactivex.functions.BiPredicate<? super T,? super T>)",
-                "test",
-                ImmutableSet.of(0, 1))
-            // List of methods of io.reactivex.Observable through which we just propagate the
-            // nullability information of the last call, e.g. m() in
-            // Observable.filter(...).m().map(...) means the
-            // nullability information from filter(...) should still be propagated to map(...),
-            // ignoring the interleaving call to m().
-            .withPassthroughMethodFromSignature("distinct()")
-            .withPassthroughMethodFromSignature("distinctUntilChanged()")
-            .withPassthroughMethodAllFromName("observeOn")
-            // List of methods of io.reactivex.Observable that both use the nullability information
-            // internally (like map does), but also don't change the values flowing through the
-            // stream
-            // and thus propagate
-            // the nullability information of the last call.
-            .withUseAndPassthroughMethodAllFromName("doOnNext", "accept", ImmutableSet.of(0))
-            .addStreamType(new DescendantOf(Suppliers.typeFromString("io.reactivex.Maybe")))
-            .withFilterMethodFromSignature("filter(io.reactivex.functions.Predicate<? super T>)")
-            .withMapMethodFromSignature(
-                "<R>map(io.reactivex.functions.Function<? super T,? extends R>)",
-                "apply",
-                ImmutableSet.of(0))
-            .withMapMethodAllFromName("flatMap", "apply", ImmutableSet.of(0))
-            .withMapMethodAllFromName("flatMapSingle", "apply", ImmutableSet.of(0))
-            .withPassthroughMethodAllFromName("observeOn")
-            .withUseAndPassthroughMethodAllFromName("doOnNext", "accept", ImmutableSet.of(0))
-            .addStreamType(new DescendantOf(Suppliers.typeFromString("io.reactivex.Single")))
-            .withFilterMethodFromSignature("filter(io.reactivex.functions.Predicate<? super T>)")
-            .withMapMethodFromSignature(
-                "<R>map(io.reactivex.functions.Function<? super T,? extends R>)",
-                "apply",
-                ImmutableSet.of(0))
-            .withMapMethodAllFromName("flatMap", "apply", ImmutableSet.of(0))
-            .withMapMethodAllFromName("flatMapSingle", "apply", ImmutableSet.of(0))
-            .withPassthroughMethodAllFromName("observeOn")
-            .withUseAndPassthroughMethodAllFromName("doOnNext", "accept", ImmutableSet.of(0))
-            .end();
+    return new StreamNullabilityPropagator(getRxStreamModels());
+  }
+
+  private static ImmutableList<StreamTypeRecord> getJavaStreamModels() {
+    return StreamModelBuilder.start()
+        .addStreamType(new DescendantOf(Suppliers.typeFromString("java.util.stream.Stream")))
+        // Names of all the methods of java.util.stream.Stream that behave like .filter(...)
+        // (must take exactly 1 argument)
+        .withFilterMethodFromSignature("filter(java.util.function.Predicate<? super T>)")
+        // Names and relevant arguments of all the methods of java.util.stream.Stream that
+        // behave
+        // like .map(...) for the purposes of this checker (the listed arguments are those that
+        // take the potentially filtered objects from the stream)
+        .withMapMethodFromSignature(
+            "<R>map(java.util.function.Function<? super T,? extends R>)",
+            "apply",
+            ImmutableSet.of(0))
+        .withMapMethodFromSignature(
+            "mapToInt(java.util.function.ToIntFunction<? super T>)",
+            "applyAsInt",
+            ImmutableSet.of(0))
+        .withMapMethodFromSignature(
+            "mapToLong(java.util.function.ToLongFunction<? super T>)",
+            "applyAsLong",
+            ImmutableSet.of(0))
+        .withMapMethodFromSignature(
+            "mapToDouble(java.util.function.ToDoubleFunction<? super T>)",
+            "applyAsDouble",
+            ImmutableSet.of(0))
+        .withMapMethodFromSignature(
+            "forEach(java.util.function.Consumer<? super T>)", "accept", ImmutableSet.of(0))
+        .withMapMethodFromSignature(
+            "forEachOrdered(java.util.function.Consumer<? super T>)", "accept", ImmutableSet.of(0))
+        .withMapMethodAllFromName("flatMap", "apply", ImmutableSet.of(0))
+        // List of methods of java.util.stream.Stream through which we just propagate the
+        // nullability information of the last call, e.g. m() in
+        // Observable.filter(...).m().map(...) means the
+        // nullability information from filter(...) should still be propagated to map(...),
+        // ignoring the interleaving call to m().
+        .withPassthroughMethodFromSignature("distinct()")
+        // List of methods of java.util.stream.Stream that both use the nullability information
+        // internally (like map does), but also don't change the values flowing through the
+        // stream
+        // and thus propagate
+        // the nullability information of the last call.
+        .end();
+  }
 
-    return new StreamNullabilityPropagator(rxModels);
+  private static ImmutableList<StreamTypeRecord> getRxStreamModels() {
+    return StreamModelBuilder.start()
+        .addStreamType(new DescendantOf(Suppliers.typeFromString("io.reactivex.Observable")))
+        // Names of all the methods of io.reactivex.Observable that behave like .filter(...)
+        // (must take exactly 1 argument)
+        .withFilterMethodFromSignature("filter(io.reactivex.functions.Predicate<? super T>)")
+        // Names and relevant arguments of all the methods of io.reactivex.Observable that
+        // behave
+        // like .map(...) for the purposes of this checker (the listed arguments are those that
+        // take the potentially filtered objects from the stream)
+        .withMapMethodFromSignature(
+            "<R>map(io.reactivex.functions.Function<? super T,? extends R>)",
+            "apply",
+            ImmutableSet.of(0))
+        .withMapMethodAllFromName("flatMap", "apply", ImmutableSet.of(0))
+        .withMapMethodAllFromName("flatMapSingle", "apply", ImmutableSet.of(0))
+        .withMapMethodFromSignature(
+            "distinctUntilChanged(io.reactivex.functions.BiPredicate<? super T,? super T>)",
+            "test",
+            ImmutableSet.of(0, 1))
+        // List of methods of io.reactivex.Observable through which we just propagate the
+        // nullability information of the last call, e.g. m() in
+        // Observable.filter(...).m().map(...) means the
+        // nullability information from filter(...) should still be propagated to map(...),
+        // ignoring the interleaving call to m().
+        .withPassthroughMethodFromSignature("distinct()")
+        .withPassthroughMethodFromSignature("distinctUntilChanged()")
+        .withPassthroughMethodAllFromName("observeOn")
+        // List of methods of io.reactivex.Observable that both use the nullability information
+        // internally (like map does), but also don't change the values flowing through the
+        // stream
+        // and thus propagate
+        // the nullability information of the last call.
+        .withUseAndPassthroughMethodAllFromName("doOnNext", "accept", ImmutableSet.of(0))
+        .addStreamType(new DescendantOf(Suppliers.typeFromString("io.reactivex.Maybe")))
+        .withFilterMethodFromSignature("filter(io.reactivex.functions.Predicate<? super T>)")
+        .withMapMethodFromSignature(
+            "<R>map(io.reactivex.functions.Function<? super T,? extends R>)",
+            "apply",
+            ImmutableSet.of(0))
+        .withMapMethodAllFromName("flatMap", "apply", ImmutableSet.of(0))
+        .withMapMethodAllFromName("flatMapSingle", "apply", ImmutableSet.of(0))
+        .withPassthroughMethodAllFromName("observeOn")
+        .withUseAndPassthroughMethodAllFromName("doOnNext", "accept", ImmutableSet.of(0))
+        .addStreamType(new DescendantOf(Suppliers.typeFromString("io.reactivex.Single")))
+        .withFilterMethodFromSignature("filter(io.reactivex.functions.Predicate<? super T>)")
+        .withMapMethodFromSignature(
+            "<R>map(io.reactivex.functions.Function<? super T,? extends R>)",
+            "apply",
+            ImmutableSet.of(0))
+        .withMapMethodAllFromName("flatMap", "apply", ImmutableSet.of(0))
+        .withMapMethodAllFromName("flatMapSingle", "apply", ImmutableSet.of(0))
+        .withPassthroughMethodAllFromName("observeOn")
+        .withUseAndPassthroughMethodAllFromName("doOnNext", "accept", ImmutableSet.of(0))
+        .end();
   }
 }
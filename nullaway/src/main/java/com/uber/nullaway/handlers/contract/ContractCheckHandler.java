@@ -22,10 +22,8 @@
 
 package com.uber.nullaway.handlers.contract;
 
-import static com.uber.nullaway.handlers.contract.ContractUtils.getAntecedent;
-import static com.uber.nullaway.handlers.contract.ContractUtils.getConsequent;
-
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.MethodTree;
@@ -38,6 +36,7 @@ import com.uber.nullaway.ErrorMessage;
 import com.uber.nullaway.NullAway;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.handlers.BaseNoOpHandler;
+import com.uber.nullaway.handlers.contract.MethodContract.ValueConstraint;
 
 /**
  * This Handler parses the jetbrains @Contract annotation and tries to check if the contract is
@@ -63,31 +62,32 @@ public class ContractCheckHandler extends BaseNoOpHandler {
     Symbol.MethodSymbol callee = ASTHelpers.getSymbol(tree);
     Preconditions.checkNotNull(callee);
     // Check to see if this method has an @Contract annotation
-    String contractString = ContractUtils.getContractString(callee, config);
-    if (contractString != null) {
-      // Found a contract, lets parse it.
-      String[] clauses = contractString.split(";");
-      if (clauses.length != 1) {
+    MethodContracts methodContracts = MethodContracts.instance(state.context);
+    MethodContract contract = methodContracts.getContract(callee, config).orElse(null);
+    if (contract != null) {
+      // Found a contract, lets check it.
+      MethodContract.Clause clause = contract.getSingleClause();
+      if (clause == null) {
         return;
       }
-
-      String clause = clauses[0];
-      String[] antecedent =
-          getAntecedent(clause, tree, analysis, state, callee, tree.getParameters().size());
-      String consequent = getConsequent(clause, tree, analysis, state, callee);
+      if (clause.isMalformed()) {
+        methodContracts.reportErrorsOnce(contract, tree, analysis, state);
+        return;
+      }
+      String contractString = contract.getContractString();
+      ImmutableList<ValueConstraint> antecedent = clause.getAntecedent();
 
       boolean supported = true;
 
-      for (int i = 0; i < antecedent.length; ++i) {
-        String valueConstraint = antecedent[i].trim();
-        if (!(valueConstraint.equals("_")
-            || valueConstraint.equals("!null")
-            || valueConstraint.equals("null"))) {
+      for (ValueConstraint valueConstraint : antecedent) {
+        if (!(valueConstraint == ValueConstraint.ANY
+            || valueConstraint == ValueConstraint.NOT_NULL
+            || valueConstraint == ValueConstraint.NULL)) {
           supported = false;
         }
       }
 
-      if (!consequent.equals("!null")) {
+      if (!clause.getConsequent().equals("!null")) {
         supported = false;
       }
 
@@ -116,10 +116,8 @@ public class ContractCheckHandler extends BaseNoOpHandler {
             int nonNullAntecedentCount = 0;
             int nonNullAntecedentPosition = -1;
 
-            for (int i = 0; i < antecedent.length; ++i) {
-              String valueConstraint = antecedent[i].trim();
-
-              if (valueConstraint.equals("!null")) {
+            for (int i = 0; i < antecedent.size(); ++i) {
+              if (antecedent.get(i) == ValueConstraint.NOT_NULL) {
                 nonNullAntecedentCount += 1;
                 nonNullAntecedentPosition = i;
               }
@@ -22,10 +22,8 @@
 
 package com.uber.nullaway.handlers.contract;
 
-import static com.uber.nullaway.handlers.contract.ContractUtils.getAntecedent;
-import static com.uber.nullaway.handlers.contract.ContractUtils.getConsequent;
-
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ClassTree;
@@ -33,12 +31,12 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.Config;
-import com.uber.nullaway.ErrorMessage;
 import com.uber.nullaway.NullAway;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import com.uber.nullaway.handlers.BaseNoOpHandler;
+import com.uber.nullaway.handlers.contract.MethodContract.ValueConstraint;
 import javax.annotation.Nullable;
 import org.checkerframework.nullaway.dataflow.cfg.node.MethodInvocationNode;
 
@@ -89,6 +87,7 @@ public class ContractHandler extends BaseNoOpHandler {
       NullAway analysis, ClassTree tree, VisitorState state, Symbol.ClassSymbol classSymbol) {
     this.analysis = analysis;
     this.state = state;
+    MethodContracts.instance(state.context).onMatchTopLevelClass();
   }
 
   @Override
@@ -104,16 +103,20 @@ public class ContractHandler extends BaseNoOpHandler {
     Symbol.MethodSymbol callee = ASTHelpers.getSymbol(node.getTree());
     Preconditions.checkNotNull(callee);
     // Check to see if this method has an @Contract annotation
-    String contractString = ContractUtils.getContractString(callee, config);
-    if (contractString != null && contractString.trim().length() > 0) {
-      // Found a contract, lets parse it.
-      String[] clauses = contractString.split(";");
-      for (String clause : clauses) {
-
-        String[] antecedent =
-            getAntecedent(
-                clause, node.getTree(), analysis, state, callee, node.getArguments().size());
-        String consequent = getConsequent(clause, node.getTree(), analysis, state, callee);
+    MethodContracts methodContracts = MethodContracts.instance(context);
+    MethodContract contract = methodContracts.getContract(callee, config).orElse(null);
+    if (contract != null) {
+      if (contract.isMalformed()) {
+        Preconditions.checkNotNull(state);
+        Preconditions.checkNotNull(analysis);
+        methodContracts.reportErrorsOnce(contract, node.getTree(), analysis, state);
+      }
+      for (MethodContract.Clause clause : contract.getClauses()) {
+        if (clause.isMalformed()) {
+          continue;
+        }
+        ImmutableList<ValueConstraint> antecedent = clause.getAntecedent();
+        String consequent = clause.getConsequent();
 
         // Find a single value constraint that is not already known. If more than one arguments with
         // unknown
@@ -123,20 +126,22 @@ public class ContractHandler extends BaseNoOpHandler {
         boolean supported =
             true; // Set to false if the rule is detected to be one we don't yet support
 
-        for (int i = 0; i < antecedent.length; ++i) {
-          String valueConstraint = antecedent[i].trim();
-          if (valueConstraint.equals("_")) {
+        for (int i = 0; i < antecedent.size(); ++i) {
+          ValueConstraint valueConstraint = antecedent.get(i);
+          if (valueConstraint == ValueConstraint.ANY) {
             continue;
-          } else if (valueConstraint.equals("false") || valueConstraint.equals("true")) {
+          } else if (valueConstraint == ValueConstraint.FALSE
+              || valueConstraint == ValueConstraint.TRUE) {
             supported = false;
             break;
-          } else if (valueConstraint.equals("!null")
+          } else if (valueConstraint == ValueConstraint.NOT_NULL
               && inputs.valueOfSubNode(node.getArgument(i)).equals(Nullness.NONNULL)) {
             // We already know this argument can't be null, so we can treat it as not part of the
             // clause
             // for the purpose of deciding the non-nullness of the other arguments.
             continue;
-          } else if (valueConstraint.equals("null") || valueConstraint.equals("!null")) {
+          } else {
+            // ValueConstraint.NULL or ValueConstraint.NOT_NULL; malformed clauses were skipped
             if (argIdx != -1) {
               // More than one argument involved in the antecedent, ignore this rule
               supported = false;
@@ -144,30 +149,7 @@ public class ContractHandler extends BaseNoOpHandler {
             }
             argIdx = i;
             argAntecedentNullness =
-                valueConstraint.equals("null") ? Nullness.NULLABLE : Nullness.NONNULL;
-          } else {
-            Preconditions.checkNotNull(state);
-            Preconditions.checkNotNull(analysis);
-            String errorMessage =
-                "Invalid @Contract annotation detected for method "
-                    + callee
-                    + ". It contains the following uparseable clause: "
-                    + clause
-                    + " (unknown value constraint: "
-                    + valueConstraint
-                    + ", see https://www.jetbrains.com/help/idea/contract-annotations.html).";
-            state.reportMatch(
-                analysis
-                    .getErrorBuilder()
-                    .createErrorDescription(
-                        new ErrorMessage(
-                            ErrorMessage.MessageTypes.ANNOTATION_VALUE_INVALID, errorMessage),
-                        node.getTree(),
-                        analysis.buildDescription(node.getTree()),
-                        state,
-                        null));
-            supported = false;
-            break;
+                valueConstraint == ValueConstraint.NULL ? Nullness.NULLABLE : Nullness.NONNULL;
           }
         }
         if (!supported) {
@@ -3,6 +3,7 @@ package com.uber.nullaway.handlers.contract;
 import static com.uber.nullaway.Nullness.NONNULL;
 import static com.uber.nullaway.Nullness.NULLABLE;
 
+import com.google.common.collect.ImmutableList;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.MethodTree;
@@ -15,6 +16,7 @@ import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.NullnessStore;
 import com.uber.nullaway.dataflow.NullnessStoreInitializer;
 import com.uber.nullaway.handlers.Handler;
+import com.uber.nullaway.handlers.contract.MethodContract.ValueConstraint;
 import java.util.List;
 import javax.lang.model.element.Element;
 import org.checkerframework.nullaway.dataflow.cfg.UnderlyingAST;
@@ -39,19 +41,22 @@ public class ContractNullnessStoreInitializer extends NullnessStoreInitializer {
     final MethodTree methodTree = ((UnderlyingAST.CFGMethod) underlyingAST).getMethod();
     final ClassTree classTree = ((UnderlyingAST.CFGMethod) underlyingAST).getClassTree();
     final Symbol.MethodSymbol callee = ASTHelpers.getSymbol(methodTree);
-    final String contractString = ContractUtils.getContractString(callee, config);
+    final MethodContract.Clause clause =
+        MethodContracts.instance(context)
+            .getContract(callee, config)
+            .map(MethodContract::getSingleClause)
+            .orElse(null);
 
-    assert contractString != null;
+    // ContractCheckHandler only runs the contract dataflow for well-formed single-clause contracts
+    assert clause != null && !clause.isMalformed();
 
-    String[] clauses = contractString.split(";");
-    String[] parts = clauses[0].split("->");
-    String[] antecedent = parts[0].split(",");
+    ImmutableList<ValueConstraint> antecedent = clause.getAntecedent();
 
     NullnessStore envStore = getEnvNullnessStoreForClass(classTree, context);
     NullnessStore.Builder result = envStore.toBuilder();
 
-    for (int i = 0; i < antecedent.length; ++i) {
-      String valueConstraint = antecedent[i].trim();
+    for (int i = 0; i < antecedent.size(); ++i) {
+      ValueConstraint valueConstraint = antecedent.get(i);
 
       final LocalVariableNode param = parameters.get(i);
       final Element element = param.getElement();
@@ -61,8 +66,8 @@ public class ContractNullnessStoreInitializer extends NullnessStoreInitializer {
       // There are 2 cases when we assume that the parameter is NONNULL
       // 1. if the contract specifies it as (!null)
       // 2. if there is no @nullable annotation to the parameter in the function signature
-      if (valueConstraint.equals("!null")
-          || !Nullness.hasNullableAnnotation((Symbol) element, config)) {
+      if (valueConstraint == ValueConstraint.NOT_NULL
+          || !Nullness.hasNullableAnnotation((Symbol) element, config, context)) {
         assumed = NONNULL;
       }
 
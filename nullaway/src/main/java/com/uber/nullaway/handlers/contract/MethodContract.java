@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.handlers.contract;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.tools.javac.code.Symbol;
+import com.uber.nullaway.Config;
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+/**
+ * A parsed {@code @Contract} annotation, e.g. {@code @Contract("null, _ -> false; !null, _ ->
+ * true")}. Parsing happens once per method (see {@link com.uber.nullaway.MethodSummary}), so that
+ * consumers only deal with the structured form.
+ */
+public final class MethodContract {
+
+  /** Constraint on the value of a single argument, in the antecedent of a clause. */
+  public enum ValueConstraint {
+    /** {@code _}: any value */
+    ANY,
+    /** {@code null} */
+    NULL,
+    /** {@code !null} */
+    NOT_NULL,
+    /** {@code true} */
+    TRUE,
+    /** {@code false} */
+    FALSE,
+    /** anything we could not parse */
+    INVALID;
+
+    static ValueConstraint parse(String valueConstraint) {
+      switch (valueConstraint) {
+        case "_":
+          return ANY;
+        case "null":
+          return NULL;
+        case "!null":
+          return NOT_NULL;
+        case "true":
+          return TRUE;
+        case "false":
+          return FALSE;
+        default:
+          return INVALID;
+      }
+    }
+  }
+
+  /** A single {@code antecedent -> consequent} clause. */
+  public static final class Clause {
+
+    private final ImmutableList<ValueConstraint> antecedent;
+
+    private final String consequent;
+
+    private final ImmutableList<String> errors;
+
+    private Clause(
+        ImmutableList<ValueConstraint> antecedent,
+        String consequent,
+        ImmutableList<String> errors) {
+      this.antecedent = antecedent;
+      this.consequent = consequent;
+      this.errors = errors;
+    }
+
+    /**
+     * @return the constraint on each argument, in argument order
+     */
+    public ImmutableList<ValueConstraint> getAntecedent() {
+      return antecedent;
+    }
+
+    /**
+     * @return the consequent, trimmed, e.g. {@code "!null"} or {@code "fail"}
+     */
+    public String getConsequent() {
+      return consequent;
+    }
+
+    /**
+     * @return true if the clause could not be fully parsed; such clauses should be ignored
+     */
+    public boolean isMalformed() {
+      return !errors.isEmpty();
+    }
+
+    /**
+     * @return messages describing why the clause is malformed, if it is
+     */
+    public ImmutableList<String> getErrors() {
+      return errors;
+    }
+  }
+
+  private final String contractString;
+
+  private final ImmutableList<Clause> clauses;
+
+  private MethodContract(String contractString, ImmutableList<Clause> clauses) {
+    this.contractString = contractString;
+    this.clauses = clauses;
+  }
+
+  /**
+   * @return the annotation value, as written
+   */
+  public String getContractString() {
+    return contractString;
+  }
+
+  /**
+   * @return the clauses of the contract, in order; empty if the annotation value is blank
+   */
+  public ImmutableList<Clause> getClauses() {
+    return clauses;
+  }
+
+  /**
+   * @return true if any clause of the contract is malformed
+   */
+  public boolean isMalformed() {
+    for (Clause clause : clauses) {
+      if (clause.isMalformed()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the single clause of the contract, or {@code null} if it has zero or several clauses
+   */
+  @Nullable
+  public Clause getSingleClause() {
+    return clauses.size() == 1 ? clauses.get(0) : null;
+  }
+
+  /**
+   * Finds and parses the contract annotation of a method. Prefer {@link
+   * com.uber.nullaway.MethodSummary#getContract(Config)}, which does this once per method.
+   *
+   * @param method a method
+   * @param config the NullAway config
+   * @return the parsed contract of {@code method}, if it has a contract annotation
+   */
+  public static Optional<MethodContract> fromAnnotation(Symbol.MethodSymbol method, Config config) {
+    String contractString = ContractUtils.getContractString(method, config);
+    return contractString == null
+        ? Optional.empty()
+        : Optional.of(MethodContract.parse(contractString, method));
+  }
+
+  static MethodContract parse(String contractString, Symbol.MethodSymbol method) {
+    ImmutableList.Builder<Clause> clauses = ImmutableList.builder();
+    if (contractString.trim().length() > 0) {
+      for (String clause : contractString.split(";")) {
+        clauses.add(parseClause(clause, method));
+      }
+    }
+    return new MethodContract(contractString, clauses.build());
+  }
+
+  private static Clause parseClause(String clause, Symbol.MethodSymbol method) {
+    ImmutableList.Builder<String> errors = ImmutableList.builder();
+    String[] parts = clause.split("->");
+    if (parts.length != 2) {
+      errors.add(
+          "Invalid @Contract annotation detected for method "
+              + method
+              + ". It contains the following uparseable clause: "
+              + clause
+              + "(see https://www.jetbrains.com/help/idea/contract-annotations.html).");
+    }
+    String[] antecedent = parts[0].split(",");
+    int numOfArguments = method.getParameters().size();
+    if (antecedent.length != numOfArguments) {
+      errors.add(
+          "Invalid @Contract annotation detected for method "
+              + method
+              + ". It contains the following uparseable clause: "
+              + clause
+              + " (incorrect number of arguments in the clause's antecedent ["
+              + antecedent.length
+              + "], should be the same as the number of "
+              + "arguments in for the method ["
+              + numOfArguments
+              + "]).");
+    }
+    ImmutableList.Builder<ValueConstraint> constraints = ImmutableList.builder();
+    for (String valueConstraint : antecedent) {
+      ValueConstraint constraint = ValueConstraint.parse(valueConstraint.trim());
+      if (constraint == ValueConstraint.INVALID) {
+        errors.add(
+            "Invalid @Contract annotation detected for method "
+                + method
+                + ". It contains the following uparseable clause: "
+                + clause
+                + " (unknown value constraint: "
+                + valueConstraint.trim()
+                + ", see https://www.jetbrains.com/help/idea/contract-annotations.html).");
+      }
+      constraints.add(constraint);
+    }
+    String consequent = parts.length > 1 ? parts[1].trim() : "";
+    return new Clause(constraints.build(), consequent, errors.build());
+  }
+}
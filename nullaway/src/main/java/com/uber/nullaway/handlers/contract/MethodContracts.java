@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.handlers.contract;
+
+import com.google.errorprone.VisitorState;
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.util.Context;
+import com.uber.nullaway.Config;
+import com.uber.nullaway.ErrorMessage;
+import com.uber.nullaway.MethodSummaries;
+import com.uber.nullaway.NullAway;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Per-compilation cache of parsed {@code @Contract} annotations, shared by {@link
+ * ContractHandler}, {@link ContractCheckHandler} and {@link ContractNullnessStoreInitializer}.
+ *
+ * <p>{@link ContractHandler} looks up the contract of every callee on every dataflow visit of a
+ * method invocation, so both the annotation lookup and the parsing of the contract string are done
+ * once per method symbol, and kept in its {@link com.uber.nullaway.MethodSummary}.
+ */
+public class MethodContracts {
+
+  private static final Context.Key<MethodContracts> METHOD_CONTRACTS_KEY = new Context.Key<>();
+
+  private final MethodSummaries summaries;
+
+  /**
+   * Trees at which errors for malformed contracts have already been reported, within the current
+   * top-level class.
+   */
+  private final Set<Tree> reportedTrees = new HashSet<>();
+
+  public static MethodContracts instance(Context context) {
+    MethodContracts instance = context.get(METHOD_CONTRACTS_KEY);
+    if (instance == null) {
+      instance = new MethodContracts(MethodSummaries.instance(context));
+      context.put(METHOD_CONTRACTS_KEY, instance);
+    }
+    return instance;
+  }
+
+  private MethodContracts(MethodSummaries summaries) {
+    this.summaries = summaries;
+  }
+
+  /**
+   * @param methodSymbol a method
+   * @param config the NullAway config
+   * @return the parsed contract of {@code methodSymbol}, if it has a contract annotation
+   */
+  public Optional<MethodContract> getContract(Symbol.MethodSymbol methodSymbol, Config config) {
+    return summaries.get(methodSymbol).getContract(config);
+  }
+
+  /**
+   * Called when the checker starts visiting a top-level class. Trees of previous top-level classes
+   * will not be visited again, so we forget about them.
+   */
+  void onMatchTopLevelClass() {
+    reportedTrees.clear();
+  }
+
+  /**
+   * Reports the errors of all malformed clauses of a contract at {@code tree}, unless they were
+   * already reported there (e.g. on a previous dataflow visit of the same invocation).
+   *
+   * @param contract a contract
+   * @param tree the invocation or method declaration to report the errors on
+   * @param analysis a reference to the running NullAway analysis
+   * @param state the current visitor state
+   */
+  void reportErrorsOnce(
+      MethodContract contract, Tree tree, NullAway analysis, VisitorState state) {
+    if (!contract.isMalformed() || !reportedTrees.add(tree)) {
+      return;
+    }
+    for (MethodContract.Clause clause : contract.getClauses()) {
+      for (String message : clause.getErrors()) {
+        reportError(message, tree, analysis, state);
+      }
+    }
+  }
+
+  private static void reportError(
+      String message, Tree tree, NullAway analysis, VisitorState state) {
+    state.reportMatch(
+        analysis
+            .getErrorBuilder()
+            .createErrorDescription(
+                new ErrorMessage(ErrorMessage.MessageTypes.ANNOTATION_VALUE_INVALID, message),
+                tree,
+                analysis.buildDescription(tree),
+                state,
+                null));
+  }
+}
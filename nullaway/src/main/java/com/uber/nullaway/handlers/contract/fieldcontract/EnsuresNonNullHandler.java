@@ -22,8 +22,6 @@
 
 package com.uber.nullaway.handlers.contract.fieldcontract;
 
-import static com.uber.nullaway.NullabilityUtil.getAnnotationValueArray;
-
 import com.google.common.base.Preconditions;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.util.ASTHelpers;
@@ -33,6 +31,7 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Types;
 import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.ErrorMessage;
+import com.uber.nullaway.MethodSummary;
 import com.uber.nullaway.NullAway;
 import com.uber.nullaway.Nullness;
 import com.uber.nullaway.annotations.EnsuresNonNull;
@@ -41,9 +40,11 @@ import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import com.uber.nullaway.handlers.AbstractFieldContractHandler;
 import com.uber.nullaway.handlers.contract.ContractUtils;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import javax.lang.model.element.VariableElement;
 import org.checkerframework.nullaway.dataflow.cfg.node.MethodInvocationNode;
 
@@ -66,6 +67,12 @@ public class EnsuresNonNullHandler extends AbstractFieldContractHandler {
     super("EnsuresNonNull");
   }
 
+  @Override
+  @Nullable
+  protected Set<String> getAnnotationContent(MethodSummary summary) {
+    return summary.getEnsuresNonNullFields();
+  }
+
   /**
    * Validates whether all parameters mentioned in the @EnsuresNonNull annotation are guaranteed to
    * be {@code @NonNull} at exit point of this method.
@@ -84,7 +91,7 @@ public class EnsuresNonNullHandler extends AbstractFieldContractHandler {
             .stream()
             .map(e -> e.getSimpleName().toString())
             .collect(Collectors.toSet());
-    Set<String> fieldNames = getAnnotationValueArray(methodSymbol, annotName, false);
+    Set<String> fieldNames = getAnnotationContent(methodSymbol, state.context);
     if (fieldNames == null) {
       fieldNames = Collections.emptySet();
     }
@@ -125,7 +132,7 @@ public class EnsuresNonNullHandler extends AbstractFieldContractHandler {
       VisitorState state,
       MethodTree tree,
       Symbol.MethodSymbol overriddenMethod) {
-    Set<String> overriddenFieldNames = getAnnotationValueArray(overriddenMethod, annotName, false);
+    Set<String> overriddenFieldNames = getAnnotationContent(overriddenMethod, state.context);
     if (overriddenFieldNames == null) {
       return;
     }
@@ -135,6 +142,8 @@ public class EnsuresNonNullHandler extends AbstractFieldContractHandler {
     if (overridingFieldNames.containsAll(overriddenFieldNames)) {
       return;
     }
+    // the annotation content is shared, so compute the missing fields on a copy
+    overriddenFieldNames = new HashSet<>(overriddenFieldNames);
     overriddenFieldNames.removeAll(overridingFieldNames);
 
     StringBuilder errorMessage = new StringBuilder();
@@ -190,7 +199,7 @@ public class EnsuresNonNullHandler extends AbstractFieldContractHandler {
     }
     Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(node.getTree());
     Preconditions.checkNotNull(methodSymbol);
-    Set<String> fieldNames = getAnnotationValueArray(methodSymbol, annotName, false);
+    Set<String> fieldNames = getAnnotationContent(methodSymbol, context);
     if (fieldNames != null) {
       fieldNames = ContractUtils.trimReceivers(fieldNames);
       for (String fieldName : fieldNames) {
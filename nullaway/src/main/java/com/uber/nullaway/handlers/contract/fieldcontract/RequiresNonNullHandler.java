@@ -33,6 +33,7 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.tools.javac.code.Symbol;
 import com.uber.nullaway.ErrorMessage;
+import com.uber.nullaway.MethodSummary;
 import com.uber.nullaway.NullAway;
 import com.uber.nullaway.NullabilityUtil;
 import com.uber.nullaway.Nullness;
@@ -45,6 +46,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 import javax.lang.model.element.VariableElement;
 import org.checkerframework.nullaway.dataflow.cfg.UnderlyingAST;
 import org.checkerframework.nullaway.dataflow.cfg.node.LocalVariableNode;
@@ -68,6 +70,12 @@ public class RequiresNonNullHandler extends AbstractFieldContractHandler {
     super("RequiresNonNull");
   }
 
+  @Override
+  @Nullable
+  protected Set<String> getAnnotationContent(MethodSummary summary) {
+    return summary.getRequiresNonNullFields();
+  }
+
   /** All methods can add the precondition of {@code RequiresNonNull}. */
   @Override
   protected boolean validateAnnotationSemantics(
@@ -90,7 +98,7 @@ public class RequiresNonNullHandler extends AbstractFieldContractHandler {
     if (overridingFieldNames == null) {
       return;
     }
-    Set<String> overriddenFieldNames = getAnnotationValueArray(overriddenMethod, annotName, false);
+    Set<String> overriddenFieldNames = getAnnotationContent(overriddenMethod, state.context);
     if (overriddenFieldNames == null) {
       overriddenFieldNames = Collections.emptySet();
     }
@@ -133,7 +141,7 @@ public class RequiresNonNullHandler extends AbstractFieldContractHandler {
       MethodInvocationTree tree,
       VisitorState state,
       Symbol.MethodSymbol methodSymbol) {
-    Set<String> fieldNames = getAnnotationValueArray(methodSymbol, annotName, false);
+    Set<String> fieldNames = getAnnotationContent(methodSymbol, state.context);
     if (fieldNames == null) {
       super.onMatchMethodInvocation(analysis, tree, state, methodSymbol);
       return;
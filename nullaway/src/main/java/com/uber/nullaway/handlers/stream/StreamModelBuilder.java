@@ -24,6 +24,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.predicates.TypePredicate;
+import com.google.errorprone.predicates.type.DescendantOf;
+import com.google.errorprone.suppliers.Suppliers;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -76,6 +78,8 @@ public class StreamModelBuilder {
    * Add a stream type to our models.
    *
    * @param tp A type predicate matching the class/interface of the type in our stream-based API.
+   *     Should only depend on the erased type, e.g. {@link
+   *     com.google.errorprone.predicates.type.DescendantOf}.
    * @return This builder (for chaining).
    */
   public StreamModelBuilder addStreamType(TypePredicate tp) {
@@ -90,6 +94,17 @@ public class StreamModelBuilder {
     return this;
   }
 
+  /**
+   * Add a stream type to our models, matching the given class/interface and all its subtypes.
+   *
+   * @param fullyQualifiedName The fully qualified name of the class/interface of the type in our
+   *     stream-based API.
+   * @return This builder (for chaining).
+   */
+  public StreamModelBuilder addStreamTypeFromName(String fullyQualifiedName) {
+    return addStreamType(new DescendantOf(Suppliers.typeFromString(fullyQualifiedName)));
+  }
+
   /**
    * Add a filter method to the last added stream type.
    *
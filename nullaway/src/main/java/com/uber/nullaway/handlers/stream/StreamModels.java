@@ -0,0 +1,42 @@
+package com.uber.nullaway.handlers.stream;
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Provides models for stream-based APIs (e.g. Reactor or in-house stream libraries), on top of the
+ * built-in RxJava and java.util.stream models.
+ *
+ * <p>Implementations are loaded with {@link java.util.ServiceLoader}, like {@link
+ * com.uber.nullaway.LibraryModels}, so they can be shipped in a separate jar on the annotation
+ * processor path, typically registered with {@code @AutoService(StreamModels.class)}.
+ */
+public interface StreamModels {
+
+  /**
+   * Get the models for the stream types of some API.
+   *
+   * @return models built with {@link StreamModelBuilder}, one per stream type.
+   */
+  ImmutableList<StreamTypeRecord> streamTypeRecords();
+}
@@ -0,0 +1,96 @@
+package com.uber.nullaway.handlers.stream;
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.VisitorState;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.TypeTag;
+import com.sun.tools.javac.util.Context;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per-compilation cache of which stream models match a given receiver type, shared by all stream
+ * nullability propagators.
+ *
+ * <p>Stream propagators check the receiver of every method invocation against each of their
+ * models, and the same receiver types recur constantly. The models match on the erased type, as
+ * {@link com.google.errorprone.predicates.type.DescendantOf} does, so the result only depends on
+ * the {@link Symbol.TypeSymbol} of the receiver and is computed once per symbol.
+ */
+public class StreamTypeMatchCache {
+
+  private static final Context.Key<StreamTypeMatchCache> STREAM_TYPE_MATCH_CACHE_KEY =
+      new Context.Key<>();
+
+  /** Matching models, per list of models (i.e. per propagator) and per receiver type symbol. */
+  private final Map<
+          ImmutableList<StreamTypeRecord>, Map<Symbol.TypeSymbol, ImmutableList<StreamTypeRecord>>>
+      matchingModels = new IdentityHashMap<>();
+
+  public static StreamTypeMatchCache instance(Context context) {
+    StreamTypeMatchCache instance = context.get(STREAM_TYPE_MATCH_CACHE_KEY);
+    if (instance == null) {
+      instance = new StreamTypeMatchCache();
+      context.put(STREAM_TYPE_MATCH_CACHE_KEY, instance);
+    }
+    return instance;
+  }
+
+  /**
+   * @param models the stream models of a propagator
+   * @param receiverType type of the receiver of a method invocation
+   * @param state the current visitor state
+   * @return the models in {@code models} matching {@code receiverType}, in order; usually empty
+   */
+  public ImmutableList<StreamTypeRecord> getMatchingModels(
+      ImmutableList<StreamTypeRecord> models, Type receiverType, VisitorState state) {
+    if (!mayBeStreamType(receiverType)) {
+      return ImmutableList.of();
+    }
+    Map<Symbol.TypeSymbol, ImmutableList<StreamTypeRecord>> modelsForType =
+        matchingModels.computeIfAbsent(models, k -> new HashMap<>());
+    ImmutableList<StreamTypeRecord> result = modelsForType.get(receiverType.tsym);
+    if (result == null) {
+      ImmutableList.Builder<StreamTypeRecord> builder = ImmutableList.builder();
+      for (StreamTypeRecord streamType : models) {
+        if (streamType.matchesType(receiverType, state)) {
+          builder.add(streamType);
+        }
+      }
+      result = builder.build();
+      modelsForType.put(receiverType.tsym, result);
+    }
+    return result;
+  }
+
+  /**
+   * Cheap check, before any lookup, for receivers that cannot be of a stream type: primitives,
+   * arrays, and types without a symbol.
+   */
+  private static boolean mayBeStreamType(Type type) {
+    return (type.hasTag(TypeTag.CLASS) || type.hasTag(TypeTag.TYPEVAR)) && type.tsym != null;
+  }
+}
@@ -22,6 +22,7 @@ package com.uber.nullaway.handlers.stream;
  */
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.predicates.TypePredicate;
 import com.sun.tools.javac.code.Symbol;
@@ -52,6 +53,9 @@ public class StreamTypeRecord {
   private final ImmutableSet<String> passthroughMethodSigs;
   private final ImmutableSet<String> passthroughMethodSimpleNames;
 
+  // Simple names of all the methods above
+  private final ImmutableSet<String> methodSimpleNames;
+
   public StreamTypeRecord(
       TypePredicate typePredicate,
       ImmutableSet<String> filterMethodSigs,
@@ -67,8 +71,42 @@ public class StreamTypeRecord {
     this.mapMethodSimpleNameToRecord = mapMethodSimpleNameToRecord;
     this.passthroughMethodSigs = passthroughMethodSigs;
     this.passthroughMethodSimpleNames = passthroughMethodSimpleNames;
+    ImmutableSet.Builder<String> names = ImmutableSet.builder();
+    names.addAll(filterMethodSimpleNames);
+    names.addAll(mapMethodSimpleNameToRecord.keySet());
+    names.addAll(passthroughMethodSimpleNames);
+    for (String methodSig :
+        Iterables.concat(filterMethodSigs, mapMethodSigToRecord.keySet(), passthroughMethodSigs)) {
+      names.add(simpleNameFromSig(methodSig));
+    }
+    this.methodSimpleNames = names.build();
+  }
+
+  /**
+   * Extracts the method name from a sub-signature, e.g. {@code "map"} from {@code "<R>map(...)"}.
+   */
+  private static String simpleNameFromSig(String methodSig) {
+    int paramsStart = methodSig.indexOf('(');
+    String nameWithTypeParams = paramsStart < 0 ? methodSig : methodSig.substring(0, paramsStart);
+    return nameWithTypeParams.substring(nameWithTypeParams.lastIndexOf('>') + 1);
+  }
+
+  /**
+   * @return the simple names of all the filter, map and passthrough methods of this model; any
+   *     invocation of a method with another name can be ignored
+   */
+  public ImmutableSet<String> getMethodSimpleNames() {
+    return methodSimpleNames;
   }
 
+  /**
+   * Checks the type predicate of this model. Note that results are cached per type symbol by
+   * {@link StreamTypeMatchCache}, so the predicate should only depend on the erased type.
+   *
+   * @param type a receiver type
+   * @param state the current visitor state
+   * @return true if {@code type} is a stream type described by this model
+   */
   public boolean matchesType(Type type, VisitorState state) {
     return typePredicate.apply(type, state);
   }
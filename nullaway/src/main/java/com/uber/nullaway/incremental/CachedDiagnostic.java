@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.incremental;
+
+import com.sun.tools.javac.tree.EndPosTable;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
+
+/**
+ * A NullAway error reported within a method, as stored by {@link IncrementalAnalysis}. Positions
+ * are offsets from the start of the method, so they remain valid when the method moves within its
+ * file.
+ */
+public final class CachedDiagnostic {
+
+  private final String message;
+
+  private final int startOffset;
+
+  private final int preferredOffset;
+
+  private final int endOffset;
+
+  CachedDiagnostic(String message, int startOffset, int preferredOffset, int endOffset) {
+    this.message = message;
+    this.startOffset = startOffset;
+    this.preferredOffset = preferredOffset;
+    this.endOffset = endOffset;
+  }
+
+  /**
+   * @return the error message, without the check name and link added by Error Prone
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  int getStartOffset() {
+    return startOffset;
+  }
+
+  int getPreferredOffset() {
+    return preferredOffset;
+  }
+
+  int getEndOffset() {
+    return endOffset;
+  }
+
+  /**
+   * @param method the method the error was reported in, in the current compilation
+   * @return the position of the error in the current compilation
+   */
+  public DiagnosticPosition positionIn(JCTree method) {
+    int methodStart = method.getStartPosition();
+    return new DiagnosticPosition() {
+      @Override
+      public JCTree getTree() {
+        return method;
+      }
+
+      @Override
+      public int getStartPosition() {
+        return methodStart + startOffset;
+      }
+
+      @Override
+      public int getPreferredPosition() {
+        return methodStart + preferredOffset;
+      }
+
+      @Override
+      public int getEndPosition(EndPosTable endPosTable) {
+        return methodStart + endOffset;
+      }
+    };
+  }
+}
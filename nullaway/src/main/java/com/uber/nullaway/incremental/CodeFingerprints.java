@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.incremental;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.uber.nullaway.LibraryModels;
+import com.uber.nullaway.handlers.InferredJARModelsHandler;
+import com.uber.nullaway.handlers.stream.StreamModels;
+import com.uber.nullaway.jarinfer.JarInferStubxProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * Identifies the code that NullAway results depend on besides the sources being compiled: NullAway
+ * itself and the models it loads. Cached results (see {@link IncrementalAnalysis}) are only valid
+ * for the same fingerprints, so they are part of the name of the cache directory.
+ *
+ * <p>Fingerprints are computed once per class loader, like the models themselves are loaded once
+ * per class loader (see {@link com.uber.nullaway.ProcessCache}).
+ */
+public final class CodeFingerprints {
+
+  private static final Supplier<String> IMPLEMENTATION_FINGERPRINT =
+      Suppliers.memoize(CodeFingerprints::computeImplementationFingerprint);
+
+  private static final Supplier<String> MODELS_FINGERPRINT =
+      Suppliers.memoize(CodeFingerprints::computeModelsFingerprint);
+
+  private CodeFingerprints() {}
+
+  /**
+   * Identifies the running NullAway build: its implementation version for releases, otherwise (in
+   * development and tests, where there is no version, or for snapshots) a checksum of the jar or
+   * class directory NullAway is loaded from.
+   *
+   * @return the fingerprint of NullAway itself
+   */
+  public static String implementation() {
+    return IMPLEMENTATION_FINGERPRINT.get();
+  }
+
+  /**
+   * Identifies the models NullAway loads: a checksum of the jar or class directory of every {@link
+   * LibraryModels}, {@link StreamModels} and {@link JarInferStubxProvider} implementation found via
+   * {@link ServiceLoader}, of the stubx files of the latter, and of the Android SDK JarInfer models,
+   * if present.
+   *
+   * @return the fingerprint of the models
+   */
+  public static String models() {
+    return MODELS_FINGERPRINT.get();
+  }
+
+  private static String computeImplementationFingerprint() {
+    String version = CodeFingerprints.class.getPackage().getImplementationVersion();
+    if (version != null && !version.endsWith("-SNAPSHOT")) {
+      return version;
+    }
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(String.valueOf(version), StandardCharsets.UTF_8);
+    try {
+      putCodeSource(hasher, CodeFingerprints.class);
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      // cannot identify the build; never reuse results across JVMs then
+      hasher.putLong(System.nanoTime());
+    }
+    return hasher.hash().toString();
+  }
+
+  private static String computeModelsFingerprint() {
+    Hasher hasher = Hashing.sha256().newHasher();
+    try {
+      List<Class<?>> providerClasses = new ArrayList<>();
+      for (LibraryModels models :
+          ServiceLoader.load(LibraryModels.class, LibraryModels.class.getClassLoader())) {
+        providerClasses.add(models.getClass());
+      }
+      for (StreamModels models :
+          ServiceLoader.load(StreamModels.class, StreamModels.class.getClassLoader())) {
+        providerClasses.add(models.getClass());
+      }
+      for (JarInferStubxProvider provider :
+          ServiceLoader.load(
+              JarInferStubxProvider.class, InferredJARModelsHandler.class.getClassLoader())) {
+        providerClasses.add(provider.getClass());
+        for (String stubxPath : provider.pathsToStubxFiles()) {
+          putResource(hasher, stubxPath, provider.getClass().getResourceAsStream(stubxPath));
+        }
+      }
+      Class<?> androidModels = androidModelsClass();
+      if (androidModels != null) {
+        providerClasses.add(androidModels);
+        putResource(
+            hasher,
+            InferredJARModelsHandler.ANDROID_ASTUBX_LOCATION,
+            androidModels
+                .getClassLoader()
+                .getResourceAsStream(InferredJARModelsHandler.ANDROID_ASTUBX_LOCATION));
+      }
+      for (Class<?> providerClass : providerClasses) {
+        hasher.putString(providerClass.getName(), StandardCharsets.UTF_8).putByte((byte) 0);
+        putCodeSource(hasher, providerClass);
+      }
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      // cannot identify the models; never reuse results across JVMs then
+      hasher.putLong(System.nanoTime());
+    }
+    return hasher.hash().toString();
+  }
+
+  @Nullable
+  private static Class<?> androidModelsClass() {
+    try {
+      return Class.forName(InferredJARModelsHandler.ANDROID_MODEL_CLASS);
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+  }
+
+  private static void putResource(Hasher hasher, String path, @Nullable InputStream resource)
+      throws IOException {
+    hasher.putString(path, StandardCharsets.UTF_8).putByte((byte) 0);
+    if (resource == null) {
+      return;
+    }
+    try (InputStream in = resource) {
+      byte[] buffer = new byte[8192];
+      for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+        hasher.putBytes(buffer, 0, read);
+      }
+    }
+  }
+
+  /** Hashes the contents of the jar or class directory {@code clazz} is loaded from. */
+  private static void putCodeSource(Hasher hasher, Class<?> clazz)
+      throws IOException, URISyntaxException {
+    CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      throw new IOException("unknown code source of " + clazz);
+    }
+    Path location = Paths.get(codeSource.getLocation().toURI());
+    if (Files.isDirectory(location)) {
+      List<Path> files;
+      try (Stream<Path> walk = Files.walk(location)) {
+        files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+      }
+      for (Path file : files) {
+        hasher.putString(location.relativize(file).toString(), StandardCharsets.UTF_8);
+        hasher.putBytes(Files.readAllBytes(file));
+      }
+    } else {
+      hasher.putBytes(Files.readAllBytes(location));
+    }
+  }
+}
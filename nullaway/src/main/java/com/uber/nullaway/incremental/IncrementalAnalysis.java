@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.incremental;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.api.MultiTaskListener;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.EndPosTable;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Log;
+import com.uber.nullaway.Config;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.lang.model.element.NestingKind;
+
+/**
+ * Incremental mode (see {@link Config#getIncrementalCacheDir()}): skips checking methods that did
+ * not change since the previous compilation, replaying the errors reported in them back then.
+ *
+ * <p>The unit of caching is a method (other than a constructor or an initializer) declared directly
+ * in a named class, including its lambdas and local / anonymous classes. For each such method we
+ * store a fingerprint (see {@link MethodFingerprints}) and the errors reported while visiting it,
+ * in one file per top-level class under the cache directory. When a later compilation finds a
+ * method with the same fingerprint, NullAway replays the stored errors and skips all checks on
+ * trees within the method, including its dataflow analysis. Checks at the class level, like field
+ * initialization checking, always run; so do all checks on constructors and initializers, since
+ * their results depend on the rest of the class.
+ *
+ * <p>Replayed errors do not carry suggested fixes, so this mode cannot be combined with suggested
+ * suppressions or fix serialization.
+ *
+ * <p>One instance per javac context; like the checker itself, not thread-safe.
+ */
+public final class IncrementalAnalysis {
+
+  private static final Context.Key<IncrementalAnalysis> INCREMENTAL_ANALYSIS_KEY =
+      new Context.Key<>();
+
+  private static final String CACHE_FILE_SUFFIX = ".nullaway";
+
+  private final Path cacheDir;
+
+  private final Config config;
+
+  private final Log log;
+
+  /** results from the previous compilation, for the current top-level class */
+  private Map<String, IncrementalCacheFile.MethodResult> previousResults = new LinkedHashMap<>();
+
+  /** results for the current top-level class, to be written once it has been checked */
+  private Map<String, IncrementalCacheFile.MethodResult> currentResults = new LinkedHashMap<>();
+
+  @Nullable private Path currentCacheFile;
+
+  /** start and end positions of the method being skipped or recorded, if any */
+  private int methodStart = -1;
+
+  private int methodEnd = -1;
+
+  /** true if the trees within the current method are skipped */
+  private boolean skipping;
+
+  /** where to record errors reported within the current method, if not skipping */
+  @Nullable private List<CachedDiagnostic> recordedDiagnostics;
+
+  private int numSkippedMethods;
+
+  private int numCheckedMethods;
+
+  private IncrementalAnalysis(Context context, Config config) {
+    this.cacheDir = Paths.get(Preconditions.checkNotNull(config.getIncrementalCacheDir()));
+    this.config = config;
+    this.log = Log.instance(context);
+    // the results for the last top-level class of the compilation are written when it ends; we
+    // compare by name since TaskEvent.Kind.COMPILATION does not exist on JDK 8, where those
+    // results are therefore not cached
+    MultiTaskListener.instance(context)
+        .add(
+            new TaskListener() {
+              @Override
+              public void finished(TaskEvent e) {
+                if (e.getKind().name().equals("COMPILATION")) {
+                  flush();
+                }
+              }
+            });
+  }
+
+  /**
+   * Get the incremental analysis for the given javac context. Must only be called if {@link
+   * Config#getIncrementalCacheDir()} is set.
+   */
+  public static IncrementalAnalysis instance(Context context, Config config) {
+    IncrementalAnalysis instance = context.get(INCREMENTAL_ANALYSIS_KEY);
+    if (instance == null) {
+      instance = new IncrementalAnalysis(context, config);
+      context.put(INCREMENTAL_ANALYSIS_KEY, instance);
+    }
+    return instance;
+  }
+
+  /**
+   * Called when the checker starts visiting a top-level class. Writes the results for the previous
+   * one, and loads those of the previous compilation for {@code classSymbol}.
+   *
+   * @param classSymbol the top-level class
+   */
+  public void onMatchTopLevelClass(Symbol.ClassSymbol classSymbol) {
+    flush();
+    currentCacheFile = cacheDir.resolve(classSymbol.flatName().toString() + CACHE_FILE_SUFFIX);
+    previousResults = IncrementalCacheFile.read(currentCacheFile);
+  }
+
+  /**
+   * Called when the checker matches a method. If it is a unit of caching whose fingerprint did not
+   * change, returns the errors to replay for it, and skips the trees within it from now on.
+   * Otherwise, starts recording the errors reported within it.
+   *
+   * @param methodPath path to the method
+   * @param isInitializer true if the method is a constructor or an initializer
+   * @param state visitor state
+   * @return the errors to replay, or {@code null} if the method must be checked
+   */
+  @Nullable
+  public List<CachedDiagnostic> onMatchMethod(
+      TreePath methodPath, boolean isInitializer, VisitorState state) {
+    if (isInitializer || currentCacheFile == null || !isDeclaredInNamedClass(methodPath)) {
+      return null;
+    }
+    String fingerprint = MethodFingerprints.fingerprint(methodPath, state, config);
+    if (fingerprint == null) {
+      return null;
+    }
+    JCTree method = (JCTree) methodPath.getLeaf();
+    String key = methodKey(ASTHelpers.getSymbol((MethodTree) method));
+    methodStart = method.getStartPosition();
+    methodEnd = method.getEndPosition(endPositions(state));
+    IncrementalCacheFile.MethodResult previous = previousResults.get(key);
+    if (previous != null && previous.getFingerprint().equals(fingerprint)) {
+      skipping = true;
+      recordedDiagnostics = null;
+      currentResults.put(key, previous);
+      numSkippedMethods++;
+      return previous.getDiagnostics();
+    }
+    skipping = false;
+    List<CachedDiagnostic> diagnostics = new ArrayList<>();
+    recordedDiagnostics = diagnostics;
+    currentResults.put(key, new IncrementalCacheFile.MethodResult(fingerprint, diagnostics));
+    numCheckedMethods++;
+    return null;
+  }
+
+  /**
+   * @param tree a tree being matched
+   * @return true if {@code tree} is within a method whose errors are being replayed
+   */
+  public boolean isSkipped(Tree tree) {
+    return skipping && isWithinCurrentMethod(((JCTree) tree).getStartPosition());
+  }
+
+  /**
+   * Record an error about to be reported, if it is within the method being recorded.
+   *
+   * @param description the error
+   * @param message the error message, without the check name and link
+   * @param state visitor state at which the error is reported
+   */
+  public void onError(Description description, String message, VisitorState state) {
+    if (recordedDiagnostics == null
+        || !isWithinCurrentMethod(((JCTree) state.getPath().getLeaf()).getStartPosition())) {
+      return;
+    }
+    int start = description.position.getStartPosition();
+    int end = description.position.getEndPosition(endPositions(state));
+    if (start < methodStart || end > methodEnd) {
+      // we could not replay this error at the right place; do not cache the method
+      List<CachedDiagnostic> uncacheable = recordedDiagnostics;
+      currentResults.values().removeIf(result -> result.getDiagnostics() == uncacheable);
+      recordedDiagnostics = null;
+      return;
+    }
+    recordedDiagnostics.add(
+        new CachedDiagnostic(
+            message,
+            start - methodStart,
+            description.position.getPreferredPosition() - methodStart,
+            end - methodStart));
+  }
+
+  /**
+   * @return number of methods whose errors were replayed from the cache
+   */
+  public int getNumSkippedMethods() {
+    return numSkippedMethods;
+  }
+
+  /**
+   * @return number of methods that were checked and recorded in the cache
+   */
+  public int getNumCheckedMethods() {
+    return numCheckedMethods;
+  }
+
+  private boolean isWithinCurrentMethod(int position) {
+    return position >= methodStart && position < methodEnd;
+  }
+
+  private void flush() {
+    if (currentCacheFile != null) {
+      try {
+        IncrementalCacheFile.write(currentCacheFile, currentResults);
+      } catch (IOException e) {
+        // the cache is an optimization; do not fail the build, but do not leave stale results
+        // either, the class is checked again next time
+        log.printRawLines(
+            Log.WriterKind.WARNING,
+            "warning: NullAway could not write incremental cache file "
+                + currentCacheFile
+                + ": "
+                + e);
+        IncrementalCacheFile.deleteQuietly(currentCacheFile);
+      }
+    }
+    currentCacheFile = null;
+    previousResults = new LinkedHashMap<>();
+    currentResults = new LinkedHashMap<>();
+    methodStart = -1;
+    methodEnd = -1;
+    skipping = false;
+    recordedDiagnostics = null;
+  }
+
+  /** Is the method a member of a named class, with only named classes enclosing it? */
+  private static boolean isDeclaredInNamedClass(TreePath methodPath) {
+    for (Tree enclosing : methodPath.getParentPath()) {
+      if (enclosing instanceof CompilationUnitTree) {
+        return true;
+      }
+      if (!(enclosing instanceof ClassTree)) {
+        return false;
+      }
+      NestingKind nestingKind = ASTHelpers.getSymbol((ClassTree) enclosing).getNestingKind();
+      if (nestingKind.equals(NestingKind.LOCAL) || nestingKind.equals(NestingKind.ANONYMOUS)) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private static String methodKey(Symbol.MethodSymbol methodSymbol) {
+    return methodSymbol.owner.flatName() + "#" + methodSymbol;
+  }
+
+  private static EndPosTable endPositions(VisitorState state) {
+    return ((JCTree.JCCompilationUnit) state.getPath().getCompilationUnit()).endPositions;
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.incremental;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the cached results of the methods of one top-level class.
+ *
+ * <p>The format is a version number followed by, for each method, its key, its fingerprint and its
+ * diagnostics. Strings are written as length-prefixed UTF-8 bytes, since error messages may exceed
+ * the 64KB limit of {@link DataOutputStream#writeUTF(String)}. A file that cannot be read, e.g.
+ * because it was written by another version of NullAway, is treated as empty: all methods of the
+ * class are then re-checked.
+ */
+final class IncrementalCacheFile {
+
+  private static final int FORMAT_VERSION = 2;
+
+  private IncrementalCacheFile() {}
+
+  /**
+   * @param file cache file of a top-level class
+   * @return the cached results, by method key; empty if the file is missing or unreadable
+   */
+  static Map<String, MethodResult> read(Path file) {
+    Map<String, MethodResult> result = new LinkedHashMap<>();
+    try (InputStream in = Files.newInputStream(file);
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+      if (data.readInt() != FORMAT_VERSION) {
+        return result;
+      }
+      // lengths and counts cannot exceed the size of the file; checked so that a corrupt file
+      // cannot exhaust the heap
+      long maxLength = Files.size(file);
+      int numMethods = data.readInt();
+      for (int i = 0; i < numMethods; i++) {
+        String key = readString(data, maxLength);
+        String fingerprint = readString(data, maxLength);
+        int numDiagnostics = data.readInt();
+        if (numDiagnostics < 0 || numDiagnostics > maxLength) {
+          throw new IOException("invalid number of diagnostics: " + numDiagnostics);
+        }
+        List<CachedDiagnostic> diagnostics = new ArrayList<>(numDiagnostics);
+        for (int j = 0; j < numDiagnostics; j++) {
+          diagnostics.add(
+              new CachedDiagnostic(
+                  readString(data, maxLength), data.readInt(), data.readInt(), data.readInt()));
+        }
+        result.put(key, new MethodResult(fingerprint, diagnostics));
+      }
+    } catch (NoSuchFileException e) {
+      // nothing cached yet
+    } catch (IOException | RuntimeException e) {
+      // corrupt or truncated; re-check everything
+      result.clear();
+    }
+    return result;
+  }
+
+  /**
+   * Replaces the cache file of a top-level class. The file is written next to its destination and
+   * then moved, so that concurrent or interrupted builds never observe a partial file.
+   *
+   * @param file cache file of a top-level class
+   * @param methods the results to store, by method key
+   * @throws IOException if the file cannot be written; the temporary file is deleted then
+   */
+  static void write(Path file, Map<String, MethodResult> methods) throws IOException {
+    Files.createDirectories(file.getParent());
+    Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    boolean moved = false;
+    try {
+      try (OutputStream out = Files.newOutputStream(tmp);
+          DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(methods.size());
+        for (Map.Entry<String, MethodResult> entry : methods.entrySet()) {
+          writeString(data, entry.getKey());
+          writeString(data, entry.getValue().getFingerprint());
+          List<CachedDiagnostic> diagnostics = entry.getValue().getDiagnostics();
+          data.writeInt(diagnostics.size());
+          for (CachedDiagnostic diagnostic : diagnostics) {
+            writeString(data, diagnostic.getMessage());
+            data.writeInt(diagnostic.getStartOffset());
+            data.writeInt(diagnostic.getPreferredOffset());
+            data.writeInt(diagnostic.getEndOffset());
+          }
+        }
+      }
+      try {
+        Files.move(
+            tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      moved = true;
+    } finally {
+      if (!moved) {
+        deleteQuietly(tmp);
+      }
+    }
+  }
+
+  /**
+   * Deletes a file, if it exists, ignoring failures.
+   *
+   * @param file the file to delete
+   */
+  static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ignored) {
+      // nothing else we can do; a stale file is only a missed cache hit or an unused file
+    }
+  }
+
+  private static void writeString(DataOutputStream data, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    data.writeInt(bytes.length);
+    data.write(bytes);
+  }
+
+  private static String readString(DataInputStream data, long maxLength) throws IOException {
+    int length = data.readInt();
+    if (length < 0 || length > maxLength) {
+      throw new IOException("invalid string length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    data.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** The fingerprint of a method, and the diagnostics reported within it. */
+  static final class MethodResult {
+
+    private final String fingerprint;
+
+    private final List<CachedDiagnostic> diagnostics;
+
+    MethodResult(String fingerprint, List<CachedDiagnostic> diagnostics) {
+      this.fingerprint = fingerprint;
+      this.diagnostics = diagnostics;
+    }
+
+    String getFingerprint() {
+      return fingerprint;
+    }
+
+    List<CachedDiagnostic> getDiagnostics() {
+      return diagnostics;
+    }
+  }
+}
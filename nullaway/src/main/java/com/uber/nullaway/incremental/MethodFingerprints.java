@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.nullaway.incremental;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.code.Symbol;
+import com.uber.nullaway.ClassAnnotationInfo;
+import com.uber.nullaway.Config;
+import com.uber.nullaway.MethodSummaries;
+import com.uber.nullaway.NullabilityUtil;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.lang.model.element.ElementKind;
+
+/**
+ * Computes fingerprints of methods for {@link IncrementalAnalysis}.
+ *
+ * <p>The fingerprint of a method covers everything its NullAway results depend on, other than the
+ * configuration, the NullAway build and the models (which the cache directory is keyed on, see
+ * {@link CodeFingerprints}):
+ *
+ * <ul>
+ *   <li>its source text, including annotations and comments, so that cached diagnostic positions
+ *       relative to the start of the method stay valid;
+ *   <li>the annotations of its enclosing classes, which drive suppressions and null-marking;
+ *   <li>its own {@link Config#getVirtualAnnotations() virtual annotations};
+ *   <li>the signature and nullability annotations of every method, constructor and field it
+ *       references, of the functional interface methods of its lambdas and method references, and
+ *       of the method it overrides, along with whether their classes are null-annotated and their
+ *       virtual annotations.
+ * </ul>
+ */
+final class MethodFingerprints {
+
+  private MethodFingerprints() {}
+
+  /**
+   * @param methodPath path to a method declared directly in a named class
+   * @param state visitor state
+   * @param config NullAway config
+   * @return the fingerprint of the method, or {@code null} if its source is not available
+   */
+  @Nullable
+  static String fingerprint(TreePath methodPath, VisitorState state, Config config) {
+    MethodTree methodTree = (MethodTree) methodPath.getLeaf();
+    String source = state.getSourceForNode(methodTree);
+    if (source == null) {
+      return null;
+    }
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, source);
+    for (Tree enclosing : methodPath.getParentPath()) {
+      if (enclosing instanceof ClassTree) {
+        putSymbol(hasher, ASTHelpers.getSymbol((ClassTree) enclosing), state, config);
+      }
+    }
+    Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(methodTree);
+    putSymbol(hasher, methodSymbol, state, config);
+    Symbol.MethodSymbol overridden =
+        MethodSummaries.instance(state.context)
+            .get(methodSymbol)
+            .getClosestOverriddenMethod(state.getTypes());
+    if (overridden != null) {
+      putSymbol(hasher, overridden, state, config);
+    }
+    for (Symbol referenced : referencedSymbols(methodTree, methodSymbol, state)) {
+      putSymbol(hasher, referenced, state, config);
+    }
+    return hasher.hash().toString();
+  }
+
+  /** Non-local symbols referenced from {@code methodTree}, in order of first reference. */
+  private static Set<Symbol> referencedSymbols(
+      MethodTree methodTree, Symbol.MethodSymbol methodSymbol, VisitorState state) {
+    Set<Symbol> result = new LinkedHashSet<>();
+    new TreeScanner<Void, Void>() {
+      @Override
+      public Void visitIdentifier(IdentifierTree tree, Void unused) {
+        add(ASTHelpers.getSymbol(tree));
+        return super.visitIdentifier(tree, unused);
+      }
+
+      @Override
+      public Void visitMemberSelect(MemberSelectTree tree, Void unused) {
+        add(ASTHelpers.getSymbol(tree));
+        return super.visitMemberSelect(tree, unused);
+      }
+
+      @Override
+      public Void visitNewClass(NewClassTree tree, Void unused) {
+        add(ASTHelpers.getSymbol(tree));
+        return super.visitNewClass(tree, unused);
+      }
+
+      @Override
+      public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
+        add(ASTHelpers.getSymbol(tree));
+        add(NullabilityUtil.getFunctionalInterfaceMethod(tree, state.getTypes()));
+        return super.visitMemberReference(tree, unused);
+      }
+
+      @Override
+      public Void visitLambdaExpression(LambdaExpressionTree tree, Void unused) {
+        add(NullabilityUtil.getFunctionalInterfaceMethod(tree, state.getTypes()));
+        return super.visitLambdaExpression(tree, unused);
+      }
+
+      private void add(@Nullable Symbol symbol) {
+        if (symbol == null || symbol.getKind().equals(ElementKind.PACKAGE)) {
+          return;
+        }
+        // locals and parameters of the method are covered by its source text
+        if (symbol.owner == methodSymbol || symbol.owner.getKind().equals(ElementKind.METHOD)) {
+          return;
+        }
+        result.add(symbol);
+      }
+    }.scan(methodTree, null);
+    return result;
+  }
+
+  private static void putSymbol(Hasher hasher, Symbol symbol, VisitorState state, Config config) {
+    putString(hasher, symbol.owner.toString());
+    putString(hasher, symbol.toString());
+    putString(hasher, String.valueOf(symbol.type));
+    hasher.putLong(symbol.flags());
+    putString(hasher, symbol.getAnnotationMirrors().toString());
+    putString(hasher, symbol.getRawTypeAttributes().toString());
+    hasher.putBoolean(config.getVirtualAnnotations().isNullable(symbol, state.context));
+    if (symbol instanceof Symbol.MethodSymbol) {
+      for (Symbol.VarSymbol param : ((Symbol.MethodSymbol) symbol).getParameters()) {
+        putString(hasher, param.getAnnotationMirrors().toString());
+        hasher.putBoolean(config.getVirtualAnnotations().isNullable(param, state.context));
+      }
+    } else if (symbol instanceof Symbol.VarSymbol) {
+      putString(hasher, String.valueOf(((Symbol.VarSymbol) symbol).getConstantValue()));
+    }
+    Symbol.ClassSymbol enclosingClass = ASTHelpers.enclosingClass(symbol);
+    if (enclosingClass != null) {
+      hasher.putBoolean(
+          ClassAnnotationInfo.instance(state.context).isClassNullAnnotated(enclosingClass, config));
+    }
+  }
+
+  private static void putString(Hasher hasher, String s) {
+    hasher.putInt(s.length());
+    hasher.putString(s, StandardCharsets.UTF_8);
+  }
+}
@@ -1,5 +1,6 @@
 package com.uber.nullaway;
 
+import java.util.Arrays;
 import org.junit.Test;
 
 public class NullAwayAccessPathsTests extends NullAwayTestsBase {
@@ -115,4 +116,69 @@ public class NullAwayAccessPathsTests extends NullAwayTestsBase {
             "}")
         .doTest();
   }
+
+  @Test
+  public void testMaxAccessPathLength() {
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:MaxAccessPathLength=1"))
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  @Nullable Test next;",
+            "  @Nullable Object f;",
+            "  void shortPath(Object o) {",
+            "    if (f != null) {",
+            "      f.toString(); // this.f has length 1, still tracked",
+            "    }",
+            "    if (o != null) {",
+            "      o.toString();",
+            "    }",
+            "  }",
+            "  void longPath(Test t) {",
+            "    if (t.next != null && t.next.f != null) {",
+            "      // BUG: Diagnostic contains: dereferenced expression t.next.f",
+            "      t.next.f.toString(); // t.next.f has length 2, not tracked",
+            "    }",
+            "  }",
+            "}")
+        .doTest();
+  }
+
+  @Test
+  public void testMaxStoreEntries() {
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:MaxStoreEntries=1"))
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  @Nullable Object f;",
+            "  @Nullable Object g;",
+            "  void fields() {",
+            "    if (f != null && g != null) {",
+            "      f.toString();",
+            "      // BUG: Diagnostic contains: dereferenced expression g",
+            "      g.toString(); // store is full, fact about this.g dropped",
+            "    }",
+            "  }",
+            "  void locals(@Nullable Object o, @Nullable Object p) {",
+            "    if (o != null && p != null) {",
+            "      o.toString(); // locals and parameters are always tracked",
+            "      p.toString();",
+            "    }",
+            "  }",
+            "}")
+        .doTest();
+  }
 }
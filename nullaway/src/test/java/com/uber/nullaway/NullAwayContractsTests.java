@@ -142,6 +142,32 @@ public class NullAwayContractsTests extends NullAwayTestsBase {
         .doTest();
   }
 
+  @Test
+  public void malformedClauseDoesNotDisableOtherClauses() {
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber"))
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "import org.jetbrains.annotations.Contract;",
+            "class Test {",
+            "  @Contract(\"null -> false; jabberwocky -> true\")",
+            "  static boolean isNonNull(@Nullable Object o) { return o != null; }",
+            "  static String test(@Nullable Object o) {",
+            "    // BUG: Diagnostic contains: Invalid @Contract annotation",
+            "    if (isNonNull(o)) {",
+            "      return o.toString();",
+            "    }",
+            "    return \"\";",
+            "  }",
+            "}")
+        .doTest();
+  }
+
   @Test
   public void contractNonVarArg() {
     makeTestHelperWithArgs(
@@ -97,6 +97,72 @@ public class NullAwayCoreTests extends NullAwayTestsBase {
         .doTest();
   }
 
+  @Test
+  public void enclosingMethodFactsInLambdasAndAnonymousClasses() {
+    defaultCompilationHelper
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "import java.util.function.Supplier;",
+            "import javax.annotation.Nullable;",
+            "class Test {",
+            "  static void consume(Supplier<Object> s) {}",
+            "  static void run(Runnable r) {}",
+            "  static void safe(@Nullable Object a, @Nullable Object b) {",
+            "    if (a == null || b == null) {",
+            "      return;",
+            "    }",
+            "    // nested contexts at program points with the same store",
+            "    consume(() -> a.toString());",
+            "    consume(() -> b.toString());",
+            "    run(",
+            "        new Runnable() {",
+            "          @Override",
+            "          public void run() {",
+            "            a.hashCode();",
+            "            b.hashCode();",
+            "          }",
+            "        });",
+            "    class Local {",
+            "      Object get() {",
+            "        return a.toString() + b.toString();",
+            "      }",
+            "    }",
+            "    consume(() -> new Local().get());",
+            "  }",
+            "  static void unsafe(@Nullable Object a, @Nullable Object b) {",
+            "    if (a != null) {",
+            "      consume(() -> a.toString());",
+            "    }",
+            "    // BUG: Diagnostic contains: dereferenced expression b is @Nullable",
+            "    consume(() -> b.toString());",
+            "    run(",
+            "        new Runnable() {",
+            "          @Override",
+            "          public void run() {",
+            "            // BUG: Diagnostic contains: dereferenced expression a is @Nullable",
+            "            a.hashCode();",
+            "          }",
+            "        });",
+            "  }",
+            "  static void nested(@Nullable Object a, @Nullable Object b) {",
+            "    if (a != null) {",
+            "      run(",
+            "          () -> {",
+            "            Object c = a;",
+            "            consume(() -> a.toString() + c.toString());",
+            "            // BUG: Diagnostic contains: dereferenced expression b is @Nullable",
+            "            consume(() -> b.toString());",
+            "          });",
+            "    }",
+            "    // outside of the check on a, in the same enclosing method as the outer lambda",
+            "    // BUG: Diagnostic contains: dereferenced expression a is @Nullable",
+            "    consume(() -> a.toString());",
+            "  }",
+            "}")
+        .doTest();
+  }
+
   @Test
   public void erasedIterator() {
     // just checking for crash
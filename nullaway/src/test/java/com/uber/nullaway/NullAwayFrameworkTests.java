@@ -37,6 +37,40 @@ public class NullAwayFrameworkTests extends NullAwayTestsBase {
     defaultCompilationHelper.addSourceFile("NullAwayStreamSupportPositiveCases.java").doTest();
   }
 
+  @Test
+  public void streamSupportFromServiceLoadedModels() {
+    // Stream models for com.uber.lib.CustomStream are loaded from TestStreamModels
+    defaultCompilationHelper
+        .addSourceLines(
+            "CustomStream.java",
+            "package com.uber.lib;",
+            "import java.util.function.Function;",
+            "import java.util.function.Predicate;",
+            "public interface CustomStream<T> {",
+            "  CustomStream<T> filter(Predicate<? super T> predicate);",
+            "  <R> CustomStream<R> map(Function<? super T, ? extends R> mapper);",
+            "  CustomStream<T> distinct();",
+            "}")
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "import com.uber.lib.CustomStream;",
+            "import javax.annotation.Nullable;",
+            "class Test {",
+            "  static class Holder {",
+            "    @Nullable String s;",
+            "  }",
+            "  CustomStream<Integer> filterThenMap(CustomStream<Holder> stream) {",
+            "    return stream.filter(h -> h.s != null).distinct().map(h -> h.s.length());",
+            "  }",
+            "  CustomStream<Integer> mapWithoutFilter(CustomStream<Holder> stream) {",
+            "    // BUG: Diagnostic contains: dereferenced expression h.s is @Nullable",
+            "    return stream.map(h -> h.s.length());",
+            "  }",
+            "}")
+        .doTest();
+  }
+
   @Test
   public void supportObjectsIsNull() {
     defaultCompilationHelper
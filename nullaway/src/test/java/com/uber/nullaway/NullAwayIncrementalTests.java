@@ -0,0 +1,264 @@
+package com.uber.nullaway;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.errorprone.BaseErrorProneJavaCompiler;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.ErrorProneFlags;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.sun.source.util.JavacTask;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.uber.nullaway.incremental.IncrementalAnalysis;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NullAwayIncrementalTests extends NullAwayTestsBase {
+
+  private String cacheDir;
+
+  @Before
+  public void setupCacheDir() throws IOException {
+    cacheDir = temporaryFolder.newFolder("incremental").getAbsolutePath();
+  }
+
+  private CompilationTestHelper makeIncrementalHelper() {
+    return makeTestHelperWithArgs(
+        Arrays.asList(
+            "-d",
+            temporaryFolder.getRoot().getAbsolutePath(),
+            "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+            "-XepOpt:NullAway:IncrementalCacheDir=" + cacheDir));
+  }
+
+  @Test
+  public void unchangedMethodErrorsAreReplayed() {
+    String[] test = {
+      "package com.uber;",
+      "import javax.annotation.Nullable;",
+      "public class Test {",
+      "  @Nullable Object f;",
+      "  void deref() {",
+      "    // BUG: Diagnostic contains: dereferenced expression f is @Nullable",
+      "    f.toString();",
+      "  }",
+      "  Object returnsNull() {",
+      "    // BUG: Diagnostic contains: returning @Nullable expression",
+      "    return f;",
+      "  }",
+      "  void safe() {",
+      "    if (f != null) {",
+      "      f.toString();",
+      "    }",
+      "  }",
+      "}"
+    };
+    // the first compilation fills the cache, the second one replays it
+    makeIncrementalHelper().addSourceLines("Test.java", test).doTest();
+    makeIncrementalHelper().addSourceLines("Test.java", test).doTest();
+  }
+
+  @Test
+  public void movedMethodErrorsAreReplayedAtNewPosition() {
+    makeIncrementalHelper()
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  void deref(@Nullable Object o) {",
+            "    // BUG: Diagnostic contains: dereferenced expression o is @Nullable",
+            "    o.toString();",
+            "  }",
+            "}")
+        .doTest();
+    makeIncrementalHelper()
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  void added() {}",
+            "  void deref(@Nullable Object o) {",
+            "    // BUG: Diagnostic contains: dereferenced expression o is @Nullable",
+            "    o.toString();",
+            "  }",
+            "}")
+        .doTest();
+  }
+
+  @Test
+  public void methodIsRecheckedWhenReferencedDeclarationChanges() {
+    makeIncrementalHelper()
+        .addSourceLines(
+            "Other.java",
+            "package com.uber;",
+            "public class Other {",
+            "  Object get() { return new Object(); }",
+            "}")
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "public class Test {",
+            "  void use(Other other) { other.get().toString(); }",
+            "}")
+        .doTest();
+    // the source of use() is unchanged, but the method it calls now returns @Nullable
+    makeIncrementalHelper()
+        .addSourceLines(
+            "Other.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Other {",
+            "  @Nullable Object get() { return null; }",
+            "}")
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "public class Test {",
+            "  // BUG: Diagnostic contains: dereferenced expression other.get() is @Nullable",
+            "  void use(Other other) { other.get().toString(); }",
+            "}")
+        .doTest();
+  }
+
+  @Test
+  public void secondCompilationReplaysAllUnchangedMethods() throws IOException {
+    // the results for the last class of a compilation are only cached on JDK 9+
+    assumeJava9OrLater();
+    Path source =
+        writeSource(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  @Nullable Object f;",
+            "  void deref() { f.toString(); }",
+            "  Object returnsNull() { return f; }",
+            "  void safe() { if (f != null) { f.toString(); } }",
+            "}");
+    IncrementalCompilation first = compile(source);
+    assertEquals(0, first.skippedMethods);
+    assertEquals(3, first.checkedMethods);
+    assertEquals(2, first.errors.size());
+    IncrementalCompilation second = compile(source);
+    assertEquals(3, second.skippedMethods);
+    assertEquals(0, second.checkedMethods);
+    assertEquals(first.errors, second.errors);
+  }
+
+  @Test
+  public void onlyChangedMethodIsRechecked() throws IOException {
+    assumeJava9OrLater();
+    Path source =
+        writeSource(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  void deref(@Nullable Object o) { o.toString(); }",
+            "  void other() {}",
+            "}");
+    IncrementalCompilation first = compile(source);
+    assertEquals(1, first.errors.size());
+    writeSource(
+        "Test.java",
+        "package com.uber;",
+        "import javax.annotation.Nullable;",
+        "public class Test {",
+        "  void added() {}",
+        "  void deref(@Nullable Object o) { o.toString(); }",
+        "  void other() { Object x = null; }",
+        "}");
+    IncrementalCompilation second = compile(source);
+    // deref() is replayed, one line further down; added() and other() are checked
+    assertEquals(1, second.skippedMethods);
+    assertEquals(2, second.checkedMethods);
+    assertEquals(
+        Arrays.asList(first.errors.get(0).replaceFirst("^4:", "5:")), second.errors);
+  }
+
+  private static void assumeJava9OrLater() {
+    Assume.assumeTrue(Double.parseDouble(System.getProperty("java.specification.version")) >= 9);
+  }
+
+  private Path writeSource(String fileName, String... lines) throws IOException {
+    Path dir = temporaryFolder.getRoot().toPath().resolve("src");
+    Files.createDirectories(dir);
+    return Files.write(dir.resolve(fileName), Arrays.asList(lines), StandardCharsets.UTF_8);
+  }
+
+  /** Errors reported by an incremental compilation, and its cache statistics. */
+  private static final class IncrementalCompilation {
+
+    /** errors, as {@code line:column:message} */
+    final List<String> errors = new ArrayList<>();
+
+    int skippedMethods;
+
+    int checkedMethods;
+  }
+
+  /** Compiles {@code source} with NullAway in incremental mode, using {@link #cacheDir}. */
+  private IncrementalCompilation compile(Path source) throws IOException {
+    BaseErrorProneJavaCompiler compiler =
+        new BaseErrorProneJavaCompiler(ScannerSupplier.fromBugCheckerClasses(NullAway.class));
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    IncrementalCompilation result = new IncrementalCompilation();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+      List<String> options =
+          Arrays.asList(
+              "-d",
+              temporaryFolder.newFolder().getAbsolutePath(),
+              "-classpath",
+              System.getProperty("java.class.path"),
+              "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+              "-XepOpt:NullAway:IncrementalCacheDir=" + cacheDir);
+      JavacTask task =
+          (JavacTask)
+              compiler.getTask(
+                  null,
+                  fileManager,
+                  diagnostics,
+                  options,
+                  null,
+                  fileManager.getJavaFileObjects(source.toFile()));
+      task.call();
+      // the instance created during the compilation, since it is already in the context
+      IncrementalAnalysis analysis =
+          IncrementalAnalysis.instance(
+              ((BasicJavacTask) task).getContext(),
+              ErrorProneCLIFlagsConfig.forFlags(
+                  ErrorProneFlags.builder()
+                      .putFlag("NullAway:AnnotatedPackages", "com.uber")
+                      .putFlag("NullAway:IncrementalCacheDir", cacheDir)
+                      .build()));
+      result.skippedMethods = analysis.getNumSkippedMethods();
+      result.checkedMethods = analysis.getNumCheckedMethods();
+    }
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+        result.errors.add(
+            diagnostic.getLineNumber()
+                + ":"
+                + diagnostic.getColumnNumber()
+                + ":"
+                + diagnostic.getMessage(Locale.ROOT));
+      }
+    }
+    return result;
+  }
+}
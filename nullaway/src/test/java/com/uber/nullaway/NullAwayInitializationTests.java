@@ -1,5 +1,7 @@
 package com.uber.nullaway;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
 
 public class NullAwayInitializationTests extends NullAwayTestsBase {
@@ -127,4 +129,33 @@ public class NullAwayInitializationTests extends NullAwayTestsBase {
             "}")
         .doTest();
   }
+
+  @Test
+  public void initFieldsAcrossBitsetWords() {
+    // enough fields that the nonnull field index spans more than one 64-bit word
+    int numFields = 70;
+    List<String> lines = new ArrayList<>();
+    lines.add("package com.uber;");
+    lines.add("class Test {");
+    for (int i = 0; i < numFields; i++) {
+      lines.add("  Object f" + i + ";");
+    }
+    lines.add("  Test() {");
+    lines.add("    init();");
+    lines.add("  }");
+    lines.add(
+        "  // BUG: Diagnostic contains: initializer method does not guarantee @NonNull field f69");
+    lines.add("  Test(int x) {");
+    for (int i = 0; i < numFields - 1; i++) {
+      lines.add("    f" + i + " = new Object();");
+    }
+    lines.add("  }");
+    lines.add("  private void init() {");
+    for (int i = 0; i < numFields; i++) {
+      lines.add("    f" + i + " = new Object();");
+    }
+    lines.add("  }");
+    lines.add("}");
+    defaultCompilationHelper.addSourceLines("Test.java", lines.toArray(new String[0])).doTest();
+  }
 }
@@ -0,0 +1,143 @@
+package com.uber.nullaway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.BaseErrorProneJavaCompiler;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.sun.source.util.JavacTask;
+import com.sun.tools.javac.api.BasicJavacTask;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import org.junit.Test;
+
+public class NullAwayProfilingTests extends NullAwayTestsBase {
+
+  @Test
+  public void lambdasAtEqualStoresShareEnvironmentSnapshot() throws IOException {
+    Path source =
+        writeSource(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  static void run(Runnable... rs) {}",
+            "  void m(@Nullable Object o) {",
+            "    if (o == null) { return; }",
+            "    // the store is the same before each lambda",
+            "    run(() -> o.toString(), () -> o.hashCode(), () -> o.toString());",
+            "  }",
+            "}");
+    ImmutableMap<String, Long> counters = compile(source);
+    assertEquals(3L, (long) counters.get("enclosingEnvironments.savedContexts"));
+    assertEquals(1L, (long) counters.get("enclosingEnvironments.snapshots"));
+    // the filtered snapshot retains the fact that o is non-null
+    assertTrue(counters.get("enclosingEnvironments.peakRetainedEntries") > 0);
+  }
+
+  @Test
+  public void factsDroppedByAccessPathLimitsAreCounted() throws IOException {
+    Path source =
+        writeSource(
+            "Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  @Nullable Test next;",
+            "  @Nullable Object f;",
+            "  @Nullable Object g;",
+            "  void longPath(Test t) {",
+            "    if (t.next != null && t.next.f != null) {}",
+            "  }",
+            "  void fullStore() {",
+            "    if (f != null && g != null) {}",
+            "  }",
+            "}");
+    ImmutableMap<String, Long> unbounded = compile(source);
+    assertEquals(0L, (long) unbounded.get("accessPathLimits.droppedForPathLength"));
+    assertEquals(0L, (long) unbounded.get("accessPathLimits.droppedForStoreSize"));
+    ImmutableMap<String, Long> pathLength =
+        compile(source, "-XepOpt:NullAway:MaxAccessPathLength=1");
+    // the fact about t.next.f is dropped
+    assertTrue(pathLength.get("accessPathLimits.droppedForPathLength") > 0);
+    ImmutableMap<String, Long> storeSize = compile(source, "-XepOpt:NullAway:MaxStoreEntries=1");
+    // the second fact of each condition is dropped
+    assertTrue(storeSize.get("accessPathLimits.droppedForStoreSize") > 0);
+  }
+
+  @Test
+  public void streamChainStateIsCounted() throws IOException {
+    Path source =
+        writeSource(
+            "Test.java",
+            "package com.uber;",
+            "import java.util.stream.Stream;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "  @Nullable Object f;",
+            "  Stream<Object> chain(Stream<Test> s) {",
+            "    return s.filter(t -> t.f != null).map(t -> t.f);",
+            "  }",
+            "  void noChain() {}",
+            "}");
+    ImmutableMap<String, Long> counters = compile(source);
+    // the state of the chain is released after chain(), but its peak is recorded
+    assertTrue(counters.get("streams.peakRetainedEntries") > 0);
+  }
+
+  private Path writeSource(String fileName, String... lines) throws IOException {
+    Path dir = temporaryFolder.getRoot().toPath().resolve("src");
+    Files.createDirectories(dir);
+    return Files.write(dir.resolve(fileName), Arrays.asList(lines), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Compiles {@code source} with NullAway's profiling output enabled.
+   *
+   * @param source the file to compile
+   * @param extraOptions additional javac / Error Prone options
+   * @return the profiling counters at the end of the compilation
+   */
+  private ImmutableMap<String, Long> compile(Path source, String... extraOptions)
+      throws IOException {
+    BaseErrorProneJavaCompiler compiler =
+        new BaseErrorProneJavaCompiler(ScannerSupplier.fromBugCheckerClasses(NullAway.class));
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+      List<String> options =
+          ImmutableList.<String>builder()
+              .add(
+                  "-d",
+                  temporaryFolder.newFolder().getAbsolutePath(),
+                  "-classpath",
+                  System.getProperty("java.class.path"),
+                  "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                  "-XepOpt:NullAway:ProfilingOutput=true")
+              .add(extraOptions)
+              .build();
+      JavacTask task =
+          (JavacTask)
+              compiler.getTask(
+                  null,
+                  fileManager,
+                  diagnostics,
+                  options,
+                  null,
+                  fileManager.getJavaFileObjects(source.toFile()));
+      task.call();
+      // the instance created during the compilation, since it is already in the context
+      return Profiling.instance(((BasicJavacTask) task).getContext()).getCounters();
+    }
+  }
+}
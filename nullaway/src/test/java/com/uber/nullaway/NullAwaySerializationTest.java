@@ -22,10 +22,14 @@
 
 package com.uber.nullaway;
 
+import static org.junit.Assert.assertEquals;
+
 import com.google.common.base.Preconditions;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
+import com.uber.nullaway.fixserialization.location.FixLocation;
 import com.uber.nullaway.fixserialization.out.ErrorInfo;
 import com.uber.nullaway.fixserialization.out.FieldInitializationInfo;
+import com.uber.nullaway.fixserialization.out.ParamTestInfo;
 import com.uber.nullaway.fixserialization.out.SuggestedFixInfo;
 import com.uber.nullaway.tools.DisplayFactory;
 import com.uber.nullaway.tools.ErrorDisplay;
@@ -38,6 +42,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -746,6 +752,179 @@ public class NullAwaySerializationTest extends NullAwayTestsBase {
         .doTest();
   }
 
+  @Test
+  public void examineMethodParamProtectionMultiTest() throws IOException {
+    Path tempRoot = Paths.get(temporaryFolder.getRoot().getAbsolutePath(), "multi");
+    Files.createDirectories(tempRoot);
+    Path config = tempRoot.resolve("serializer.xml");
+    new FixSerializationConfig.Builder()
+        .setParamProtectionMultiTest(true)
+        .setOutputDirectory(tempRoot.toString())
+        .writeAsXML(config.toString());
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:SerializeFixMetadata=true",
+                "-XepOpt:NullAway:FixSerializationConfigPath=" + config))
+        .addSourceLines(
+            "com/uber/Test.java",
+            "package com.uber;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "   Object run(Object a, Object b, @Nullable Object c, int i) {",
+            "       a.toString();",
+            "       a.hashCode();",
+            "       return b;",
+            "   }",
+            "   void sink(Object d, Object unused) {",
+            "       if (d != null) {",
+            "           d.toString();",
+            "       }",
+            "   }",
+            "   void call() {",
+            "       run(new Object(), new Object(), null, 0);",
+            "       // BUG: Diagnostic contains: passing @Nullable",
+            "       sink(null, new Object());",
+            "   }",
+            "}")
+        .doTest();
+    List<String> lines = Files.readAllLines(tempRoot.resolve("param_test.tsv"));
+    assertEquals(ParamTestInfo.header(), lines.get(0));
+    String run =
+        "PARAMETER\tcom.uber.Test\trun(java.lang.Object,java.lang.Object,java.lang.Object,int)";
+    String sink = "PARAMETER\tcom.uber.Test\tsink(java.lang.Object,java.lang.Object)";
+    assertEquals(
+        Arrays.asList(
+            run + "\ta\t0\tBODY\t1",
+            run + "\tb\t1\tBODY\t1",
+            sink + "\td\t0\tBODY\t0",
+            sink + "\td\t0\tCALL_SITE\t-1",
+            sink + "\tunused\t1\tBODY\t0"),
+        lines.stream()
+            .skip(1)
+            // drop the uri column, which points into the temporary folder
+            .map(line -> line.replaceFirst("\tfile:[^\t]*", ""))
+            .sorted()
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void methodParamProtectionMultiTestRerunsNullAwayChecks() throws IOException {
+    Path tempRoot = Paths.get(temporaryFolder.getRoot().getAbsolutePath(), "multi-checks");
+    Files.createDirectories(tempRoot);
+    Path config = tempRoot.resolve("serializer.xml");
+    new FixSerializationConfig.Builder()
+        .setParamProtectionMultiTest(true)
+        .setOutputDirectory(tempRoot.toString())
+        .writeAsXML(config.toString());
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:SerializeFixMetadata=true",
+                "-XepOpt:NullAway:FixSerializationConfigPath=" + config))
+        .addSourceLines(
+            "com/uber/Test.java",
+            "package com.uber;",
+            "import com.google.common.base.Strings;",
+            "import javax.annotation.Nullable;",
+            "public class Test {",
+            "   int unbox(Integer i) { return i; }",
+            "   Object array(Object[] a) { return a[0]; }",
+            "   void loop(Object[] arr) { for (Object o : arr) {} }",
+            "   void select(String s) { switch (s) { default: } }",
+            "   void modeled(String m) {",
+            "       if (!Strings.isNullOrEmpty(m)) {",
+            "           m.length();",
+            "       }",
+            "   }",
+            "}",
+            "class Base {",
+            "   void m(Object p) {}",
+            "}",
+            "class Sub extends Base {",
+            "   @Override",
+            "   void m(Object p) {}",
+            "}",
+            "class NullableBase {",
+            "   void n(@Nullable Object q) {}",
+            "}",
+            "class NullableSub extends NullableBase {",
+            "   @Override",
+            "   // BUG: Diagnostic contains: parameter q is @NonNull",
+            "   void n(Object q) {}",
+            "}")
+        .doTest();
+    List<String> lines = Files.readAllLines(tempRoot.resolve("param_test.tsv"));
+    assertEquals(ParamTestInfo.header(), lines.get(0));
+    assertEquals(
+        Arrays.asList(
+            "PARAMETER\tcom.uber.Base\tm(java.lang.Object)\tp\t0\tBODY\t0",
+            // Sub.m would have to declare p @Nullable too
+            "PARAMETER\tcom.uber.Base\tm(java.lang.Object)\tp\t0\tOVERRIDE\t1",
+            "PARAMETER\tcom.uber.NullableSub\tn(java.lang.Object)\tq\t0\tBODY\t0",
+            "PARAMETER\tcom.uber.NullableSub\tn(java.lang.Object)\tq\t0\tOVERRIDE\t-1",
+            "PARAMETER\tcom.uber.Sub\tm(java.lang.Object)\tp\t0\tBODY\t0",
+            "PARAMETER\tcom.uber.Test\tarray(java.lang.Object[])\ta\t0\tBODY\t1",
+            "PARAMETER\tcom.uber.Test\tloop(java.lang.Object[])\tarr\t0\tBODY\t1",
+            // the library model of Strings.isNullOrEmpty still applies
+            "PARAMETER\tcom.uber.Test\tmodeled(java.lang.String)\tm\t0\tBODY\t0",
+            "PARAMETER\tcom.uber.Test\tselect(java.lang.String)\ts\t0\tBODY\t1",
+            "PARAMETER\tcom.uber.Test\tunbox(java.lang.Integer)\ti\t0\tBODY\t1"),
+        lines.stream()
+            .skip(1)
+            .map(line -> line.replaceFirst("\tfile:[^\t]*", ""))
+            .sorted()
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void propertiesConfigTest() {
+    Path tempRoot = Paths.get(temporaryFolder.getRoot().getAbsolutePath(), "properties");
+    String config = tempRoot.resolve("serializer.properties").toString();
+    try {
+      Files.createDirectories(tempRoot);
+      new FixSerializationConfig.Builder()
+          .setSuggest(true, false)
+          .setOutputDirectory(tempRoot.toString())
+          .writeAsProperties(config);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    SerializationTestHelper<FixDisplay> tester = new SerializationTestHelper<>(tempRoot);
+    tester
+        .setArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:SerializeFixMetadata=true",
+                "-XepOpt:NullAway:FixSerializationConfigPath=" + config))
+        .addSourceLines(
+            "com/uber/SubClass.java",
+            "package com.uber;",
+            "public class SubClass {",
+            "   Object test(boolean flag) {",
+            "       // BUG: Diagnostic contains: returning @Nullable",
+            "       return flag ? new Object() : null;",
+            "   }",
+            "}")
+        .setExpectedOutputs(
+            new FixDisplay(
+                "javax.annotation.Nullable",
+                "test(boolean)",
+                "null",
+                "METHOD",
+                "com.uber.SubClass",
+                "com/uber/SubClass.java"))
+        .setFactory(fixDisplayFactory)
+        .setOutputFileNameAndHeader(SUGGEST_FIX_FILE_NAME, SUGGEST_FIX_FILE_HEADER)
+        .doTest();
+  }
+
   @Test
   public void errorSerializationTest() {
     SerializationTestHelper<ErrorDisplay> tester = new SerializationTestHelper<>(root);
@@ -891,4 +1070,40 @@ public class NullAwaySerializationTest extends NullAwayTestsBase {
         .setFactory(fieldInitDisplayFactory)
         .doTest();
   }
+
+  @Test
+  public void virtualAnnotationsTest() throws IOException {
+    Path virtualAnnotations = root.resolve("virtual.tsv");
+    Files.write(
+        virtualAnnotations,
+        Arrays.asList(
+            FixLocation.header(),
+            "METHOD\tcom.uber.Test\tfind(java.lang.String)\tnull\tnull\tfile:///Test.java",
+            "PARAMETER\tcom.uber.Test\tuse(int,java.lang.Object)\to\t1\tfile:///Test.java",
+            "FIELD\tcom.uber.Test\tnull\tf\tnull\tfile:///Test.java"));
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:VirtualAnnotationsPath=" + virtualAnnotations))
+        .addSourceLines(
+            "com/uber/Test.java",
+            "package com.uber;",
+            "public class Test {",
+            "   Object f;",
+            "   Object find(String key) {",
+            "     f = null;",
+            "     return null;",
+            "   }",
+            "   void use(int i, Object o) {",
+            "     // BUG: Diagnostic contains: dereferenced expression o is @Nullable",
+            "     o.toString();",
+            "     // BUG: Diagnostic contains: dereferenced expression find(\"k\") is @Nullable",
+            "     find(\"k\").toString();",
+            "     use(i, null);",
+            "   }",
+            "}")
+        .doTest();
+  }
 }
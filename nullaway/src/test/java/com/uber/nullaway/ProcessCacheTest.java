@@ -0,0 +1,109 @@
+package com.uber.nullaway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.errorprone.ErrorProneFlags;
+import com.uber.nullaway.fixserialization.FixSerializationConfig;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ProcessCacheTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @After
+  public void tearDown() {
+    ProcessCache.invalidateAll();
+  }
+
+  @Test
+  public void valueIsBuiltOncePerKey() {
+    ClassLoader loader = ProcessCacheTest.class.getClassLoader();
+    AtomicInteger builds = new AtomicInteger();
+    String first =
+        ProcessCache.get(loader, "k", String.class, () -> "v" + builds.incrementAndGet());
+    String second =
+        ProcessCache.get(loader, "k", String.class, () -> "v" + builds.incrementAndGet());
+    assertSame(first, second);
+    assertEquals(1, builds.get());
+    ProcessCache.get(loader, "other", String.class, () -> "v" + builds.incrementAndGet());
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  public void valuesAreScopedToClassLoader() throws Exception {
+    ClassLoader loader = ProcessCacheTest.class.getClassLoader();
+    try (URLClassLoader otherLoader = new URLClassLoader(new URL[0], loader)) {
+      Object first = ProcessCache.get(loader, "k", Object.class, Object::new);
+      Object second = ProcessCache.get(otherLoader, "k", Object.class, Object::new);
+      assertNotSame(first, second);
+    }
+  }
+
+  @Test
+  public void configIsSharedForEqualFlags() {
+    ErrorProneFlags flags =
+        ErrorProneFlags.builder()
+            .putFlag("NullAway:AnnotatedPackages", "com.uber")
+            .putFlag("NullAway:CheckOptionalEmptiness", "true")
+            .build();
+    ErrorProneFlags equalFlags =
+        ErrorProneFlags.builder()
+            .putFlag("NullAway:AnnotatedPackages", "com.uber")
+            .putFlag("NullAway:CheckOptionalEmptiness", "true")
+            .build();
+    ErrorProneFlags otherFlags =
+        ErrorProneFlags.builder().putFlag("NullAway:AnnotatedPackages", "com.ubercab").build();
+    Config config = ErrorProneCLIFlagsConfig.forFlags(flags);
+    assertSame(config, ErrorProneCLIFlagsConfig.forFlags(equalFlags));
+    assertNotSame(config, ErrorProneCLIFlagsConfig.forFlags(otherFlags));
+  }
+
+  @Test
+  public void configWithVirtualAnnotationsIsNotShared() throws IOException {
+    Path virtualAnnotations = temporaryFolder.newFile("virtual.tsv").toPath();
+    String field = "FIELD\tcom.uber.Test\tnull\tf\tnull\tfile:///Test.java";
+    Files.write(virtualAnnotations, field.getBytes(StandardCharsets.UTF_8));
+    ErrorProneFlags flags =
+        ErrorProneFlags.builder()
+            .putFlag("NullAway:AnnotatedPackages", "com.uber")
+            .putFlag("NullAway:VirtualAnnotationsPath", virtualAnnotations.toString())
+            .build();
+    Config config = ErrorProneCLIFlagsConfig.forFlags(flags);
+    assertFalse(config.getVirtualAnnotations().isEmpty());
+    // the same path, rewritten for the next compilation, is read again
+    Files.write(virtualAnnotations, new byte[0]);
+    Config next = ErrorProneCLIFlagsConfig.forFlags(flags);
+    assertNotSame(config, next);
+    assertTrue(next.getVirtualAnnotations().isEmpty());
+  }
+
+  @Test
+  public void serializationConfigIsReparsedAfterSameSizeRewrite() throws IOException {
+    Path configFile = temporaryFolder.newFile("nullaway.properties").toPath();
+    Files.write(configFile, "path=out\nparamTest.index=1\n".getBytes(StandardCharsets.UTF_8));
+    FileTime lastModified = Files.getLastModifiedTime(configFile);
+    assertEquals(1, new FixSerializationConfig(configFile.toString()).paramTestIndex);
+    // a rewrite within the same timestamp tick, keeping the size
+    Files.write(configFile, "path=out\nparamTest.index=2\n".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(configFile, lastModified);
+    assertEquals(2, new FixSerializationConfig(configFile.toString()).paramTestIndex);
+  }
+}
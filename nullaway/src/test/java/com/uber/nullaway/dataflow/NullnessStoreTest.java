@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2022 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.uber.nullaway.dataflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symtab;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Names;
+import com.uber.nullaway.Nullness;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.nullaway.dataflow.cfg.node.LocalVariableNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link NullnessStore} on its own, in particular for the cases that the packed encoding
+ * handles separately: stores with different id tables, and ids past the end of a store or of an
+ * index.
+ */
+@RunWith(JUnit4.class)
+public class NullnessStoreTest {
+
+  /** more than the number of ids in a word, so that tests cross a word boundary */
+  private static final int MANY = 70;
+
+  private Symtab symtab;
+
+  private Names names;
+
+  private TreeMaker treeMaker;
+
+  private Symbol.ClassSymbol clazz;
+
+  private Symbol.MethodSymbol method;
+
+  @Before
+  public void setup() {
+    Context context =
+        ((BasicJavacTask)
+                JavacTool.create().getTask(null, null, null, null, null, ImmutableList.of()))
+            .getContext();
+    symtab = Symtab.instance(context);
+    names = Names.instance(context);
+    treeMaker = TreeMaker.instance(context);
+    clazz = new Symbol.ClassSymbol(0, names.fromString("Test"), symtab.noSymbol);
+    method =
+        new Symbol.MethodSymbol(
+            0,
+            names.fromString("m"),
+            new Type.MethodType(
+                com.sun.tools.javac.util.List.nil(),
+                symtab.voidType,
+                com.sun.tools.javac.util.List.nil(),
+                symtab.methodClass),
+            clazz);
+  }
+
+  @Test
+  public void leastUpperBoundOfStoresWithDifferentIdTables() {
+    AccessPath x = local("x");
+    AccessPath y = local("y");
+    AccessPath z = local("z");
+    AccessPath w = local("w");
+    // built independently, so x and y get different ids in the two stores
+    NullnessStore first =
+        NullnessStore.empty()
+            .toBuilder()
+            .setInformation(x, Nullness.NONNULL)
+            .setInformation(y, Nullness.NULL)
+            .setInformation(z, Nullness.NONNULL)
+            .build();
+    NullnessStore second =
+        NullnessStore.empty()
+            .toBuilder()
+            .setInformation(w, Nullness.NULL)
+            .setInformation(y, Nullness.NONNULL)
+            .setInformation(x, Nullness.NONNULL)
+            .build();
+    NullnessStore lub = first.leastUpperBound(second);
+    assertEquals(2, lub.size());
+    assertEquals(Nullness.NONNULL, lub.getNullnessOfAccessPath(x));
+    assertEquals(Nullness.NULLABLE, lub.getNullnessOfAccessPath(y));
+    assertEquals(Nullness.BOTTOM, lub.valueOfAccessPath(z, Nullness.BOTTOM));
+    assertEquals(Nullness.BOTTOM, lub.valueOfAccessPath(w, Nullness.BOTTOM));
+    assertEquals(lub, second.leastUpperBound(first));
+    assertEquals(0, first.leastUpperBound(NullnessStore.empty()).size());
+    assertEquals(0, NullnessStore.empty().leastUpperBound(first).size());
+  }
+
+  @Test
+  public void leastUpperBoundOfStoresOfDifferentLengths() {
+    List<AccessPath> locals = locals(MANY);
+    NullnessStore small =
+        NullnessStore.empty().toBuilder().setInformation(locals.get(0), Nullness.NULL).build();
+    NullnessStore.Builder builder = small.toBuilder();
+    for (AccessPath local : locals) {
+      builder.setInformation(local, Nullness.NONNULL);
+    }
+    NullnessStore large = builder.build();
+    NullnessStore lub = small.leastUpperBound(large);
+    assertEquals(1, lub.size());
+    assertEquals(Nullness.NULLABLE, lub.getNullnessOfAccessPath(locals.get(0)));
+    assertEquals(lub, large.leastUpperBound(small));
+  }
+
+  @Test
+  public void equalsAndHashCodeAcrossIdTables() {
+    AccessPath x = local("x");
+    AccessPath y = local("y");
+    NullnessStore first =
+        NullnessStore.empty()
+            .toBuilder()
+            .setInformation(x, Nullness.NONNULL)
+            .setInformation(y, Nullness.NULLABLE)
+            .build();
+    NullnessStore second =
+        NullnessStore.empty()
+            .toBuilder()
+            .setInformation(y, Nullness.NULLABLE)
+            .setInformation(x, Nullness.NONNULL)
+            .build();
+    assertEquals(first, second);
+    assertEquals(second, first);
+    assertEquals(first.hashCode(), second.hashCode());
+    NullnessStore different =
+        NullnessStore.empty()
+            .toBuilder()
+            .setInformation(y, Nullness.NULLABLE)
+            .setInformation(x, Nullness.NULL)
+            .build();
+    assertNotEquals(first, different);
+    assertNotEquals(different, first);
+    NullnessStore fewer =
+        NullnessStore.empty().toBuilder().setInformation(x, Nullness.NONNULL).build();
+    assertNotEquals(first, fewer);
+    assertNotEquals(fewer, first);
+  }
+
+  @Test
+  public void equalsAndHashCodeIgnoreTrailingEmptyWords() {
+    List<AccessPath> locals = locals(MANY);
+    NullnessStore small =
+        NullnessStore.empty().toBuilder().setInformation(locals.get(0), Nullness.NONNULL).build();
+    NullnessStore.Builder builder = small.toBuilder();
+    for (AccessPath local : locals) {
+      builder.setInformation(local, Nullness.NONNULL);
+    }
+    // same id table as small, but with more (now empty) words
+    NullnessStore filtered =
+        builder.build().filterAccessPaths(path -> path.equals(locals.get(0)));
+    assertEquals(small, filtered);
+    assertEquals(filtered, small);
+    assertEquals(small.hashCode(), filtered.hashCode());
+  }
+
+  @Test
+  public void filterAccessPathsAcrossWords() {
+    List<AccessPath> locals = locals(MANY);
+    NullnessStore.Builder builder = NullnessStore.empty().toBuilder();
+    for (int i = 0; i < MANY; i++) {
+      builder.setInformation(locals.get(i), i % 3 == 0 ? Nullness.NULL : Nullness.NONNULL);
+    }
+    NullnessStore store = builder.build();
+    Set<AccessPath> kept = new LinkedHashSet<>();
+    for (int i = 1; i < MANY; i += 2) {
+      kept.add(locals.get(i));
+    }
+    NullnessStore filtered = store.filterAccessPaths(kept::contains);
+    assertEquals(kept.size(), filtered.size());
+    for (int i = 0; i < MANY; i++) {
+      Nullness expected =
+          i % 2 == 0 ? Nullness.BOTTOM : i % 3 == 0 ? Nullness.NULL : Nullness.NONNULL;
+      assertEquals(expected, filtered.valueOfAccessPath(locals.get(i), Nullness.BOTTOM));
+    }
+    // the original store is unchanged
+    assertEquals(MANY, store.size());
+    assertEquals(0, NullnessStore.empty().filterAccessPaths(path -> true).size());
+  }
+
+  @Test
+  public void uprootAccessPaths() {
+    Symbol.VarSymbol from = localSymbol("from");
+    Symbol.VarSymbol to = localSymbol("to");
+    Symbol.VarSymbol field = fieldSymbol("f", 0);
+    Symbol.VarSymbol other = fieldSymbol("g", 0);
+    NullnessStore.Builder builder = NullnessStore.empty().toBuilder();
+    // push the paths rooted at from into the second word of the store
+    for (AccessPath local : locals(MANY)) {
+      builder.setInformation(local, Nullness.NONNULL);
+    }
+    NullnessStore store =
+        builder
+            .setInformation(path(from), Nullness.NONNULL)
+            .setInformation(path(from, field), Nullness.NULL)
+            .setInformation(path(from, other), Nullness.NULLABLE)
+            .build();
+    NullnessStore uprooted =
+        store.uprootAccessPaths(ImmutableMap.of(localNode(from), localNode(to)));
+    assertEquals(3, uprooted.size());
+    assertEquals(Nullness.NONNULL, uprooted.getNullnessOfAccessPath(path(to)));
+    assertEquals(Nullness.NULL, uprooted.getNullnessOfAccessPath(path(to, field)));
+    assertEquals(Nullness.NULLABLE, uprooted.getNullnessOfAccessPath(path(to, other)));
+    assertEquals(Nullness.BOTTOM, uprooted.valueOfAccessPath(path(from), Nullness.BOTTOM));
+  }
+
+  @Test
+  public void uprootAccessPathsPastEndOfRootIndex() {
+    Symbol.VarSymbol from = localSymbol("from");
+    Symbol.VarSymbol to = localSymbol("to");
+    Symbol.VarSymbol unknown = localSymbol("unknown");
+    // the paths rooted at from have the first ids, and the store has more words than their index
+    NullnessStore.Builder builder =
+        NullnessStore.empty().toBuilder().setInformation(path(from), Nullness.NULL);
+    for (AccessPath local : locals(MANY)) {
+      builder.setInformation(local, Nullness.NONNULL);
+    }
+    NullnessStore store = builder.build();
+    NullnessStore uprooted =
+        store.uprootAccessPaths(
+            ImmutableMap.of(localNode(from), localNode(to), localNode(unknown), localNode(from)));
+    assertEquals(1, uprooted.size());
+    assertEquals(Nullness.NULL, uprooted.getNullnessOfAccessPath(path(to)));
+  }
+
+  @Test
+  public void receiverFieldQueriesAcrossWords() {
+    List<AccessPath> locals = locals(MANY);
+    List<AccessPath> receiverFields = new ArrayList<>();
+    NullnessStore.Builder builder = NullnessStore.empty().toBuilder();
+    for (int i = 0; i < MANY; i++) {
+      // interleave locals and fields, so the ids of fields are spread over several words
+      AccessPath field = receiverField("f" + i);
+      receiverFields.add(field);
+      builder
+          .setInformation(locals.get(i), Nullness.NONNULL)
+          .setInformation(field, i % 2 == 0 ? Nullness.NONNULL : Nullness.NULLABLE);
+    }
+    NullnessStore store = builder.build();
+    Set<AccessPath> expected = new LinkedHashSet<>();
+    for (int i = 0; i < MANY; i += 2) {
+      expected.add(receiverFields.get(i));
+    }
+    assertEquals(expected, store.getReceiverFieldAccessPathsWithValue(Nullness.NONNULL));
+    assertTrue(store.getReceiverFieldAccessPathsWithValue(Nullness.NULL).isEmpty());
+    assertTrue(store.getFieldRootedAccessPathsWithValue(Nullness.NONNULL).isEmpty());
+    Set<AccessPath> allNonNull = new LinkedHashSet<>(locals);
+    allNonNull.addAll(expected);
+    assertEquals(allNonNull, store.getAccessPathsWithValue(Nullness.NONNULL));
+  }
+
+  @Test
+  public void indexQueriesOnStoresShorterOrLongerThanIndex() {
+    Symbol.VarSymbol staticField = fieldSymbol("s", Flags.STATIC);
+    Symbol.VarSymbol field = fieldSymbol("f", 0);
+    AccessPath rootedAtStatic = path(staticField, field);
+    // store words past the end of the field-rooted index
+    NullnessStore.Builder builder =
+        NullnessStore.empty().toBuilder().setInformation(rootedAtStatic, Nullness.NULLABLE);
+    for (AccessPath local : locals(MANY)) {
+      builder.setInformation(local, Nullness.NULLABLE);
+    }
+    NullnessStore longer = builder.build();
+    assertEquals(
+        ImmutableList.of(rootedAtStatic),
+        new ArrayList<>(longer.getFieldRootedAccessPathsWithValue(Nullness.NULLABLE)));
+    // index entries past the end of an older store sharing the id table
+    AccessPath lateField = receiverField("late");
+    NullnessStore withLateField =
+        longer.toBuilder().setInformation(lateField, Nullness.NULLABLE).build();
+    assertTrue(longer.getReceiverFieldAccessPathsWithValue(Nullness.NULLABLE).isEmpty());
+    assertEquals(
+        ImmutableList.of(lateField),
+        new ArrayList<>(withLateField.getReceiverFieldAccessPathsWithValue(Nullness.NULLABLE)));
+    assertEquals(Nullness.BOTTOM, longer.valueOfAccessPath(lateField, Nullness.BOTTOM));
+  }
+
+  private List<AccessPath> locals(int count) {
+    List<AccessPath> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(local("v" + i));
+    }
+    return result;
+  }
+
+  private AccessPath local(String name) {
+    return path(localSymbol(name));
+  }
+
+  private AccessPath receiverField(String name) {
+    return new AccessPath(
+        new AccessPath.Root(), ImmutableList.of(new AccessPathElement(fieldSymbol(name, 0))));
+  }
+
+  private static AccessPath path(Symbol.VarSymbol root, Symbol.VarSymbol... fields) {
+    ImmutableList.Builder<AccessPathElement> elements = ImmutableList.builder();
+    for (Symbol.VarSymbol field : fields) {
+      elements.add(new AccessPathElement(field));
+    }
+    return new AccessPath(new AccessPath.Root(root), elements.build());
+  }
+
+  private Symbol.VarSymbol localSymbol(String name) {
+    return new Symbol.VarSymbol(0, names.fromString(name), symtab.objectType, method);
+  }
+
+  private Symbol.VarSymbol fieldSymbol(String name, long flags) {
+    return new Symbol.VarSymbol(flags, names.fromString(name), symtab.objectType, clazz);
+  }
+
+  private LocalVariableNode localNode(Symbol.VarSymbol symbol) {
+    return new LocalVariableNode(treeMaker.Ident(symbol));
+  }
+}